@@ -1,8 +1,17 @@
 package com.se.netdiagram.application;
 
+import java.util.List;
+import java.util.Map;
+
 import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
 import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.DependencyType;
 import com.se.netdiagram.domain.model.networkdiagram.NetworkDiagram;
+import com.se.netdiagram.domain.model.networkdiagram.TaskId;
+import com.se.netdiagram.domain.model.networkdiagram.ThreePointEstimate;
+import com.se.netdiagram.domain.model.networkdiagram.compact.CompactNetworkDiagram;
+import com.se.netdiagram.domain.model.networkdiagram.compact.MonteCarloSimulation;
+import com.se.netdiagram.domain.model.networkdiagram.compact.ResourceConstrainedScheduler;
 
 public class DiagramNetworkReaderService {
 
@@ -21,14 +30,120 @@ public class DiagramNetworkReaderService {
     }
 
     /**
+     * Reads the tasks into the given empty diagram, like
+     * {@link #readNetworkDiagramWith(TaskDataReader)}, but removes the redundant
+     * dependencies, as {@link NetworkDiagram#removeRedundantDependencies()} does,
+     * before the schedule is calculated.
+     * 
+     * @return the removed predecessors of each task that had any
+     */
+    public static Map<TaskId, List<TaskId>> readReducedNetworkDiagramInto(NetworkDiagram nd,
+            TaskDataReader taskDataReader) throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        TaskDataList taskJSONList = taskDataReader.read();
+
+        nd.beginBatch();
+        try {
+            populateTasksFrom(nd, taskJSONList);
+            addPredecessorsToTasksFrom(nd, taskJSONList);
+            return nd.removeRedundantDependencies();
+        } finally {
+            nd.commitBatch();
+        }
+    }
+
+    /**
+     * Reads the tasks into a {@link CompactNetworkDiagram}, which keeps the
+     * diagram in primitive arrays and is meant for very large inputs that only
+     * have to be scheduled and printed.
+     */
+    public static CompactNetworkDiagram readCompactNetworkDiagramWith(TaskDataReader taskDataReader)
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        return compactNetworkDiagramOf(taskDataReader.read());
+    }
+
+    /**
+     * Reads the tasks into a {@link MonteCarloSimulation}. Tasks with an
+     * optimistic or pessimistic duration get a three-point estimate, with their
+     * duration as the most likely value; a missing bound defaults to the
+     * duration. The other tasks keep their fixed duration.
+     */
+    public static MonteCarloSimulation readMonteCarloSimulationWith(TaskDataReader taskDataReader)
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        TaskDataList taskList = taskDataReader.read();
+
+        MonteCarloSimulation simulation = new MonteCarloSimulation(compactNetworkDiagramOf(taskList));
+        for (TaskData taskJSON : taskList.tasks()) {
+            if (taskJSON.hasEstimate()) {
+                simulation.withEstimate(taskJSON.getId(), estimateOf(taskJSON));
+            }
+        }
+        return simulation;
+    }
+
+    /**
+     * Reads the tasks into a {@link ResourceConstrainedScheduler}, with the
+     * capacities of the task list and the resource demands of the tasks.
+     */
+    public static ResourceConstrainedScheduler readResourceConstrainedSchedulerWith(TaskDataReader taskDataReader)
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        TaskDataList taskList = taskDataReader.read();
+
+        ResourceConstrainedScheduler scheduler = new ResourceConstrainedScheduler(compactNetworkDiagramOf(taskList));
+        for (Map.Entry<String, Integer> capacity : taskList.capacities().entrySet()) {
+            scheduler.withCapacity(capacity.getKey(), capacity.getValue());
+        }
+        for (TaskData taskJSON : taskList.tasks()) {
+            for (Map.Entry<String, Integer> demand : taskJSON.getResources().entrySet()) {
+                scheduler.withDemand(taskJSON.getId(), demand.getKey(), demand.getValue());
+            }
+        }
+        return scheduler;
+    }
+
+    private static ThreePointEstimate estimateOf(TaskData taskJSON) throws ParsingError {
+        int duration = taskJSON.getDuration();
+        int optimistic = taskJSON.getOptimistic() == null ? duration : taskJSON.getOptimistic();
+        int pessimistic = taskJSON.getPessimistic() == null ? duration : taskJSON.getPessimistic();
+        try {
+            return new ThreePointEstimate(optimistic, duration, pessimistic,
+                    ThreePointEstimate.Distribution.valueOf(taskJSON.getDistribution()));
+        } catch (IllegalArgumentException e) {
+            throw new ParsingError("Invalid estimate of task " + taskJSON.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private static CompactNetworkDiagram compactNetworkDiagramOf(TaskDataList taskList)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram.Builder builder = CompactNetworkDiagram.builder();
+        for (TaskData taskJSON : taskList.tasks()) {
+            builder.addTask(taskJSON.getId(), taskJSON.getDuration());
+        }
+        for (TaskData taskJSON : taskList.tasks()) {
+            for (DependencyData predJSON : taskJSON.getPredIds()) {
+                builder.addDependency(taskJSON.getId(), predJSON.getId(), DependencyType.valueOf(predJSON.getType()),
+                        predJSON.getLag());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds all tasks and their predecessors in a single batch, so that the
+     * schedule is calculated once after everything has been loaded.
+     * 
      * @param taskList
      * @throws DuplicateTaskKeyException
      * @throws KeyNotFoundException
      */
     protected static void processTaskList(NetworkDiagram nd, TaskDataList taskList)
             throws DuplicateTaskKeyException, KeyNotFoundException {
-        populateTasksFrom(nd, taskList);
-        addPredecessorsToTasksFrom(nd, taskList);
+        nd.beginBatch();
+        try {
+            populateTasksFrom(nd, taskList);
+            addPredecessorsToTasksFrom(nd, taskList);
+        } finally {
+            nd.commitBatch();
+        }
     }
 
     private static void populateTasksFrom(NetworkDiagram nd, TaskDataList taskList) throws DuplicateTaskKeyException {
@@ -1,14 +1,14 @@
 package com.se.netdiagram.application;
 
-import com.se.netdiagram.domain.model.networkdiagram.Path;
-import com.se.netdiagram.domain.model.networkdiagram.Task;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledPath;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
 
 public interface NetworkDiagramPrinter {
 
     void printHeader(long projectEnd);
 
-    void printTask(Task task, long projectEnd);
+    void printTask(ScheduledTask task, long projectEnd);
 
-    void printCriticalPath(Path path);
+    void printCriticalPath(ScheduledPath path);
 
 }
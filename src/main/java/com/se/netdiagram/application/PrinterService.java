@@ -1,24 +1,27 @@
 package com.se.netdiagram.application;
 
-import com.se.netdiagram.domain.model.networkdiagram.NetworkDiagram;
-import com.se.netdiagram.domain.model.networkdiagram.Path;
-import com.se.netdiagram.domain.model.networkdiagram.Task;
+import java.util.Iterator;
+
+import com.se.netdiagram.domain.model.networkdiagram.Schedule;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledPath;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
 
 public class PrinterService {
 
     private PrinterService() {
     }
 
-    public static void printTasksAndCriticalPaths(NetworkDiagram nd, NetworkDiagramPrinter ndp) {
+    public static void printTasksAndCriticalPaths(Schedule nd, NetworkDiagramPrinter ndp) {
 
         ndp.printHeader(nd.projectEnd());
 
-        for (Task task : nd.tasks()) {
+        for (ScheduledTask task : nd.tasks()) {
             ndp.printTask(task, nd.projectEnd());
         }
 
-        for (Path path : nd.getCriticalPaths()) {
-            ndp.printCriticalPath(path);
+        Iterator<? extends ScheduledPath> criticalPaths = nd.criticalPathIterator();
+        while (criticalPaths.hasNext()) {
+            ndp.printCriticalPath(criticalPaths.next());
         }
     }
 
@@ -1,7 +1,9 @@
 package com.se.netdiagram.application;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO for JSON file
@@ -12,6 +14,18 @@ public class TaskData {
     private final int duration;
     private final List<DependencyData> predIds;
 
+    /**
+     * Optional three-point estimate; the duration is the most likely value.
+     */
+    private Integer optimistic;
+    private Integer pessimistic;
+    private String distribution;
+
+    /**
+     * Optional amount of each resource the task needs while in progress.
+     */
+    private Map<String, Integer> resources;
+
     public TaskData() {
         this("", 0, null);
     }
@@ -20,6 +34,10 @@ public class TaskData {
         this.id = id;
         this.duration = duration;
         this.predIds = predIds;
+        this.optimistic = null;
+        this.pessimistic = null;
+        this.distribution = null;
+        this.resources = new LinkedHashMap<>();
     }
 
     public TaskData(String string, int i) {
@@ -38,6 +56,32 @@ public class TaskData {
         return predIds;
     }
 
+    public Integer getOptimistic() {
+        return optimistic;
+    }
+
+    public Integer getPessimistic() {
+        return pessimistic;
+    }
+
+    public String getDistribution() {
+        if (distribution == null || distribution.isEmpty())
+            return "TRIANGULAR";
+        else
+            return distribution;
+    }
+
+    public Map<String, Integer> getResources() {
+        if (resources == null)
+            return new LinkedHashMap<>();
+        else
+            return resources;
+    }
+
+    public boolean hasEstimate() {
+        return optimistic != null || pessimistic != null;
+    }
+
     // DSL
     public static TaskData task(String id) {
         return new TaskData(id, 0);
@@ -62,4 +106,20 @@ public class TaskData {
         return this;
     }
 
+    public TaskData withDemand(String resource, int amount) {
+        resources.put(resource, amount);
+        return this;
+    }
+
+    public TaskData withEstimate(int optimistic, int pessimistic) {
+        return withEstimate(optimistic, pessimistic, "TRIANGULAR");
+    }
+
+    public TaskData withEstimate(int optimistic, int pessimistic, String distribution) {
+        this.optimistic = optimistic;
+        this.pessimistic = pessimistic;
+        this.distribution = distribution;
+        return this;
+    }
+
 }
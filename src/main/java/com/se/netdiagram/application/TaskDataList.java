@@ -1,25 +1,40 @@
 package com.se.netdiagram.application;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 // DSL for a type safe way to create a list of tasks and add tasks
 // to the list
 public class TaskDataList {
     private List<TaskData> tasks;
+    private Map<String, Integer> capacities;
 
     public TaskDataList() {
-        tasks = new ArrayList<>();
+        this(new ArrayList<>());
     }
 
     public TaskDataList(List<TaskData> taskList) {
+        this(taskList, new LinkedHashMap<>());
+    }
+
+    public TaskDataList(List<TaskData> taskList, Map<String, Integer> capacities) {
         this.tasks = taskList;
+        this.capacities = capacities;
     }
 
     public List<TaskData> tasks() {
         return tasks;
     }
 
+    /**
+     * @return the capacity of each resource the tasks may demand
+     */
+    public Map<String, Integer> capacities() {
+        return capacities;
+    }
+
     // DSL for a type safe way to create a list of tasks and add tasks
     // to the list
     public static TaskDataList taskList() {
@@ -30,4 +45,9 @@ public class TaskDataList {
         tasks.add(task);
         return this;
     }
+
+    public TaskDataList withCapacity(String resource, int capacity) {
+        capacities.put(resource, capacity);
+        return this;
+    }
 }
@@ -0,0 +1,348 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Forward and backward processing that splits the tasks into weakly connected
+ * components, i.e. independent work streams that share no dependencies, and
+ * schedules the components concurrently. The project end is the latest end of
+ * the components.
+ * <p>
+ * The components are kept between processings. The diagram marks the tasks its
+ * changes touch, and the components of the marked tasks are collected again
+ * from them; the other components cannot have changed. A component without
+ * marked tasks also keeps the values of its tasks: its ES and EF stay, and its
+ * LS and LF only move by the distance the project end moved, or are calculated
+ * again if it has working calendars.
+ */
+class ComponentPasses {
+    /**
+     * Runs of components with fewer tasks than this are calculated by a single
+     * thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+    private final ForkJoinPool pool;
+    /**
+     * The components of the previous processing, or null if they are to be found
+     * again for all the tasks.
+     */
+    private List<Component> components = null;
+    /**
+     * The component of each task of the previous processing, by ordinal.
+     */
+    private Component[] componentOf = new Component[16];
+    private final Set<Task> changed = new HashSet<>();
+    private int reused = 0;
+
+    ComponentPasses(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Makes the next processing calculate the component of the task. Both tasks
+     * of an added or removed dependency are to be marked.
+     */
+    void markChanged(Task task) {
+        changed.add(task);
+        discardComponentOf(task);
+    }
+
+    /**
+     * Forgets a removed task. Its predecessors and successors are to be marked.
+     */
+    void markRemoved(Task task) {
+        changed.remove(task);
+        discardComponentOf(task);
+        componentOf[task.id().ordinal()] = null;
+    }
+
+    /**
+     * Makes the next processing find and calculate all the components.
+     */
+    void markAllChanged() {
+        components = null;
+        changed.clear();
+    }
+
+    private void discardComponentOf(Task task) {
+        int ordinal = task.id().ordinal();
+        if (ordinal < componentOf.length && componentOf[ordinal] != null) {
+            componentOf[ordinal].isDiscarded = true;
+        }
+    }
+
+    /**
+     * Calculates the values of the tasks of the changed components and moves the
+     * latest values of the others.
+     *
+     * @param order       the tasks in topological order
+     * @param previousEnd the project end the values of the unchanged tasks were
+     *                    calculated for
+     * @return project end
+     */
+    long schedule(List<Task> order, long previousEnd) {
+        List<Component> calculated = components == null ? findAll(order) : findChanged();
+        changed.clear();
+
+        calculate(calculated, Component::forward);
+        long end = 0;
+        for (Component component : components) {
+            end = Math.max(end, component.end);
+        }
+        long projectEnd = end;
+        long delta = projectEnd - previousEnd;
+
+        reused = 0;
+        List<Component> moved = new ArrayList<>();
+        for (Component component : components) {
+            if (!component.isChanged) {
+                if (delta != 0 && component.hasCalendars) {
+                    calculated.add(component);
+                } else {
+                    reused++;
+                    if (delta != 0) {
+                        moved.add(component);
+                    }
+                }
+            }
+        }
+        calculate(calculated, component -> component.backward(projectEnd));
+        calculate(moved, component -> component.shiftLatestBy(delta));
+
+        for (Component component : components) {
+            component.isChanged = false;
+        }
+        return projectEnd;
+    }
+
+    /**
+     * @return the number of components of the last processing that kept their
+     *         values
+     */
+    int reusedComponents() {
+        return reused;
+    }
+
+    /**
+     * Groups all the tasks with union-find over the dependencies. Each component
+     * keeps the topological order.
+     *
+     * @return the components, which are all changed
+     */
+    private List<Component> findAll(List<Task> order) {
+        int[] parent = new int[order.size()];
+        int[] size = new int[order.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        for (Task task : order) {
+            for (Dependency dependency : task.predecessors()) {
+                int a = find(parent, task.topologicalPosition());
+                int b = find(parent, dependency.task().topologicalPosition());
+                if (a != b) {
+                    if (size[a] < size[b]) {
+                        int swap = a;
+                        a = b;
+                        b = swap;
+                    }
+                    parent[b] = a;
+                    size[a] += size[b];
+                }
+            }
+        }
+
+        Component[] byRoot = new Component[order.size()];
+        components = new ArrayList<>();
+        componentOf = new Component[componentOf.length];
+        for (Task task : order) {
+            int root = find(parent, task.topologicalPosition());
+            if (byRoot[root] == null) {
+                byRoot[root] = new Component(size[root]);
+                components.add(byRoot[root]);
+            }
+            byRoot[root].add(task);
+            setComponentOf(task, byRoot[root]);
+        }
+        return new ArrayList<>(components);
+    }
+
+    /**
+     * Collects the components of the changed tasks again, by a search over the
+     * dependencies, and keeps the other components. Each task of a discarded
+     * component is connected to a changed task, since the tasks of a dependency
+     * that was added or removed are marked.
+     *
+     * @return the collected components, which are changed
+     */
+    private List<Component> findChanged() {
+        List<Component> kept = new ArrayList<>();
+        for (Component component : components) {
+            if (!component.isDiscarded) {
+                kept.add(component);
+            }
+        }
+
+        List<Component> collected = new ArrayList<>();
+        Deque<Task> pending = new ArrayDeque<>();
+        for (Task task : changed) {
+            Component component = componentOfTask(task);
+            if (component != null && component.isChanged) {
+                continue;
+            }
+            component = new Component(0);
+            component.isChanged = true;
+            setComponentOf(task, component);
+            pending.push(task);
+            while (!pending.isEmpty()) {
+                Task next = pending.pop();
+                component.add(next);
+                for (Dependency dependency : next.predecessors()) {
+                    visit(dependency.task(), component, pending);
+                }
+                for (Dependency dependency : next.successorEdges()) {
+                    visit(dependency.successor(), component, pending);
+                }
+            }
+            component.tasks.sort(Comparator.comparingInt(Task::topologicalPosition));
+            collected.add(component);
+        }
+
+        components = kept;
+        components.addAll(collected);
+        return collected;
+    }
+
+    private void visit(Task task, Component component, Deque<Task> pending) {
+        if (componentOfTask(task) != component) {
+            setComponentOf(task, component);
+            pending.push(task);
+        }
+    }
+
+    private Component componentOfTask(Task task) {
+        int ordinal = task.id().ordinal();
+        return ordinal < componentOf.length ? componentOf[ordinal] : null;
+    }
+
+    private void setComponentOf(Task task, Component component) {
+        int ordinal = task.id().ordinal();
+        if (ordinal >= componentOf.length) {
+            componentOf = Arrays.copyOf(componentOf, Math.max(ordinal + 1, 2 * componentOf.length));
+        }
+        componentOf[ordinal] = component;
+    }
+
+    private static int find(int[] parent, int element) {
+        while (parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    private void calculate(List<Component> components, Consumer<Component> calculation) {
+        if (components.isEmpty()) {
+            return;
+        }
+        if (components.size() == 1) {
+            calculation.accept(components.get(0));
+        } else {
+            pool.invoke(new Part(components, 0, components.size(), calculation));
+        }
+    }
+
+    private static class Component {
+        final List<Task> tasks;
+        /**
+         * Whether the values of the tasks are to be calculated.
+         */
+        boolean isChanged = true;
+        /**
+         * Whether a change touched the component since it was found, so that it is
+         * to be found again.
+         */
+        boolean isDiscarded = false;
+        boolean hasCalendars = false;
+        long end;
+
+        Component(int size) {
+            tasks = new ArrayList<>(size);
+        }
+
+        void add(Task task) {
+            tasks.add(task);
+            hasCalendars |= task.calendar() != null;
+        }
+
+        /**
+         * Calculates the ES and EF values and the end of the component.
+         */
+        void forward() {
+            end = 0;
+            for (Task task : tasks) {
+                task.calculateEarliest();
+                end = Math.max(end, task.earliestFinish());
+            }
+        }
+
+        /**
+         * Calculates the LS, LF and Slack values.
+         */
+        void backward(long projectEnd) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                tasks.get(i).calculateLatestAndSlack(projectEnd);
+            }
+        }
+
+        void shiftLatestBy(long delta) {
+            for (Task task : tasks) {
+                task.shiftLatestBy(delta);
+            }
+        }
+    }
+
+    private static class Part extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Component> components;
+        private final int from;
+        private final int to;
+        private final transient Consumer<Component> calculation;
+
+        Part(List<Component> components, int from, int to, Consumer<Component> calculation) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
+            this.calculation = calculation;
+        }
+
+        @Override
+        protected void compute() {
+            int tasks = 0;
+            for (int i = from; i < to; i++) {
+                tasks += components.get(i).tasks.size();
+            }
+            if (to - from == 1 || tasks < SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    calculation.accept(components.get(i));
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Part(components, from, middle, calculation),
+                        new Part(components, middle, to, calculation));
+            }
+        }
+    }
+}
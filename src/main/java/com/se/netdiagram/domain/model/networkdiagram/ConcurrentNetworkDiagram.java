@@ -0,0 +1,132 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * A network diagram that can be changed by several threads and read by any
+ * number of threads at the same time.
+ * <p>
+ * Changes are made one at a time, under a lock, on a private
+ * {@link NetworkDiagram} that no reader sees. Once a change is scheduled, an
+ * immutable {@link ScheduleSnapshot} of the diagram is published with a single
+ * volatile write. Readers take the last published snapshot with
+ * {@link #snapshot()}, without locking, and keep reading it consistently while
+ * later changes are made. If a change fails, the private diagram is restored
+ * from the last snapshot, so that a failed change is never published, not even
+ * partly.
+ * <p>
+ * Publishing copies the whole diagram: the tasks, their dependencies and their
+ * values, which the copy shares since they are immutable. Every published
+ * change therefore costs time and memory in the size of the diagram, not of the
+ * change, and no part of a snapshot is ever shared with a later one that could
+ * change it. Several changes that belong together should be made with
+ * {@link #edit(Edit)}, which publishes once.
+ * <p>
+ * Summary tasks are not accepted: their sub-networks would change the private
+ * diagram from other threads, without the lock and without publishing.
+ */
+public class ConcurrentNetworkDiagram {
+
+    /**
+     * Changes to apply to the private diagram.
+     */
+    public interface Edit {
+        void applyTo(NetworkDiagram nd) throws DuplicateTaskKeyException, KeyNotFoundException;
+    }
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private NetworkDiagram diagram = privateDiagram(new NetworkDiagram());
+    private volatile ScheduleSnapshot published = new ScheduleSnapshot(diagram.copy(), 0);
+
+    /**
+     * @return the last published snapshot
+     */
+    public ScheduleSnapshot snapshot() {
+        return published;
+    }
+
+    public ScheduleSnapshot addTask(String id, int duration) throws DuplicateTaskKeyException {
+        try {
+            return apply(nd -> nd.addTask(id, duration), false);
+        } catch (KeyNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public ScheduleSnapshot addPredecessorToTask(String aTaskId, String aPredId, String dependencyType, long lag)
+            throws KeyNotFoundException {
+        return editExistingTasks(nd -> nd.addPredecessorToTask(aTaskId, aPredId, dependencyType, lag));
+    }
+
+    public ScheduleSnapshot changeDurationOfTask(String aTaskId, int duration) throws KeyNotFoundException {
+        return editExistingTasks(nd -> nd.changeDurationOfTask(aTaskId, duration));
+    }
+
+    public ScheduleSnapshot changeLagOfDependency(String aTaskId, String aPredId, long lag)
+            throws KeyNotFoundException {
+        return editExistingTasks(nd -> nd.changeLagOfDependency(aTaskId, aPredId, lag));
+    }
+
+    public ScheduleSnapshot removePredecessorFromTask(String aTaskId, String aPredId) throws KeyNotFoundException {
+        return editExistingTasks(nd -> nd.removePredecessorFromTask(aTaskId, aPredId));
+    }
+
+    public ScheduleSnapshot removeTask(String aTaskId) throws KeyNotFoundException {
+        return editExistingTasks(nd -> nd.removeTask(aTaskId));
+    }
+
+    /**
+     * Applies the changes as one batch and publishes the result once. The
+     * changes must not open or commit batches themselves.
+     * 
+     * @return the snapshot published for the changes
+     */
+    public ScheduleSnapshot edit(Edit edit) throws DuplicateTaskKeyException, KeyNotFoundException {
+        return apply(edit, true);
+    }
+
+    /**
+     * @param inBatch whether to schedule once after all the changes, rather than
+     *                incrementally after each one
+     */
+    private ScheduleSnapshot apply(Edit edit, boolean inBatch) throws DuplicateTaskKeyException, KeyNotFoundException {
+        writeLock.lock();
+        try {
+            boolean applied = false;
+            try {
+                if (inBatch) {
+                    diagram.beginBatch();
+                }
+                edit.applyTo(diagram);
+                if (inBatch) {
+                    diagram.commitBatch();
+                }
+                applied = true;
+            } finally {
+                if (!applied) {
+                    diagram = privateDiagram(published.toNetworkDiagram());
+                }
+            }
+            published = new ScheduleSnapshot(diagram.copy(), published.version() + 1);
+            return published;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static NetworkDiagram privateDiagram(NetworkDiagram nd) {
+        nd.rejectSummaryTasks();
+        return nd;
+    }
+
+    private ScheduleSnapshot editExistingTasks(Edit edit) throws KeyNotFoundException {
+        try {
+            return apply(edit, false);
+        } catch (DuplicateTaskKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
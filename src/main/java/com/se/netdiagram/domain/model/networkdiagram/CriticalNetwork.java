@@ -0,0 +1,155 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * The sub-network of the critical dependencies of a scheduled network diagram.
+ * A dependency is critical when both tasks have zero slack and the predecessor
+ * determines the ES of the successor. A critical path follows critical
+ * dependencies from a task without a critical predecessor to a task without a
+ * critical successor.
+ * <p>
+ * The sub-network is built once; its paths are enumerated lazily and can be
+ * counted without being enumerated.
+ */
+class CriticalNetwork {
+    private final List<Task> criticalTasks = new ArrayList<>();
+    private final List<Task> roots = new ArrayList<>();
+    private final Map<Task, List<Task>> criticalSuccessors = new HashMap<>();
+
+    /**
+     * @param order the scheduled tasks in topological order
+     */
+    CriticalNetwork(List<Task> order) {
+        Map<Task, Boolean> hasCriticalPredecessor = new HashMap<>();
+        for (Task task : order) {
+            if (task.slack() != 0) {
+                continue;
+            }
+            criticalTasks.add(task);
+            if (!hasCriticalPredecessor.containsKey(task)) {
+                roots.add(task);
+            }
+
+            List<Task> successors = new ArrayList<>();
+            for (Dependency dependency : task.successorEdges()) {
+                Task successor = dependency.successor();
+                if (isCritical(task, successor, dependency)) {
+                    successors.add(successor);
+                    hasCriticalPredecessor.put(successor, true);
+                }
+            }
+            criticalSuccessors.put(task, successors);
+        }
+    }
+
+    static boolean isCritical(Task predecessor, Task successor, Dependency dependency) {
+        return predecessor.slack() == 0 && successor.slack() == 0
+                && successor.earliestStartAllowedBy(predecessor, dependency.type(),
+                        dependency.lag().value()) == successor.earliestStart();
+    }
+
+    List<Task> criticalSuccessorsOf(Task task) {
+        List<Task> successors = criticalSuccessors.get(task);
+        return successors == null ? Collections.emptyList() : successors;
+    }
+
+    /**
+     * Counts the critical paths by summing, in reverse topological order, the
+     * number of paths that start at each critical task.
+     */
+    BigInteger countPaths() {
+        Map<Task, BigInteger> pathsFrom = new HashMap<>();
+        for (int i = criticalTasks.size() - 1; i >= 0; i--) {
+            Task task = criticalTasks.get(i);
+            List<Task> successors = criticalSuccessorsOf(task);
+            BigInteger count = successors.isEmpty() ? BigInteger.ONE : BigInteger.ZERO;
+            for (Task successor : successors) {
+                count = count.add(pathsFrom.get(successor));
+            }
+            pathsFrom.put(task, count);
+        }
+
+        BigInteger total = BigInteger.ZERO;
+        for (Task root : roots) {
+            total = total.add(pathsFrom.get(root));
+        }
+        return total;
+    }
+
+    Iterator<Path> paths() {
+        return new PathIterator();
+    }
+
+    /**
+     * Depth-first enumeration of the critical paths, one at a time.
+     */
+    private class PathIterator implements Iterator<Path> {
+        private final Iterator<Task> nextRoot = roots.iterator();
+        private final Deque<Frame> stack = new ArrayDeque<>();
+        private Path next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Path path = next;
+            next = null;
+            return path;
+        }
+
+        private Path advance() {
+            while (true) {
+                if (stack.isEmpty()) {
+                    if (!nextRoot.hasNext()) {
+                        return null;
+                    }
+                    Task root = nextRoot.next();
+                    stack.push(new Frame(root, new Path().addTask(root)));
+                }
+
+                Frame top = stack.peek();
+                List<Task> successors = criticalSuccessorsOf(top.task);
+                if (successors.isEmpty()) {
+                    stack.pop();
+                    return top.path;
+                }
+                if (top.nextSuccessor < successors.size()) {
+                    Task successor = successors.get(top.nextSuccessor++);
+                    stack.push(new Frame(successor, top.path.addTask(successor)));
+                } else {
+                    stack.pop();
+                }
+            }
+        }
+    }
+
+    private static class Frame {
+        private final Task task;
+        private final Path path;
+        private int nextSuccessor = 0;
+
+        Frame(Task task, Path path) {
+            this.task = task;
+            this.path = path;
+        }
+    }
+}
@@ -2,10 +2,25 @@ package com.se.netdiagram.domain.model.networkdiagram;
 
 import com.se.netdiagram.domain.model.networkdiagram.date.Lag;
 
-public class Dependency {
+/**
+ * A dependency of a task on another task, its predecessor.
+ * <p>
+ * Once added to a task, the same object is both one of the predecessors of the
+ * task and one of the successor edges of the predecessor, see
+ * {@link Task#successorEdges()}, so each dependency is kept once.
+ */
+public class Dependency implements ScheduledDependency {
     private Task task;
     private DependencyType type;
     private Lag lag;
+    private Task successor;
+    /**
+     * The positions of the dependency in the predecessors of its successor and in
+     * the successor edges of its task, so that it is replaced or removed without
+     * searching.
+     */
+    private int predecessorPosition;
+    private int successorPosition;
 
     public Dependency(Task task, DependencyType type, Lag lag) {
         this.task = task;
@@ -29,6 +44,34 @@ public class Dependency {
         return lag;
     }
 
+    /**
+     * @return the task that depends on the predecessor, or null if the
+     *         dependency was not added to a task
+     */
+    Task successor() {
+        return successor;
+    }
+
+    void setSuccessor(Task successor) {
+        this.successor = successor;
+    }
+
+    int predecessorPosition() {
+        return predecessorPosition;
+    }
+
+    void setPredecessorPosition(int predecessorPosition) {
+        this.predecessorPosition = predecessorPosition;
+    }
+
+    int successorPosition() {
+        return successorPosition;
+    }
+
+    void setSuccessorPosition(int successorPosition) {
+        this.successorPosition = successorPosition;
+    }
+
     public String toString() {
         return task.toString() + (type != DependencyType.FS ? "-" + type.toString() : "")
                 + (lag.value() != 0 ? lag.value() : "");
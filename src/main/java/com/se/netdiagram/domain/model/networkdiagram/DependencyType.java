@@ -1,5 +1,80 @@
 package com.se.netdiagram.domain.model.networkdiagram;
 
 public enum DependencyType {
-    FS, SS, FF, SF
+    FS, SS, FF, SF;
+
+    /**
+     * The earliest start a dependency of this type allows to the successor.
+     * 
+     * @param predEarliestStart  ES of the predecessor
+     * @param predEarliestFinish EF of the predecessor
+     * @param duration           duration of the successor
+     * @param lag
+     */
+    public long earliestStartOfSuccessor(long predEarliestStart, long predEarliestFinish, long duration,
+            long lag) {
+        switch (this) {
+        case FS:
+            return predEarliestFinish + lag;
+        case SS:
+            return predEarliestStart + lag;
+        case FF:
+            return predEarliestFinish - duration + lag;
+        default:
+            return predEarliestStart - duration + lag;
+        }
+    }
+
+    /**
+     * The latest finish a dependency of this type allows to the predecessor.
+     * 
+     * @param succLatestStart  LS of the successor
+     * @param succLatestFinish LF of the successor
+     * @param duration         duration of the predecessor
+     * @param lag
+     */
+    public long latestFinishOfPredecessor(long succLatestStart, long succLatestFinish, long duration, long lag) {
+        switch (this) {
+        case FS:
+            return succLatestStart - lag;
+        case SS:
+            return succLatestStart + duration - lag;
+        case FF:
+            return succLatestFinish - lag;
+        default:
+            return succLatestFinish + duration - lag;
+        }
+    }
+
+    /**
+     * @return true if the dependency bounds the finish of the successor, false if
+     *         it bounds its start
+     */
+    public boolean constrainsSuccessorFinish() {
+        return this == FF || this == SF;
+    }
+
+    /**
+     * The earliest start, or finish if {@link #constrainsSuccessorFinish()}, a
+     * dependency of this type allows to the successor.
+     */
+    public long earliestBoundOfSuccessor(long predEarliestStart, long predEarliestFinish, long lag) {
+        return (this == FS || this == FF ? predEarliestFinish : predEarliestStart) + lag;
+    }
+
+    /**
+     * @return true if the dependency bounds the finish of the predecessor, false
+     *         if it bounds its start
+     */
+    public boolean constrainsPredecessorFinish() {
+        return this == FS || this == FF;
+    }
+
+    /**
+     * The latest finish, or start if not {@link #constrainsPredecessorFinish()},
+     * a dependency of this type allows to the predecessor.
+     */
+    public long latestBoundOfPredecessor(long succLatestStart, long succLatestFinish, long lag) {
+        return (this == FS || this == SS ? succLatestStart : succLatestFinish) - lag;
+    }
 }
@@ -2,16 +2,31 @@ package com.se.netdiagram.domain.model.networkdiagram;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
 
 import com.se.netdiagram.domain.model.networkdiagram.date.Date;
 import com.se.netdiagram.domain.model.networkdiagram.date.Duration;
+import com.se.netdiagram.domain.model.networkdiagram.date.WorkingCalendar;
 
+/**
+ * The ES, EF, LS, LF and Slack values of a task. The values are kept as
+ * primitives, with {@link #NOT_CALCULATED} marking a value that has not been
+ * calculated yet, so that the forward and backward processing do not allocate
+ * anything per dependency.
+ * <p>
+ * A task with a {@link WorkingCalendar} is scheduled in its own working time:
+ * the bounds set by its dependencies are converted to working time, its ES and
+ * LF are found there, and the results are converted back to days. Without a
+ * calendar the values are calculated in plain time units.
+ */
 public class EarliestLatest {
-    private Date earliestStart;
-    private Date earliestFinish;
-    private Date latestStart;
-    private Date latestFinish;
-    private Duration slack;
+    static final long NOT_CALCULATED = Long.MIN_VALUE;
+
+    private long earliestStart;
+    private long earliestFinish;
+    private long latestStart;
+    private long latestFinish;
+    private long slack;
 
     public EarliestLatest() {
         setEarliestAndLatestToEmpty();
@@ -25,104 +40,286 @@ public class EarliestLatest {
         this.slack = earliestLatest.slack;
     }
 
+    /**
+     * The values of a task scheduled earlier, with Slack = LF - EF.
+     */
+    EarliestLatest(long earliestStart, long earliestFinish, long latestStart, long latestFinish) {
+        this.earliestStart = earliestStart;
+        this.earliestFinish = earliestFinish;
+        this.latestStart = latestStart;
+        this.latestFinish = latestFinish;
+        this.slack = latestFinish - earliestFinish;
+    }
+
+    /**
+     * Without calendars, moving the project end moves the LS and LF of every task
+     * by the same amount, so they need not be calculated again.
+     * 
+     * @return a copy with LS, LF and Slack moved by the given amount, if they are
+     *         calculated
+     */
+    EarliestLatest withLatestShiftedBy(long delta) {
+        EarliestLatest shifted = new EarliestLatest(this);
+        if (latestFinish != NOT_CALCULATED) {
+            shifted.latestStart += delta;
+            shifted.latestFinish += delta;
+            shifted.slack += delta;
+        }
+        return shifted;
+    }
+
     private void setEarliestAndLatestToEmpty() {
-        earliestStart = Date.empty();
-        earliestFinish = Date.empty();
-        latestStart = Date.empty();
-        latestFinish = Date.empty();
+        earliestStart = NOT_CALCULATED;
+        earliestFinish = NOT_CALCULATED;
+        latestStart = NOT_CALCULATED;
+        latestFinish = NOT_CALCULATED;
+        slack = NOT_CALCULATED;
     }
 
     public Duration slack() {
-        return slack;
+        return slack == NOT_CALCULATED ? null : new Duration(slack);
     }
 
     public Date earliestFinish() {
-        return earliestFinish;
+        return toDate(earliestFinish);
     }
 
     public Date earliestStart() {
-        return earliestStart;
+        return toDate(earliestStart);
     }
 
     public Date latestStart() {
-        return latestStart;
+        return toDate(latestStart);
     }
 
     public Date latestFinish() {
-        return latestFinish;
-    }
-
-    private void calculateEarliestValues(List<Dependency> predecessors, Duration duration) {
-        this.earliestStart = Date.ofLong(0);
-        for (Dependency predDependency : predecessors) {
-            Task predTask = predDependency.task();
-
-            long es = this.earliestStart.getAsLong();
-            long pef = predTask.earliestLatest().earliestFinish.getAsLong();
-            long pes = predTask.earliestLatest().earliestStart.getAsLong();
-
-            switch (predDependency.type()) {
-            case FS:
-                es = Math.max(es, pef + predDependency.lag().value());
-                break;
-            case SS:
-                es = Math.max(es, pes + predDependency.lag().value());
-                break;
-            case FF:
-                es = Math.max(es, pef - duration.value() + predDependency.lag().value());
-                break;
-            case SF:
-                es = Math.max(es, pes - duration.value() + predDependency.lag().value());
+        return toDate(latestFinish);
+    }
+
+    private static Date toDate(long value) {
+        return value == NOT_CALCULATED ? Date.empty() : Date.ofLong(value);
+    }
+
+    long earliestStartAsLong() {
+        return present(earliestStart);
+    }
+
+    long earliestFinishAsLong() {
+        return present(earliestFinish);
+    }
+
+    long latestStartAsLong() {
+        return present(latestStart);
+    }
+
+    long latestFinishAsLong() {
+        return present(latestFinish);
+    }
+
+    long slackAsLong() {
+        return present(slack);
+    }
+
+    private static long present(long value) {
+        if (value == NOT_CALCULATED)
+            throw new NoSuchElementException("Date is not present");
+        return value;
+    }
+
+    boolean earliestIsCalculated() {
+        return earliestFinish != NOT_CALCULATED;
+    }
+
+    public boolean hasSameEarliestAs(EarliestLatest other) {
+        return earliestStart == other.earliestStart && earliestFinish == other.earliestFinish;
+    }
+
+    public boolean hasSameLatestAs(EarliestLatest other) {
+        return latestStart == other.latestStart && latestFinish == other.latestFinish;
+    }
+
+    private void calculateEarliestValues(List<Dependency> predecessors, Duration duration,
+            WorkingCalendar calendar) {
+        if (calendar != null) {
+            checkEarliestOf(predecessors);
+            this.earliestStart = earliestStartInCalendar(predecessors, duration.value(), calendar,
+                    task -> task.earliestLatest().earliestStart, task -> task.earliestLatest().earliestFinish);
+            this.earliestFinish = finishInCalendar(earliestStart, duration.value(), calendar);
+            return;
+        }
+
+        long es = 0;
+        for (int i = 0; i < predecessors.size(); i++) {
+            Dependency predDependency = predecessors.get(i);
+            EarliestLatest pred = predDependency.task().earliestLatest();
+            if (pred.earliestStart == NOT_CALCULATED) {
+                throw new IllegalStateException(
+                        "Earliest values of predecessor " + predDependency.task() + " have not been calculated yet!");
+            }
+
+            es = Math.max(es, predDependency.type().earliestStartOfSuccessor(pred.earliestStart,
+                    pred.earliestFinish, duration.value(), predDependency.lag().value()));
+        }
+        this.earliestStart = es;
+        this.earliestFinish = es + duration.value();
+
+        assert this.earliestStart >= 0;
+    }
+
+    private static void checkEarliestOf(List<Dependency> predecessors) {
+        for (int i = 0; i < predecessors.size(); i++) {
+            if (predecessors.get(i).task().earliestLatest().earliestStart == NOT_CALCULATED) {
+                throw new IllegalStateException("Earliest values of predecessor " + predecessors.get(i).task()
+                        + " have not been calculated yet!");
+            }
+        }
+    }
+
+    /**
+     * The ES of a task with a working calendar, given the ES and EF of its
+     * predecessors.
+     */
+    static long earliestStartInCalendar(List<Dependency> predecessors, long duration, WorkingCalendar calendar,
+            ToLongFunction<Task> earliestStartOf, ToLongFunction<Task> earliestFinishOf) {
+        long es = 0;
+        for (int i = 0; i < predecessors.size(); i++) {
+            Dependency predDependency = predecessors.get(i);
+            es = Math.max(es, earliestStartAllowedBy(predDependency.task(), predDependency.type(),
+                    predDependency.lag().value(), duration, calendar, earliestStartOf, earliestFinishOf));
+        }
+        return calendar.startOfWorkingTime(es);
+    }
+
+    /**
+     * A task without duration starts and finishes at the start of a working day,
+     * so all its bounds are bounds of its start.
+     * 
+     * @return the working time at which the dependency allows the successor to
+     *         start at the earliest
+     */
+    private static long earliestStartAllowedBy(Task pred, DependencyType type, long lag, long duration,
+            WorkingCalendar calendar, ToLongFunction<Task> earliestStartOf, ToLongFunction<Task> earliestFinishOf) {
+        long bound = type.earliestBoundOfSuccessor(earliestStartOf.applyAsLong(pred),
+                earliestFinishOf.applyAsLong(pred), lag);
+        return type.constrainsSuccessorFinish() && duration > 0
+                ? calendar.workingTimeFinishingAtOrAfter(bound) - duration
+                : calendar.workingTimeStartingAtOrAfter(bound);
+    }
+
+    /**
+     * @return the ES the dependency alone allows to a task with the calendar
+     */
+    static long earliestStartInCalendarAllowedBy(Task pred, DependencyType type, long lag, long duration,
+            WorkingCalendar calendar) {
+        return calendar.startOfWorkingTime(earliestStartAllowedBy(pred, type, lag, duration, calendar,
+                task -> task.earliestLatest().earliestStart, task -> task.earliestLatest().earliestFinish));
+    }
+
+    /**
+     * @return the day a task with the calendar finishes, if it starts on the given
+     *         working day
+     */
+    static long finishInCalendar(long start, long duration, WorkingCalendar calendar) {
+        if (duration == 0) {
+            return start;
+        }
+        return calendar.finishOfWorkingTime(calendar.workingTimeBefore(start) + duration);
+    }
+
+    private void calculateLatestValuesAndSlack(List<Dependency> successors, Duration duration, long projectEnd,
+            WorkingCalendar calendar) {
+        if (earliestFinish == NOT_CALCULATED) {
+            throw new IllegalStateException("Earliest values have not been calculated yet!");
+        }
+        if (calendar != null) {
+            calculateLatestValuesAndSlackInCalendar(successors, duration.value(), projectEnd, calendar);
+            return;
+        }
+
+        long lf = projectEnd;
+        for (int i = 0; i < successors.size(); i++) {
+            Dependency successorDependency = successors.get(i);
+            EarliestLatest successor = successorDependency.successor().earliestLatest();
+            if (successor.latestStart == NOT_CALCULATED) {
+                throw new IllegalStateException("Latest values of successor " + successorDependency.successor()
+                        + " have not been calculated yet!");
             }
-            this.earliestStart = Date.ofLong(es);
+
+            lf = Math.min(lf, successorDependency.type().latestFinishOfPredecessor(successor.latestStart,
+                    successor.latestFinish, duration.value(), successorDependency.lag().value()));
         }
-        this.earliestFinish = Date.ofLong(this.earliestStart.getAsLong() + duration.value());
-
-        assert this.earliestStart.getAsLong() >= 0;
-    }
-
-    private void calculateLatestValuesAndSlack(List<Dependency> successors, Duration duration, long projectEnd) {
-        try {
-            this.latestFinish = Date.ofLong(projectEnd);
-            for (Dependency successorDependency : successors) {
-                Task successorTask = successorDependency.task();
-
-                long lf = this.latestFinish.getAsLong();
-                long sls = successorTask.earliestLatest().latestStart.getAsLong();
-                long slf = successorTask.earliestLatest().latestFinish.getAsLong();
-
-                switch (successorDependency.type()) {
-                case FS:
-                    lf = Math.min(lf, sls - successorDependency.lag().value());
-                    break;
-                case SS:
-                    lf = Math.min(lf, sls + duration.value() - successorDependency.lag().value());
-                    break;
-                case FF:
-                    lf = Math.min(lf, slf - successorDependency.lag().value());
-                    break;
-                case SF:
-                    lf = Math.min(lf, slf + duration.value() - successorDependency.lag().value());
-                }
-                this.latestFinish = Date.ofLong(lf);
+        this.latestFinish = lf;
+        this.latestStart = lf - duration.value();
+        this.slack = lf - earliestFinish;
+    }
+
+    private void calculateLatestValuesAndSlackInCalendar(List<Dependency> successors, long duration,
+            long projectEnd, WorkingCalendar calendar) {
+        long lf = latestFinishInCalendarAllowedBy(projectEnd, true, duration, calendar);
+        for (int i = 0; i < successors.size(); i++) {
+            Dependency successorDependency = successors.get(i);
+            EarliestLatest successor = successorDependency.successor().earliestLatest();
+            if (successor.latestStart == NOT_CALCULATED) {
+                throw new IllegalStateException("Latest values of successor " + successorDependency.successor()
+                        + " have not been calculated yet!");
             }
-            this.latestStart = Date.ofLong(this.latestFinish.getAsLong() - duration.value());
-            this.slack = Duration.difference(this.latestFinish.getAsLong(), this.earliestFinish.getAsLong());
-        } catch (NoSuchElementException e) {
-            throw new IllegalStateException("Earliest values have not been calculated yet!" + e.getMessage());
+
+            DependencyType type = successorDependency.type();
+            long bound = type.latestBoundOfPredecessor(successor.latestStart, successor.latestFinish,
+                    successorDependency.lag().value());
+            lf = Math.min(lf,
+                    latestFinishInCalendarAllowedBy(bound, type.constrainsPredecessorFinish(), duration, calendar));
         }
+        this.latestStart = calendar.startOfWorkingTime(lf - duration);
+        this.latestFinish = finishInCalendar(latestStart, duration, calendar);
+        this.slack = latestFinish - earliestFinish;
+    }
+
+    /**
+     * A task without duration starts and finishes at the start of a working day,
+     * so all its bounds are bounds of its start.
+     * 
+     * @return the working time at which the bound allows the task to finish at
+     *         the latest
+     */
+    private static long latestFinishInCalendarAllowedBy(long bound, boolean boundsFinish, long duration,
+            WorkingCalendar calendar) {
+        return boundsFinish && duration > 0 ? calendar.workingTimeFinishingAtOrBefore(bound)
+                : calendar.workingTimeStartingAtOrBefore(bound) + duration;
     }
 
     public EarliestLatest calculateEarliest(List<Dependency> predecessors, Duration duration) {
+        return calculateEarliest(predecessors, duration, null);
+    }
+
+    /**
+     * @param calendar the working calendar of the task, or null
+     */
+    public EarliestLatest calculateEarliest(List<Dependency> predecessors, Duration duration,
+            WorkingCalendar calendar) {
         EarliestLatest earliestLatest = new EarliestLatest(this);
-        earliestLatest.calculateEarliestValues(predecessors, duration);
+        earliestLatest.calculateEarliestValues(predecessors, duration, calendar);
         return earliestLatest;
     }
 
+    /**
+     * @param successors the dependencies on the task, whose
+     *                   {@link Dependency#successor()} is set, i.e. the successor
+     *                   edges of the task
+     */
     public EarliestLatest calculateLatestAndSlack(List<Dependency> successors, Duration duration,
             long projectEnd) {
+        return calculateLatestAndSlack(successors, duration, projectEnd, null);
+    }
+
+    /**
+     * @param successors the successor edges of the task
+     * @param calendar   the working calendar of the task, or null
+     */
+    public EarliestLatest calculateLatestAndSlack(List<Dependency> successors, Duration duration,
+            long projectEnd, WorkingCalendar calendar) {
         EarliestLatest earliestLatest = new EarliestLatest(this);
-        earliestLatest.calculateLatestValuesAndSlack(successors, duration, projectEnd);
+        earliestLatest.calculateLatestValuesAndSlack(successors, duration, projectEnd, calendar);
         return earliestLatest;
     }
 }
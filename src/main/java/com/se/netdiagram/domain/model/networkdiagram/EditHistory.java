@@ -0,0 +1,301 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.date.WorkingCalendar;
+
+/**
+ * Changes to a network diagram that can be undone and redone.
+ * <p>
+ * Each change is recorded together with its inverse, e.g. the removal of an
+ * added dependency, or the task, its dependencies and its calendar for a removed
+ * task. A step therefore only keeps what the change touched, and undoing or
+ * redoing it changes the diagram incrementally, recalculating only the tasks
+ * whose values change, instead of reading the whole diagram again.
+ * <p>
+ * The history is a tree: a new change after an undo starts a new branch and
+ * keeps the undone steps, which {@link #redo(int)} can still follow. At most
+ * {@code depth} steps can be undone; the oldest one is forgotten together with
+ * the branches that leave the history before it.
+ * <p>
+ * The inverses assume that the diagram is only changed through its history.
+ */
+public class EditHistory {
+    private final NetworkDiagram diagram;
+    private final int depth;
+    /**
+     * The steps from the oldest version that is kept to the current one, the
+     * current one first.
+     */
+    private final Deque<Step> undoable = new ArrayDeque<>();
+    /**
+     * The oldest version that is kept, i.e. the one that undoing every step
+     * gives.
+     */
+    private Step oldest = new Step(null, null);
+
+    /**
+     * @param depth the number of steps that can be undone
+     */
+    public EditHistory(NetworkDiagram diagram, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("The depth of the history should be at least 1");
+        }
+        this.diagram = diagram;
+        this.depth = depth;
+    }
+
+    /**
+     * @return the diagram, to read its schedule. It must only be changed through
+     *         this history: the undo steps are built from the diagram as the
+     *         history left it, so a change made directly on the diagram makes
+     *         undo and redo restore wrong values or fail with an
+     *         {@link IllegalStateException}.
+     */
+    public NetworkDiagram diagram() {
+        return diagram;
+    }
+
+    public void addTask(String id, int duration) throws DuplicateTaskKeyException {
+        try {
+            record(nd -> nd.addTask(id, duration), nd -> nd.removeTask(id));
+        } catch (KeyNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds a dependency; undoing it removes only the dependency with its type,
+     * or restores the previous lag of the dependency it was merged into.
+     */
+    public void addPredecessorToTask(String aTaskId, String aPredId, String dependencyType, long lag)
+            throws KeyNotFoundException {
+        Task predTask = diagram.getTask(aPredId);
+        Dependency existing = predTask == null ? null
+                : existingTask(aTaskId).predecessor(predTask, DependencyType.valueOf(dependencyType));
+        Change inverse;
+        if (existing == null) {
+            inverse = nd -> nd.removePredecessorFromTask(aTaskId, aPredId, dependencyType);
+        } else {
+            long previous = existing.lag().value();
+            inverse = nd -> nd.changeLagOfDependency(aTaskId, aPredId, dependencyType, previous);
+        }
+        recordOnExistingTasks(nd -> nd.addPredecessorToTask(aTaskId, aPredId, dependencyType, lag), inverse);
+    }
+
+    public void changeDurationOfTask(String aTaskId, int duration) throws KeyNotFoundException {
+        int previous = (int) existingTask(aTaskId).durationAsInt();
+        recordOnExistingTasks(nd -> nd.changeDurationOfTask(aTaskId, duration),
+                nd -> nd.changeDurationOfTask(aTaskId, previous));
+    }
+
+    public void changeLagOfDependency(String aTaskId, String aPredId, long lag) throws KeyNotFoundException {
+        List<Dependency> previous = existingDependencies(aTaskId, aPredId);
+        recordOnExistingTasks(nd -> nd.changeLagOfDependency(aTaskId, aPredId, lag), nd -> {
+            for (Dependency dependency : previous) {
+                nd.changeLagOfDependency(aTaskId, aPredId, dependency.type().name(), dependency.lag().value());
+            }
+        });
+    }
+
+    public void removePredecessorFromTask(String aTaskId, String aPredId) throws KeyNotFoundException {
+        List<Dependency> previous = existingDependencies(aTaskId, aPredId);
+        recordOnExistingTasks(nd -> nd.removePredecessorFromTask(aTaskId, aPredId),
+                nd -> addDependencies(nd, aTaskId, aPredId, previous));
+    }
+
+    private static void addDependencies(NetworkDiagram nd, String aTaskId, String aPredId,
+            List<Dependency> dependencies) throws KeyNotFoundException {
+        for (Dependency dependency : dependencies) {
+            nd.addPredecessorToTask(aTaskId, aPredId, dependency.type().name(), dependency.lag().value());
+        }
+    }
+
+    public void setCalendarOfTask(String aTaskId, WorkingCalendar calendar) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        WorkingCalendar previous = task.hasOwnCalendar() ? task.calendar() : null;
+        recordOnExistingTasks(nd -> nd.setCalendarOfTask(aTaskId, calendar),
+                nd -> nd.setCalendarOfTask(aTaskId, previous));
+    }
+
+    /**
+     * Removes a task; undoing it adds the task back with its duration or
+     * sub-network, its own calendar and its dependencies.
+     */
+    public void removeTask(String aTaskId) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        int duration = (int) task.durationAsInt();
+        NetworkDiagram subNetwork = task.subNetwork();
+        WorkingCalendar ownCalendar = task.hasOwnCalendar() ? task.calendar() : null;
+        List<Dependency> predecessors = new ArrayList<>(task.predecessors());
+        List<Dependency> successors = new ArrayList<>(task.successors());
+
+        recordOnExistingTasks(nd -> nd.removeTask(aTaskId), nd -> {
+            if (subNetwork == null) {
+                nd.addTask(aTaskId, duration);
+            } else {
+                nd.addSummaryTask(aTaskId, subNetwork);
+            }
+            if (ownCalendar != null) {
+                nd.setCalendarOfTask(aTaskId, ownCalendar);
+            }
+            for (Dependency dependency : predecessors) {
+                nd.addPredecessorToTask(aTaskId, dependency.task().idAsString(), dependency.type().name(),
+                        dependency.lag().value());
+            }
+            for (Dependency dependency : successors) {
+                nd.addPredecessorToTask(dependency.task().idAsString(), aTaskId, dependency.type().name(),
+                        dependency.lag().value());
+            }
+        });
+    }
+
+    public boolean canUndo() {
+        return !undoable.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !current().branches.isEmpty();
+    }
+
+    /**
+     * @return the number of changes that can be redone from the current version,
+     *         one for each change made after undoing to it
+     */
+    public int branches() {
+        return current().branches.size();
+    }
+
+    /**
+     * Undoes the last change that is not undone.
+     *
+     * @throws IllegalStateException if there is nothing to undo
+     */
+    public void undo() {
+        if (undoable.isEmpty()) {
+            throw new IllegalStateException("There is nothing to undo");
+        }
+        Step step = undoable.pop();
+        applyRecorded(step.inverse);
+    }
+
+    /**
+     * Redoes the change that was undone last, or made last, from the current
+     * version.
+     *
+     * @throws IllegalStateException if there is nothing to redo
+     */
+    public void redo() {
+        Step current = current();
+        if (current.branches.isEmpty()) {
+            throw new IllegalStateException("There is nothing to redo");
+        }
+        redo(current.lastBranch);
+    }
+
+    /**
+     * Redoes one of the changes made from the current version.
+     *
+     * @param branch the index of the change, from 0 for the one made first to
+     *               {@link #branches()} - 1
+     * @throws IllegalArgumentException if there is no such branch
+     */
+    public void redo(int branch) {
+        Step current = current();
+        if (branch < 0 || branch >= current.branches.size()) {
+            throw new IllegalArgumentException("There is no branch " + branch + " to redo");
+        }
+        Step step = current.branches.get(branch);
+        applyRecorded(step.change);
+        current.lastBranch = branch;
+        undoable.push(step);
+    }
+
+    private Step current() {
+        return undoable.isEmpty() ? oldest : undoable.peek();
+    }
+
+    private void recordOnExistingTasks(Change change, Change inverse) throws KeyNotFoundException {
+        try {
+            record(change, inverse);
+        } catch (DuplicateTaskKeyException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Applies a change and, if it succeeds, keeps it as a new branch of the
+     * current version.
+     */
+    private void record(Change change, Change inverse) throws DuplicateTaskKeyException, KeyNotFoundException {
+        change.applyTo(diagram);
+        Step current = current();
+        Step step = new Step(change, inverse);
+        current.lastBranch = current.branches.size();
+        current.branches.add(step);
+        undoable.push(step);
+        if (undoable.size() > depth) {
+            oldest = undoable.removeLast();
+        }
+    }
+
+    /**
+     * Applies a recorded change, which succeeded on the same diagram before.
+     */
+    private void applyRecorded(Change change) {
+        try {
+            change.applyTo(diagram);
+        } catch (DuplicateTaskKeyException | KeyNotFoundException e) {
+            throw new IllegalStateException("The diagram was changed outside of its history", e);
+        }
+    }
+
+    private Task existingTask(String aTaskId) throws KeyNotFoundException {
+        Task task = diagram.getTask(aTaskId);
+        if (task == null) {
+            throw new KeyNotFoundException("Not existing task KEY: " + aTaskId);
+        }
+        return task;
+    }
+
+    /**
+     * @return the dependencies of the task on the predecessor, one per type
+     */
+    private List<Dependency> existingDependencies(String aTaskId, String aPredId) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        List<Dependency> dependencies = new ArrayList<>();
+        for (Dependency dependency : task.predecessors()) {
+            if (dependency.task().idAsString().equals(aPredId)) {
+                dependencies.add(dependency);
+            }
+        }
+        if (dependencies.isEmpty()) {
+            throw new KeyNotFoundException("Not existing predecessor KEY: " + aPredId + " in Task: " + task.id());
+        }
+        return dependencies;
+    }
+
+    private interface Change {
+        void applyTo(NetworkDiagram nd) throws DuplicateTaskKeyException, KeyNotFoundException;
+    }
+
+    /**
+     * A change, its inverse and the changes made from the version it gives.
+     */
+    private static final class Step {
+        final Change change;
+        final Change inverse;
+        final List<Step> branches = new ArrayList<>(1);
+        int lastBranch;
+
+        Step(Change change, Change inverse) {
+            this.change = change;
+            this.inverse = inverse;
+        }
+    }
+}
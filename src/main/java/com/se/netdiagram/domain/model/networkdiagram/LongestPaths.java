@@ -0,0 +1,192 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Finds the longest paths of a scheduled network diagram, from a task without
+ * predecessors to a task without successors, in decreasing length, without
+ * enumerating the others.
+ * <p>
+ * Along a path, each dependency moves the ES by a fixed weight from the ES of
+ * its predecessor, which depends on its type, its lag and the durations, e.g.
+ * the duration of the predecessor plus the lag for finish-to-start. The length
+ * of a path is the sum of the weights plus the duration of its last task. The
+ * longest length from each task to a task without successors, and the successor
+ * it goes through, are calculated once in reverse topological order.
+ * <p>
+ * The search then keeps a priority queue of partial paths, each one a path to
+ * a task plus the longest way on from there, so that its priority is exactly
+ * the length of its best completion. Taking a partial path off the queue
+ * completes it along the best successors, and offers the other successors of
+ * each task on the way as new partial paths. Each path taken off the queue is
+ * thus the next longest one, and k paths cost k completions; the queue never
+ * holds more than k partial paths.
+ */
+class LongestPaths {
+    private final List<Task> order;
+    private final int[] successorsStart;
+    private final int[] successors;
+    private final long[] weights;
+    /**
+     * The longest length from each task to the end of a path, and the index in
+     * {@link #successors} of the successor it goes through, or -1.
+     */
+    private final long[] tail;
+    private final int[] best;
+
+    /**
+     * @param order the scheduled tasks in topological order
+     */
+    LongestPaths(List<Task> order) {
+        this.order = order;
+        int size = order.size();
+        successorsStart = new int[size + 1];
+        for (Task task : order) {
+            successorsStart[task.topologicalPosition() + 1] = task.successorEdges().size();
+        }
+        for (int i = 0; i < size; i++) {
+            successorsStart[i + 1] += successorsStart[i];
+        }
+
+        // a task that depends on a predecessor more than once counts the
+        // dependency with the greatest weight
+        successors = new int[successorsStart[size]];
+        weights = new long[successors.length];
+        int[] slotOf = new int[size];
+        Arrays.fill(slotOf, -1);
+        for (Task task : order) {
+            int from = successorsStart[task.topologicalPosition()];
+            int next = from;
+            for (Dependency dependency : task.successorEdges()) {
+                Task successor = dependency.successor();
+                int position = successor.topologicalPosition();
+                long weight = dependency.type().earliestStartOfSuccessor(0, task.durationAsInt(),
+                        successor.durationAsInt(), dependency.lag().value());
+                if (slotOf[position] >= from) {
+                    weights[slotOf[position]] = Math.max(weights[slotOf[position]], weight);
+                } else {
+                    slotOf[position] = next;
+                    successors[next] = position;
+                    weights[next++] = weight;
+                }
+            }
+            Arrays.fill(successors, next, successorsStart[task.topologicalPosition() + 1], -1);
+        }
+
+        tail = new long[size];
+        best = new int[size];
+        for (int task = size - 1; task >= 0; task--) {
+            best[task] = -1;
+            tail[task] = order.get(task).durationAsInt();
+            for (int i = successorsStart[task]; i < successorsStart[task + 1] && successors[i] >= 0; i++) {
+                long length = weights[i] + tail[successors[i]];
+                if (best[task] < 0 || length > tail[task]) {
+                    tail[task] = length;
+                    best[task] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return at most the given number of paths, in decreasing length, with the
+     *         total float against the project end
+     */
+    List<RankedPath> longest(int count, long projectEnd) {
+        Queue queue = new Queue(count);
+        for (Task task : order) {
+            if (task.predecessors().isEmpty()) {
+                int position = task.topologicalPosition();
+                queue.offer(new Path(), position, 0, tail[position]);
+            }
+        }
+
+        List<RankedPath> paths = new ArrayList<>();
+        while (paths.size() < count && !queue.isEmpty()) {
+            Partial partial = queue.poll();
+            Path path = partial.path;
+            int task = partial.task;
+            long start = partial.start;
+            while (true) {
+                path = path.addTask(order.get(task));
+                for (int i = successorsStart[task]; i < successorsStart[task + 1] && successors[i] >= 0; i++) {
+                    if (i != best[task]) {
+                        long successorStart = start + weights[i];
+                        queue.offer(path, successors[i], successorStart, successorStart + tail[successors[i]]);
+                    }
+                }
+                if (best[task] < 0) {
+                    break;
+                }
+                start += weights[best[task]];
+                task = successors[best[task]];
+            }
+            paths.add(new RankedPath(path, partial.length, projectEnd - partial.length));
+        }
+        return paths;
+    }
+
+    /**
+     * The partial paths by decreasing length. Each partial path taken off the
+     * queue gives one path, and the partial paths it queues are not longer, so a
+     * partial path with as many longer ones before it as paths are still to be
+     * found is never taken off; it is dropped, or not even queued.
+     */
+    private static final class Queue {
+        private final TreeSet<Partial> partials = new TreeSet<>(
+                Comparator.comparingLong((Partial partial) -> -partial.length).thenComparingLong(
+                        partial -> partial.sequence));
+        private int room;
+        private long sequence = 0;
+
+        Queue(int room) {
+            this.room = room;
+        }
+
+        void offer(Path path, int task, long start, long length) {
+            if (partials.size() >= room) {
+                if (room == 0 || length <= partials.last().length) {
+                    return;
+                }
+                partials.pollLast();
+            }
+            partials.add(new Partial(path, task, start, length, sequence++));
+        }
+
+        Partial poll() {
+            room--;
+            return partials.pollFirst();
+        }
+
+        boolean isEmpty() {
+            return partials.isEmpty();
+        }
+    }
+
+    /**
+     * A path to the predecessor of a task, the task and its ES on the path, and
+     * the length of the longest path through them.
+     */
+    private static final class Partial {
+        final Path path;
+        final int task;
+        final long start;
+        final long length;
+        /**
+         * Keeps partial paths of the same length in the order they were queued.
+         */
+        final long sequence;
+
+        Partial(Path path, int task, long start, long length, long sequence) {
+            this.path = path;
+            this.task = task;
+            this.start = start;
+            this.length = length;
+            this.sequence = sequence;
+        }
+    }
+}
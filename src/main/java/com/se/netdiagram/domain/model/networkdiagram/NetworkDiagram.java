@@ -1,27 +1,65 @@
 package com.se.netdiagram.domain.model.networkdiagram;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
 import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
-import com.se.netdiagram.domain.model.networkdiagram.date.Date;
+import com.se.netdiagram.domain.model.networkdiagram.compact.CompactNetworkDiagram;
 import com.se.netdiagram.domain.model.networkdiagram.date.Duration;
 import com.se.netdiagram.domain.model.networkdiagram.date.Lag;
+import com.se.netdiagram.domain.model.networkdiagram.date.WorkingCalendar;
+import com.se.netdiagram.domain.model.utilities.LazyQuery;
 import com.se.netdiagram.domain.model.utilities.Query;
 
-public class NetworkDiagram {
-    private Map<TaskId, Task> tasks = new HashMap<>();
+public class NetworkDiagram implements Schedule {
+    private TaskTable tasks = new TaskTable();
     private long projectEnd;
+    private TopologicalOrder topologicalOrder = new TopologicalOrder();
+    private boolean inBatch = false;
+    private ParallelPasses parallelPasses = null;
+    private ComponentPasses componentPasses = null;
+    private WorkingCalendar calendar = null;
+    private int tasksWithOwnCalendar = 0;
+    private ScheduleIndex scheduleIndex = null;
+    private boolean acceptsSummaryTasks = true;
+    /**
+     * The tasks in the queues of {@link #reschedule}, by ordinal. It is all false
+     * between reschedules, so it is reused rather than allocated for each one.
+     */
+    private boolean[] queued = new boolean[16];
+    private final List<LongConsumer> projectEndListeners = new ArrayList<>();
 
+    /**
+     * @return a read-only view of the tasks in topological order, which reflects
+     *         later changes
+     */
     public List<Task> tasks() {
-        return new ArrayList<>(this.tasks.values());
+        return topologicalOrder.tasks();
+    }
+
+    /**
+     * @return a lazy query over the tasks in topological order
+     */
+    public LazyQuery<Task> queryTasks() {
+        return LazyQuery.from(topologicalOrder.tasks());
     }
 
     public Task getTask(String string) {
-        return tasks.get(new TaskId(string));
+        return tasks.get(string);
     }
 
     public long projectEnd() {
@@ -29,169 +67,860 @@ public class NetworkDiagram {
     }
 
     /**
-     * Adds a task to the network diagram. For consistency, a forward and backward
-     * processing is triggered that updates the ES, EF, LS, LF and Slack values of
-     * all tasks.
+     * Starts a batch of changes. Until {@link #commitBatch()} is called, adding
+     * tasks and predecessors is validated as usual but does not trigger the
+     * forward and backward processing, so the ES, EF, LS, LF and Slack values are
+     * not up to date while the batch is open.
+     */
+    public void beginBatch() {
+        inBatch = true;
+    }
+
+    /**
+     * Ends a batch of changes, running the forward and backward processing exactly
+     * once for all the changes made since {@link #beginBatch()}.
+     */
+    public void commitBatch() {
+        inBatch = false;
+        forwardAndBackWard();
+    }
+
+    public boolean isInBatch() {
+        return inBatch;
+    }
+
+    /**
+     * Makes the full forward and backward processing, e.g. on
+     * {@link #commitBatch()}, calculate the tasks of each topological level
+     * concurrently on the given pool. The values are the same as the ones of the
+     * sequential processing. Incremental updates after single changes remain
+     * sequential, since they only visit the affected tasks.
+     * 
+     * @param pool
+     */
+    public void useParallelScheduling(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool should not be null");
+        }
+        parallelPasses = new ParallelPasses(pool);
+        componentPasses = null;
+    }
+
+    /**
+     * Makes the full forward and backward processing, e.g. on
+     * {@link #commitBatch()}, schedule the weakly connected components of the
+     * diagram, i.e. the groups of tasks that share no dependencies with other
+     * tasks, concurrently on the given pool. The components are kept between
+     * processings, and a component that no change touched keeps the values of its
+     * tasks, moving only their latest values if the project end moves, so that a
+     * batch of changes in one component does not calculate the others again.
+     */
+    public void useComponentScheduling(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("The pool should not be null");
+        }
+        componentPasses = new ComponentPasses(pool);
+        parallelPasses = null;
+    }
+
+    public void useSequentialScheduling() {
+        parallelPasses = null;
+        componentPasses = null;
+    }
+
+    public boolean isParallelScheduling() {
+        return parallelPasses != null;
+    }
+
+    public boolean isComponentScheduling() {
+        return componentPasses != null;
+    }
+
+    /**
+     * @return the number of components whose values were reused by the last full
+     *         processing, or 0 if the components are not scheduled separately
+     */
+    int reusedComponents() {
+        return componentPasses == null ? 0 : componentPasses.reusedComponents();
+    }
+
+    public WorkingCalendar calendar() {
+        return calendar;
+    }
+
+    /**
+     * Schedules the tasks that do not have a calendar of their own in the working
+     * days of the given calendar. The ES, EF, LS, LF and Slack values then count
+     * days from the start date of the calendar, durations count working days and
+     * lags count days. A null calendar schedules those tasks in plain time units
+     * again. Summary tasks never have a calendar, see {@link #addSummaryTask}.
+     */
+    public void setCalendar(WorkingCalendar calendar) {
+        checkStartOf(calendar);
+        this.calendar = calendar;
+        for (Task task : topologicalOrder.tasks()) {
+            if (!task.hasOwnCalendar() && !task.isSummary()) {
+                task.setCalendar(calendar, false);
+            }
+        }
+
+        rescheduleAllUnlessInBatch();
+    }
+
+    /**
+     * Schedules the task in the working days of the given calendar, e.g. for a
+     * resource that works on different days. A null calendar makes the task use
+     * the calendar of the diagram again.
+     * 
+     * @throws KeyNotFoundException
+     * @throws IllegalArgumentException if the task is a summary task
+     */
+    public void setCalendarOfTask(String aTaskId, WorkingCalendar calendar) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        if (task.isSummary()) {
+            throw new IllegalArgumentException("Summary task " + aTaskId + " should not have a calendar!");
+        }
+        checkStartOf(calendar);
+        if (task.hasOwnCalendar()) {
+            tasksWithOwnCalendar--;
+        }
+        if (calendar == null) {
+            task.setCalendar(this.calendar, false);
+        } else {
+            task.setCalendar(calendar, true);
+            tasksWithOwnCalendar++;
+        }
+
+        rescheduleAllUnlessInBatch();
+    }
+
+    /**
+     * All calendars must count days from the same date.
+     */
+    private void checkStartOf(WorkingCalendar calendar) {
+        if (calendar == null) {
+            return;
+        }
+        for (Task task : topologicalOrder.tasks()) {
+            if (task.calendar() != null && !task.calendar().start().equals(calendar.start())) {
+                throw new IllegalArgumentException("Calendars should start on the same date: " + calendar.start()
+                        + " and " + task.calendar().start());
+            }
+        }
+        if (this.calendar != null && !this.calendar.start().equals(calendar.start())) {
+            throw new IllegalArgumentException(
+                    "Calendars should start on the same date: " + calendar.start() + " and " + this.calendar.start());
+        }
+    }
+
+    private void rescheduleAllUnlessInBatch() {
+        if (componentPasses != null) {
+            componentPasses.markAllChanged();
+        }
+        if (!inBatch) {
+            forwardAndBackWard();
+        }
+    }
+
+    /**
+     * Copies the tasks, dependencies and calculated values, without scheduling
+     * anything again. The values are immutable and shared with the copy. Summary
+     * tasks are copied as plain tasks with the current duration.
+     * 
+     * @throws IllegalStateException if a batch is open
+     */
+    NetworkDiagram copy() {
+        List<Task> order = scheduledTasks();
+        NetworkDiagram copy = new NetworkDiagram();
+        copy.calendar = calendar;
+        copy.tasksWithOwnCalendar = tasksWithOwnCalendar;
+        copy.projectEnd = projectEnd;
+        Task[] copies = new Task[order.size()];
+        for (int i = 0; i < copies.length; i++) {
+            Task task = order.get(i);
+            copies[i] = new Task(copy.tasks.intern(task.idAsString()), task.duration());
+            copies[i].setCalendar(task.calendar(), task.hasOwnCalendar());
+            copies[i].setEarliestLatest(task.earliestLatest());
+            copy.tasks.add(copies[i]);
+            copy.topologicalOrder.add(copies[i]);
+        }
+        for (int i = 0; i < copies.length; i++) {
+            for (Dependency dependency : order.get(i).predecessors()) {
+                copies[i].copyPredecessor(new Dependency(copies[dependency.task().topologicalPosition()],
+                        dependency.type(), dependency.lag()));
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns an immutable copy of the diagram and its current schedule. Any
+     * number of what-if scenarios can be forked from it, with
+     * {@link CompactNetworkDiagram#fork()}, and evaluated concurrently without
+     * rebuilding the diagram and without affecting it.
+     *
+     * @throws IllegalArgumentException if a task has a working calendar, e.g.
+     *                                  the calendar of the diagram, which the
+     *                                  compact diagram does not support
+     */
+    public CompactNetworkDiagram snapshot() {
+        return CompactNetworkDiagram.from(this);
+    }
+
+    /**
+     * Adds a task to the network diagram. For consistency, the ES, EF, LS, LF and
+     * Slack values are updated, unless a batch is open. A task without
+     * dependencies only affects the rest of the diagram if it moves the project
+     * end.
      * 
      * @param id
      * @param duration
      * @throws DuplicateTaskKeyException
      */
     public void addTask(String id, int duration) throws DuplicateTaskKeyException {
-        TaskId taskId = new TaskId(id);
-        if (tasks.containsKey(taskId)) {
-            throw new DuplicateTaskKeyException("Task Id: " + taskId + " already exists!");
+        if (id != null && tasks.get(id) != null) {
+            throw new DuplicateTaskKeyException("Task Id: " + id + " already exists!");
         }
-        Task task = new Task(taskId, new Duration(duration));
-        tasks.put(task.id(), task);
+        Task task = new Task(tasks.intern(id), new Duration(duration));
+        task.setCalendar(calendar, false);
+        tasks.add(task);
+        topologicalOrder.add(task);
 
-        forwardAndBackWard();
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(task));
     }
 
     /**
-     * Adds predecessor to a task. For consistency, a forward and backward
-     * processing is triggered that updates the ES, EF, LS, LF and Slack values of
-     * all tasks.
+     * Adds a summary task, i.e. a task that stands for a whole sub-network in this
+     * diagram. Its duration is the project end of the sub-network, which
+     * schedules itself: when it changes, only the duration of the summary task is
+     * updated here, incrementally like {@link #changeDurationOfTask}, and the
+     * sub-network is never scheduled again by this diagram. The ES of the summary
+     * task is the start of the sub-network, so a task of the sub-network starts
+     * at the sum of the two ES values.
+     * <p>
+     * The project end of the sub-network counts days, not working days, so a
+     * summary task does not use the calendar of this diagram: it spans that many
+     * days from its ES, whatever the calendar.
+     * <p>
+     * The same sub-network can be the summary task of more than one diagram.
+     * 
+     * @throws DuplicateTaskKeyException
+     * @throws IllegalArgumentException  if the sub-network is this diagram or
+     *                                   contains it, or if this diagram does not
+     *                                   accept summary tasks
+     */
+    public void addSummaryTask(String id, NetworkDiagram subNetwork) throws DuplicateTaskKeyException {
+        if (!acceptsSummaryTasks) {
+            throw new IllegalArgumentException("This network diagram does not accept summary tasks!");
+        }
+        if (subNetwork == null) {
+            throw new IllegalArgumentException("The sub-network should not be null");
+        }
+        if (subNetwork.containsNetwork(this)) {
+            throw new IllegalArgumentException("A summary task should not contain its own network diagram!");
+        }
+        if (id != null && tasks.get(id) != null) {
+            throw new DuplicateTaskKeyException("Task Id: " + id + " already exists!");
+        }
+        Task task = new Task(tasks.intern(id), new Duration(subNetwork.projectEnd()));
+        LongConsumer listener = end -> {
+            task.changeDuration(new Duration(end));
+            rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(task));
+        };
+        task.setSubNetwork(subNetwork, listener);
+        subNetwork.projectEndListeners.add(listener);
+        tasks.add(task);
+        topologicalOrder.add(task);
+
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(task));
+    }
+
+    /**
+     * Makes {@link #addSummaryTask} fail, e.g. for a diagram that must only be
+     * changed by its owner, since a sub-network changes the diagram whenever its
+     * project end moves.
+     */
+    void rejectSummaryTasks() {
+        acceptsSummaryTasks = false;
+    }
+
+    private boolean containsNetwork(NetworkDiagram network) {
+        if (this == network) {
+            return true;
+        }
+        for (Task task : topologicalOrder.tasks()) {
+            if (task.isSummary() && task.subNetwork().containsNetwork(network)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds predecessor to a task. For consistency, the ES, EF, LS, LF and Slack
+     * values are updated, unless a batch is open. Only the successors of the task
+     * and the predecessors of the predecessor task are recalculated, as far as
+     * their values change.
      */
     public void addPredecessorToTask(String aTaskId, String aPredId, String dependencyType, long lag)
             throws KeyNotFoundException {
-        TaskId taskId = new TaskId(aTaskId);
-        Task task = tasks.get(taskId);
-        TaskId predTaskId = new TaskId(aPredId);
-        Task predTask = tasks.get(predTaskId);
+        Task task = existingTask(aTaskId);
+        Task predTask = existingPredecessor(aPredId, task);
 
-        if (predTask == null) {
+        Dependency dependency = new Dependency(
+                predTask,
+                DependencyType.valueOf(dependencyType),
+                new Lag(lag));
+        topologicalOrder.addDependency(predTask, task);
+        task.addPredecessor(dependency);
+
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(task, predTask));
+    }
+
+    /**
+     * Changes the duration of a task. For consistency, the ES, EF, LS, LF and
+     * Slack values are updated, unless a batch is open.
+     * 
+     * @throws KeyNotFoundException
+     */
+    public void changeDurationOfTask(String aTaskId, int duration) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        if (task.isSummary()) {
+            throw new IllegalArgumentException(
+                    "The duration of summary task " + aTaskId + " is the one of its sub-network!");
+        }
+
+        task.changeDuration(new Duration(duration));
+
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(task));
+    }
+
+    /**
+     * Changes the lag of the dependency of a task on a predecessor. For
+     * consistency, the ES, EF, LS, LF and Slack values are updated, unless a batch
+     * is open.
+     * 
+     * @throws KeyNotFoundException if any of the tasks does not exist or the task
+     *                              does not depend on the predecessor
+     */
+    public void changeLagOfDependency(String aTaskId, String aPredId, long lag) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        Task predTask = existingPredecessor(aPredId, task);
+
+        if (!task.changeLagOfPredecessor(predTask, new Lag(lag))) {
             throw new KeyNotFoundException("Not existing predecessor KEY: " + aPredId + " in Task: " + task.id());
         }
 
-        task.addPredecessor(new Dependency(
-                predTask,
-                DependencyType.valueOf(dependencyType),
-                new Lag(lag)));
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(predTask));
+    }
 
-        forwardAndBackWard();
+    /**
+     * Changes the lag of the dependency of a task on a predecessor with the given
+     * type, leaving its other dependencies on the predecessor as they are. For
+     * consistency, the ES, EF, LS, LF and Slack values are updated, unless a batch
+     * is open.
+     * 
+     * @throws KeyNotFoundException if any of the tasks does not exist or the task
+     *                              does not depend on the predecessor with that
+     *                              type
+     */
+    public void changeLagOfDependency(String aTaskId, String aPredId, String dependencyType, long lag)
+            throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        Task predTask = existingPredecessor(aPredId, task);
+
+        if (!task.changeLagOfPredecessor(predTask, DependencyType.valueOf(dependencyType), new Lag(lag))) {
+            throw new KeyNotFoundException("Not existing " + dependencyType + " predecessor KEY: " + aPredId
+                    + " in Task: " + task.id());
+        }
+
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(predTask));
     }
 
-    private void forwardAndBackWard() {
-        projectEnd = forward();
-        backward(projectEnd);
+    /**
+     * Removes the dependency of a task on a predecessor. For consistency, the ES,
+     * EF, LS, LF and Slack values are updated, unless a batch is open. The
+     * topological order remains valid, so only the task and the predecessor are
+     * recalculated, and the tasks their changes propagate to.
+     * 
+     * @throws KeyNotFoundException if any of the tasks does not exist or the task
+     *                              does not depend on the predecessor
+     */
+    public void removePredecessorFromTask(String aTaskId, String aPredId) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        Task predTask = existingPredecessor(aPredId, task);
+
+        if (!task.removePredecessor(predTask)) {
+            throw new KeyNotFoundException("Not existing predecessor KEY: " + aPredId + " in Task: " + task.id());
+        }
+
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(predTask));
     }
 
     /**
-     * Makes forward processing assigning values to ES, EF
+     * Removes the dependency of a task on a predecessor with the given type,
+     * leaving its other dependencies on the predecessor as they are. For
+     * consistency, the ES, EF, LS, LF and Slack values are updated, unless a batch
+     * is open.
      * 
-     * @return project end
+     * @throws KeyNotFoundException if any of the tasks does not exist or the task
+     *                              does not depend on the predecessor with that
+     *                              type
      */
-    private long forward() {
-        Date projectEnd = new Date(0);
-        List<Task> notProcessedTasks = new ArrayList<>(tasks());
+    public void removePredecessorFromTask(String aTaskId, String aPredId, String dependencyType)
+            throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+        Task predTask = existingPredecessor(aPredId, task);
 
-        while (!notProcessedTasks.isEmpty()) {
-            List<Task> processedTasks = new ArrayList<>();
+        if (!task.removePredecessor(predTask, DependencyType.valueOf(dependencyType))) {
+            throw new KeyNotFoundException("Not existing " + dependencyType + " predecessor KEY: " + aPredId
+                    + " in Task: " + task.id());
+        }
 
-            for (Task task : notProcessedTasks) {
-                if (!task.dependsOnAnyTaskFrom(notProcessedTasks)) {
-                    task.calculateEarliest();
-                    projectEnd = new Date(
-                            Math.max(projectEnd.getAsLong(),
-                                    task.earliestLatest().earliestFinish().getAsLong()));
-                    processedTasks.add(task);
-                }
+        rescheduleUnlessInBatch(Arrays.asList(task), Arrays.asList(predTask));
+    }
+
+    /**
+     * Removes a task and all the dependencies on it and of it. For consistency,
+     * the ES, EF, LS, LF and Slack values are updated, unless a batch is open.
+     * Only its former successors and predecessors are recalculated, and the tasks
+     * their changes propagate to.
+     * 
+     * @throws KeyNotFoundException
+     */
+    public void removeTask(String aTaskId) throws KeyNotFoundException {
+        Task task = existingTask(aTaskId);
+
+        List<Task> predTasks = Query.map(task.predecessors(), Dependency::task);
+        List<Task> succTasks = Query.map(task.successorEdges(), Dependency::successor);
+        for (Task predTask : predTasks) {
+            task.removePredecessor(predTask);
+        }
+        for (Task succTask : succTasks) {
+            succTask.removePredecessor(task);
+        }
+        tasks.remove(task);
+        topologicalOrder.remove(task);
+        if (task.isSummary()) {
+            task.subNetwork().projectEndListeners.remove(task.subNetworkListener());
+        }
+        if (task.hasOwnCalendar()) {
+            tasksWithOwnCalendar--;
+        }
+        if (scheduleIndex != null) {
+            scheduleIndex.remove(task);
+        }
+
+        if (componentPasses != null) {
+            componentPasses.markRemoved(task);
+        }
+        markChanged(succTasks);
+        markChanged(predTasks);
+        if (!inBatch) {
+            reschedule(succTasks, predTasks, task.earliestFinish() == projectEnd);
+        }
+    }
+
+    /**
+     * Like {@link #removeRedundantDependencies(long)}, with a memory budget of
+     * 64 MB.
+     */
+    public Map<TaskId, List<TaskId>> removeRedundantDependencies() {
+        return removeRedundantDependencies(64L << 20);
+    }
+
+    /**
+     * Removes the finish-to-start dependencies without lag that a chain of such
+     * dependencies already implies, e.g. A-C when A-B and B-C exist. The schedule
+     * does not change, but the passes and the printed predecessors get shorter. A
+     * task that depends on a predecessor also in another way keeps all its
+     * dependencies on it. Within a batch, the reduced diagram is scheduled when
+     * the batch is committed.
+     *
+     * @param memoryBudget the bytes the search may take, besides the diagram; a
+     *                     smaller budget makes the search visit the tasks more
+     *                     times
+     * @return the removed predecessors of each task that had any, in topological
+     *         order
+     */
+    public Map<TaskId, List<TaskId>> removeRedundantDependencies(long memoryBudget) {
+        Map<Task, List<Task>> redundant = TransitiveReduction.redundantPredecessors(topologicalOrder.tasks(),
+                memoryBudget);
+
+        Map<TaskId, List<TaskId>> removed = new LinkedHashMap<>();
+        List<Task> predTasks = new ArrayList<>();
+        for (Map.Entry<Task, List<Task>> entry : redundant.entrySet()) {
+            for (Task predTask : entry.getValue()) {
+                entry.getKey().removePredecessor(predTask);
             }
-            notProcessedTasks.removeAll(processedTasks);
+            predTasks.addAll(entry.getValue());
+            removed.put(entry.getKey().id(), Query.map(entry.getValue(), Task::id));
         }
-        return projectEnd.getAsLong();
+
+        rescheduleUnlessInBatch(new ArrayList<>(redundant.keySet()), predTasks);
+        return removed;
     }
 
-    private void backward(long projectEnd) {
-        List<Task> notProcessedTasks = new ArrayList<>(tasks());
+    private Task existingTask(String aTaskId) throws KeyNotFoundException {
+        Task task = tasks.get(aTaskId);
+        if (task == null) {
+            throw new KeyNotFoundException("Not existing task KEY: " + aTaskId);
+        }
+        return task;
+    }
 
-        while (!notProcessedTasks.isEmpty()) {
-            List<Task> processedTasks = new ArrayList<>();
-            for (Task task : notProcessedTasks) {
-                if (!task.haveAnyTaskDependingOnMeFrom(notProcessedTasks)) {
-                    task.calculateLatestAndSlack(projectEnd);
-                    processedTasks.add(task);
-                }
+    private Task existingPredecessor(String aPredId, Task task) throws KeyNotFoundException {
+        Task predTask = tasks.get(aPredId);
+        if (predTask == null) {
+            throw new KeyNotFoundException("Not existing predecessor KEY: " + aPredId + " in Task: " + task.id());
+        }
+        return predTask;
+    }
+
+    private void rescheduleUnlessInBatch(List<Task> forwardSeeds, List<Task> backwardSeeds) {
+        markChanged(forwardSeeds);
+        markChanged(backwardSeeds);
+        if (!inBatch) {
+            reschedule(forwardSeeds, backwardSeeds, false);
+        }
+    }
+
+    /**
+     * Lets the next full processing by components know which tasks changed, and
+     * so which components may have.
+     */
+    private void markChanged(List<Task> tasks) {
+        if (componentPasses != null) {
+            for (Task task : tasks) {
+                componentPasses.markChanged(task);
             }
-            notProcessedTasks.removeAll(processedTasks);
+        }
+    }
+
+    private void forwardAndBackWard() {
+        List<Task> order = topologicalOrder.tasks();
+        long previousEnd = projectEnd;
+        if (componentPasses != null) {
+            projectEnd = componentPasses.schedule(order, previousEnd);
+        } else if (parallelPasses != null) {
+            projectEnd = parallelPasses.schedule(order);
+        } else {
+            projectEnd = forward(order);
+            backward(order, projectEnd);
+        }
+        if (scheduleIndex != null) {
+            scheduleIndex.updateAll(order);
+        }
+        if (projectEnd != previousEnd) {
+            notifyProjectEndListeners();
+        }
+    }
+
+    /**
+     * Lets the diagrams that have this one as a summary task update its duration.
+     */
+    private void notifyProjectEndListeners() {
+        for (LongConsumer listener : projectEndListeners) {
+            listener.accept(projectEnd);
         }
     }
 
     /**
-     * Returns the critical paths of the network diagram. A critical path is a path
-     * that has zero slack for all its tasks.
+     * Updates the schedule after a change that can only affect the given tasks
+     * directly. ES and EF are propagated forward through the successors, LS and LF
+     * backward through the predecessors, in topological order and only as far as
+     * the recalculated values actually change.
+     * <p>
+     * The project end is found again by scanning all tasks only when a task that
+     * finished at the project end now finishes earlier. If the project end moves,
+     * the latest values of every task move with it: without calendars they are
+     * shifted by the same distance and then updated as usual from the changed
+     * tasks, so the tasks of unrelated work streams are not calculated again;
+     * with calendars a full backward processing is made instead.
      * 
-     * @return
+     * @param forwardSeeds   tasks whose ES and EF may have changed
+     * @param backwardSeeds  tasks whose LS and LF may have changed
+     * @param endMayDecrease whether a task that finished at the project end was
+     *                       removed
      */
-    public List<Path> getCriticalPaths() {
-        List<Path> criticalPaths = new ArrayList<>();
+    private void reschedule(List<Task> forwardSeeds, List<Task> backwardSeeds, boolean endMayDecrease) {
+        List<Task> order = topologicalOrder.tasks();
+        Comparator<Task> byPosition = Comparator.comparingInt(Task::topologicalPosition);
+
+        if (queued.length < tasks.ordinalBound()) {
+            queued = new boolean[Math.max(tasks.ordinalBound(), 2 * queued.length)];
+        }
 
-        List<Task> tasksWithZeroSlack = Query.filter(
-                tasks(),
-                task -> task.slack() == 0);
+        PriorityQueue<Task> queue = new PriorityQueue<>(byPosition);
+        enqueueAll(forwardSeeds, queue);
 
-        while (!tasksWithZeroSlack.isEmpty()) {
-            List<Task> tasksToRemoveFromWorking = new ArrayList<>();
-            for (Task task : tasksWithZeroSlack) {
-                if (!task.dependsOnAnyTaskFrom(tasksWithZeroSlack)) {
-                    addTaskToCriticalPaths(task, criticalPaths);
-                    tasksToRemoveFromWorking.add(task);
+        List<Task> earliestChanged = new ArrayList<>();
+        long end = projectEnd;
+        while (!queue.isEmpty()) {
+            Task task = queue.poll();
+            queued[task.id().ordinal()] = false;
+
+            EarliestLatest previous = task.earliestLatest();
+            if (task.calculateEarliest()) {
+                earliestChanged.add(task);
+                end = Math.max(end, task.earliestFinish());
+                if (previous.earliestIsCalculated() && previous.earliestFinishAsLong() == projectEnd
+                        && task.earliestFinish() < projectEnd) {
+                    endMayDecrease = true;
+                }
+                for (Dependency dependency : task.successorEdges()) {
+                    enqueue(dependency.successor(), queue);
                 }
             }
-            tasksWithZeroSlack.removeAll(tasksToRemoveFromWorking);
         }
 
-        return criticalPaths;
-    }
+        if (endMayDecrease) {
+            end = 0;
+            for (Task task : order) {
+                end = Math.max(end, task.earliestFinish());
+            }
+        }
 
-    private void addTaskToCriticalPaths(Task task, List<Path> criticalPaths) {
-        boolean added = false;
-        for (Path criticalPath : new ArrayList<>(criticalPaths)) {
-            List<Task> predTasksInCriticalPath = Query.filterAndMap(
-                    task.predecessors(),
-                    dep -> criticalPath.containsTask(dep.task()),
-                    dep -> dep.task());
-            ;
-            if (!predTasksInCriticalPath.isEmpty()) {
-                appendTaskToPaths(task, predTasksInCriticalPath, criticalPath, criticalPaths);
-                added = true;
+        boolean endMoved = end != projectEnd;
+        if (endMoved) {
+            long delta = end - projectEnd;
+            projectEnd = end;
+            if (usesCalendars()) {
+                backward(order, projectEnd);
+                if (scheduleIndex != null) {
+                    scheduleIndex.updateAll(order);
+                }
+                notifyProjectEndListeners();
+                return;
+            }
+            for (Task task : order) {
+                task.shiftLatestBy(delta);
+            }
+        }
+
+        queue = new PriorityQueue<>(byPosition.reversed());
+        enqueueAll(backwardSeeds, queue);
+        enqueueAll(earliestChanged, queue);
+        while (!queue.isEmpty()) {
+            Task task = queue.poll();
+            queued[task.id().ordinal()] = false;
+
+            if (task.calculateLatestAndSlack(projectEnd)) {
+                if (scheduleIndex != null) {
+                    scheduleIndex.update(task);
+                }
+                for (Dependency dependency : task.predecessors()) {
+                    enqueue(dependency.task(), queue);
+                }
+            }
+        }
+        if (scheduleIndex != null) {
+            if (endMoved) {
+                scheduleIndex.updateAll(order);
+            } else {
+                for (Task task : earliestChanged) {
+                    scheduleIndex.update(task);
+                }
             }
         }
-        if (!added) {
-            criticalPaths.add(new Path().addTask(task));
+        if (endMoved) {
+            notifyProjectEndListeners();
+        }
+    }
+
+    private boolean usesCalendars() {
+        return calendar != null || tasksWithOwnCalendar > 0;
+    }
+
+    private void enqueueAll(List<Task> tasks, PriorityQueue<Task> queue) {
+        for (Task task : tasks) {
+            enqueue(task, queue);
+        }
+    }
+
+    private void enqueue(Task task, PriorityQueue<Task> queue) {
+        if (!queued[task.id().ordinal()]) {
+            queued[task.id().ordinal()] = true;
+            queue.add(task);
         }
     }
 
     /**
-     * If any of the task predecessors is equal to the last task of the path, it
-     * replaces in the paths the path with a new path that has the task appended to
-     * it. Otherwise, it adds a new path to the list of paths, with the last task
-     * removed and the task appended to it.
+     * Makes forward processing assigning values to ES, EF. The tasks are visited
+     * in topological order so that the values of all predecessors are known.
      * 
-     * @param task
-     * @param predTasks
-     * @param path
-     * @param paths
-     */
-    private void appendTaskToPaths(Task task, List<Task> predTasks, Path path, List<Path> paths) {
-        // System.out.println("task: " + task.toString());
-        // System.out.println("task deps: " + task.predecessors().toString());
-        // System.out.println("predTasks: " + predTasks.toString());
-        // System.out.println("path: " + path.toString());
-        // System.out.println("paths: " + paths.toString());
-        if (predTasks.contains(path.lastTask())) {
-            paths.remove(path);
-            paths.add(path.addTask(task));
-        } else {
-            Path pathButLast = path.removeLastTask();
-            if (Query.map(
-                    task.predecessors(),
-                    p -> p.task())
-                    .contains(pathButLast.lastTask())) {
-                paths.add(pathButLast.addTask(task));
-            }
+     * @param order the tasks in topological order
+     * @return project end
+     */
+    private long forward(List<Task> order) {
+        long end = 0;
+        for (Task task : order) {
+            task.calculateEarliest();
+            end = Math.max(end, task.earliestFinish());
         }
-        // System.out.println("POST paths: " + paths.toString());
+        return end;
+    }
+
+    /**
+     * Makes backward processing assigning values to LS, LF and Slack. The tasks
+     * are visited in reverse topological order so that the values of all
+     * successors are known.
+     * 
+     * @param order      the tasks in topological order
+     * @param projectEnd
+     */
+    private void backward(List<Task> order, long projectEnd) {
+        if (parallelPasses != null) {
+            parallelPasses.backward(order, projectEnd);
+            return;
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            order.get(i).calculateLatestAndSlack(projectEnd);
+        }
+    }
+
+    /**
+     * Finds, for every task, how much the project end moves if the duration of
+     * the task grows by the given delay. Tasks whose slack covers the delay are
+     * answered from their slack; for the others the change is propagated forward
+     * in a scratch copy of the affected values, leaving the schedule untouched.
+     * 
+     * @return the project end change per task, in topological order
+     */
+    public Map<TaskId, Long> sensitivity(long delay) {
+        return impactsByTask(scheduledTasks(), new SensitivityAnalysis(scheduledTasks(), projectEnd, delay).run());
+    }
+
+    /**
+     * Like {@link #sensitivity(long)}, analysing the tasks concurrently on the
+     * given pool.
+     */
+    public Map<TaskId, Long> sensitivity(long delay, ForkJoinPool pool) {
+        return impactsByTask(scheduledTasks(),
+                new SensitivityAnalysis(scheduledTasks(), projectEnd, delay).run(pool));
+    }
+
+    private List<Task> scheduledTasks() {
+        if (inBatch) {
+            throw new IllegalStateException("The schedule is not up to date while a batch is open!");
+        }
+        return topologicalOrder.tasks();
+    }
+
+    private static Map<TaskId, Long> impactsByTask(List<Task> order, long[] impacts) {
+        Map<TaskId, Long> impactsByTask = new LinkedHashMap<>();
+        for (int i = 0; i < impacts.length; i++) {
+            impactsByTask.put(order.get(i).id(), impacts[i]);
+        }
+        return impactsByTask;
+    }
+
+    /**
+     * @return the tasks with at most the given slack, by increasing slack
+     */
+    public List<Task> tasksWithSlackAtMost(long slack) {
+        return scheduleIndex().withSlackAtMost(slack);
+    }
+
+    /**
+     * @return the given number of tasks with the least slack, by increasing slack
+     */
+    public List<Task> tasksWithLeastSlack(int count) {
+        return scheduleIndex().withLeastSlack(count);
+    }
+
+    /**
+     * @return the tasks with an ES from the first to the last value, inclusive,
+     *         by increasing ES
+     */
+    public List<Task> tasksStartingBetween(long from, long to) {
+        return scheduleIndex().startingBetween(from, to);
+    }
+
+    /**
+     * @return the tasks with an LS from the first to the last value, inclusive,
+     *         by increasing LS
+     */
+    public List<Task> tasksWithLatestStartBetween(long from, long to) {
+        return scheduleIndex().latestStartingBetween(from, to);
+    }
+
+    /**
+     * The indexes are built on the first query and from then on updated after
+     * each change, only for the tasks whose values changed.
+     */
+    private ScheduleIndex scheduleIndex() {
+        List<Task> order = scheduledTasks();
+        if (scheduleIndex == null) {
+            scheduleIndex = new ScheduleIndex(order);
+        }
+        return scheduleIndex;
+    }
+
+    /**
+     * Returns the critical paths one at a time. The sub-network of the critical
+     * dependencies, i.e. dependencies between tasks with zero slack where the
+     * predecessor determines the ES of the successor, is built once; each path
+     * follows critical dependencies from a task without a critical predecessor to
+     * a task without a critical successor. Only the path being extended is kept in
+     * memory, so the number of paths may be far larger than what fits in a list.
+     * <p>
+     * The iterator reflects the schedule at the time it was created.
+     */
+    @Override
+    public Iterator<Path> criticalPathIterator() {
+        return new CriticalNetwork(topologicalOrder.tasks()).paths();
+    }
+
+    /**
+     * @return a lazy stream of the paths of {@link #criticalPathIterator()}
+     */
+    public Stream<Path> criticalPaths() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(criticalPathIterator(), Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Counts the paths of {@link #criticalPathIterator()} without enumerating
+     * them, in time linear to the size of the diagram.
+     */
+    @Override
+    public BigInteger countCriticalPaths() {
+        return new CriticalNetwork(topologicalOrder.tasks()).countPaths();
+    }
+
+    /**
+     * Returns the longest paths, from a task without predecessors to a task
+     * without successors, in decreasing length, also when they have float. The
+     * length of a path is the EF its last task would get from the dependencies of
+     * the path alone, with lags, and its total float is the project end minus its
+     * length. Critical paths come first, with zero float, unless a task on them
+     * only starts at 0 because its dependencies would let it start earlier.
+     * <p>
+     * Only the returned paths and their alternatives are searched, see
+     * {@link LongestPaths}.
+     *
+     * @param count the number of paths to return, at most
+     * @throws IllegalStateException if the diagram has working calendars, where
+     *                               the lengths along a path do not add up
+     */
+    public List<RankedPath> longestPaths(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of paths should not be negative");
+        }
+        if (usesCalendars()) {
+            throw new IllegalStateException("Longest paths are not supported with working calendars");
+        }
+        return new LongestPaths(scheduledTasks()).longest(count, projectEnd);
+    }
+
+    /**
+     * Returns all the critical paths of {@link #criticalPathIterator()}.
+     */
+    public List<Path> getCriticalPaths() {
+        List<Path> criticalPaths = new ArrayList<>();
+        criticalPathIterator().forEachRemaining(criticalPaths::add);
+        return criticalPaths;
     }
 }
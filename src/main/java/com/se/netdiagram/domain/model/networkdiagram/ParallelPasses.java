@@ -0,0 +1,119 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Forward and backward processing that groups the tasks into topological
+ * levels, where the level of a task is one more than the highest level of its
+ * predecessors, and calculates the tasks of each level concurrently. A task
+ * only reads the values of tasks in other levels, so the result is the same
+ * as the sequential processing.
+ */
+class ParallelPasses {
+    /**
+     * Levels and parts of levels smaller than this are calculated by a single
+     * thread.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 512;
+
+    private final ForkJoinPool pool;
+
+    ParallelPasses(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Calculates all the values of the tasks, with the same levels for the
+     * forward and the backward processing.
+     * 
+     * @param order the tasks in topological order
+     * @return project end
+     */
+    long schedule(List<Task> order) {
+        List<List<Task>> levels = levels(order);
+        for (List<Task> level : levels) {
+            calculate(level, Task::calculateEarliest);
+        }
+
+        long end = 0;
+        for (Task task : order) {
+            end = Math.max(end, task.earliestFinish());
+        }
+        backwardByLevels(levels, end);
+        return end;
+    }
+
+    /**
+     * Calculates the LS, LF and Slack values only, e.g. after the project end
+     * moved.
+     * 
+     * @param order the tasks in topological order
+     */
+    void backward(List<Task> order, long projectEnd) {
+        backwardByLevels(levels(order), projectEnd);
+    }
+
+    private void backwardByLevels(List<List<Task>> levels, long projectEnd) {
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            calculate(levels.get(i), task -> task.calculateLatestAndSlack(projectEnd));
+        }
+    }
+
+    private static List<List<Task>> levels(List<Task> order) {
+        int[] levelOf = new int[order.size()];
+        List<List<Task>> levels = new ArrayList<>();
+        for (Task task : order) {
+            int level = 0;
+            for (Dependency dependency : task.predecessors()) {
+                level = Math.max(level, levelOf[dependency.task().topologicalPosition()] + 1);
+            }
+            levelOf[task.topologicalPosition()] = level;
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(task);
+        }
+        return levels;
+    }
+
+    private void calculate(List<Task> level, Consumer<Task> calculation) {
+        if (level.size() < SEQUENTIAL_THRESHOLD) {
+            level.forEach(calculation);
+        } else {
+            pool.invoke(new LevelPart(level, 0, level.size(), calculation));
+        }
+    }
+
+    private static class LevelPart extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Task> level;
+        private final int from;
+        private final int to;
+        private final transient Consumer<Task> calculation;
+
+        LevelPart(List<Task> level, int from, int to, Consumer<Task> calculation) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.calculation = calculation;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    calculation.accept(level.get(i));
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new LevelPart(level, from, middle, calculation),
+                        new LevelPart(level, middle, to, calculation));
+            }
+        }
+    }
+}
@@ -1,58 +1,238 @@
 package com.se.netdiagram.domain.model.networkdiagram;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 
 /**
  * Immutable class that represents a path of tasks.
+ * <p>
+ * A path is a persistent list: it points to the path without its last task,
+ * so adding or removing the last task is O(1) and paths that branch off a
+ * common prefix share it. The array of tasks is built once per path, the
+ * first time it is needed.
+ * <p>
+ * Membership is checked in a persistent hash trie of the tasks, which each
+ * path also shares with its prefix: it is made, the first time it is needed,
+ * by adding the last task to the trie of the prefix, which only copies the
+ * nodes on the way to that task.
  */
-public class Path {
+public class Path implements ScheduledPath {
 
-    private List<Task> tasks;
+    private final Path prefix;
+    private final Task last;
+    private final int size;
+
+    private volatile Task[] taskArray;
+    private volatile TaskTrie taskTrie;
 
     public Path() {
-        this.tasks = Collections.unmodifiableList(new ArrayList<>());
+        this(null, null, 0);
     }
 
     public Path(List<Task> tasks) {
-        this.tasks = Collections.unmodifiableList(tasks);
+        this(prefixOf(tasks), tasks.isEmpty() ? null : tasks.get(tasks.size() - 1), tasks.size());
+    }
+
+    private Path(Path prefix, Task last, int size) {
+        this.prefix = prefix;
+        this.last = last;
+        this.size = size;
+    }
+
+    private static Path prefixOf(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return null;
+        }
+        Path path = new Path();
+        for (int i = 0; i < tasks.size() - 1; i++) {
+            path = path.addTask(tasks.get(i));
+        }
+        return path;
     }
 
     public List<Task> tasks() {
-        return Collections.unmodifiableList(tasks);
+        return Collections.unmodifiableList(Arrays.asList(taskArray()));
     }
 
     public Path addTask(Task task) {
-        List<Task> newTasks = new ArrayList<>(this.tasks);
-        newTasks.add(task);
-        return new Path(newTasks);
+        return new Path(this, task, size + 1);
     }
 
     public Path removeLastTask() {
-        List<Task> newTasks = new ArrayList<>(this.tasks);
-        newTasks.remove(this.tasks.size() - 1);
-        return new Path(newTasks);
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("The path is empty");
+        }
+        return prefix;
     }
 
     public int size() {
-        return tasks.size();
+        return size;
     }
 
     public Task taskAt(int i) {
-        return tasks.get(i);
+        if (i == size - 1) {
+            return last;
+        }
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return taskArray()[i];
     }
 
     public boolean containsTask(Task predTask) {
-        return tasks.contains(predTask);
+        return taskTrie().contains(predTask);
     }
 
     public Task lastTask() {
-        return this.tasks.get(this.tasks.size() - 1);
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("The path is empty");
+        }
+        return last;
+    }
+
+    /**
+     * Makes the tries of this path and of the prefixes that have none yet, from
+     * the nearest prefix that has one.
+     */
+    private TaskTrie taskTrie() {
+        TaskTrie trie = taskTrie;
+        if (trie != null) {
+            return trie;
+        }
+        Deque<Path> withoutTrie = new ArrayDeque<>();
+        Path path = this;
+        while (path.size > 0 && path.taskTrie == null) {
+            withoutTrie.push(path);
+            path = path.prefix;
+        }
+        trie = path.size == 0 ? TaskTrie.EMPTY : path.taskTrie;
+        while (!withoutTrie.isEmpty()) {
+            path = withoutTrie.pop();
+            trie = trie.with(path.last);
+            path.taskTrie = trie;
+        }
+        return trie;
+    }
+
+    private Task[] taskArray() {
+        Task[] array = taskArray;
+        if (array == null) {
+            array = new Task[size];
+            Path path = this;
+            for (int i = size - 1; i >= 0; i--) {
+                array[i] = path.last;
+                path = path.prefix;
+            }
+            taskArray = array;
+        }
+        return array;
     }
 
     public String toString() {
-        return tasks.toString();
+        return Arrays.toString(taskArray());
     }
 
+    /**
+     * An immutable set of tasks, as a hash array mapped trie: each node takes
+     * five bits of the hash of a task and keeps only the entries it has, a task
+     * or a child node, in the order of a bitmap. Adding a task copies the nodes
+     * from the root to it and shares the others.
+     */
+    private static final class TaskTrie {
+        private static final int BITS = 5;
+        private static final TaskTrie EMPTY = new TaskTrie(0, new Object[0]);
+
+        private final int bitmap;
+        /**
+         * A task, a child node, or, once all the bits are taken, an array of the
+         * tasks with the same hash.
+         */
+        private final Object[] entries;
+
+        private TaskTrie(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        /**
+         * The ordinal of the task, which is dense within a diagram, or its identity
+         * hash if it has none.
+         */
+        private static int hash(Task task) {
+            int ordinal = task.id().ordinal();
+            return ordinal >= 0 ? ordinal : System.identityHashCode(task);
+        }
+
+        boolean contains(Task task) {
+            int hash = hash(task);
+            TaskTrie node = this;
+            for (int shift = 0;; shift += BITS) {
+                int bit = 1 << ((hash >>> shift) & 31);
+                if ((node.bitmap & bit) == 0) {
+                    return false;
+                }
+                Object entry = node.entries[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (entry instanceof TaskTrie) {
+                    node = (TaskTrie) entry;
+                } else if (entry instanceof Task) {
+                    return entry == task;
+                } else {
+                    for (Task sameHash : (Task[]) entry) {
+                        if (sameHash == task) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+            }
+        }
+
+        TaskTrie with(Task task) {
+            return with(task, hash(task), 0);
+        }
+
+        private TaskTrie with(Task task, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & 31);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] added = new Object[entries.length + 1];
+                System.arraycopy(entries, 0, added, 0, index);
+                added[index] = task;
+                System.arraycopy(entries, index, added, index + 1, entries.length - index);
+                return new TaskTrie(bitmap | bit, added);
+            }
+
+            Object entry = entries[index];
+            Object replacement;
+            if (entry instanceof TaskTrie) {
+                replacement = ((TaskTrie) entry).with(task, hash, shift + BITS);
+            } else if (entry instanceof Task) {
+                if (entry == task) {
+                    return this;
+                }
+                if (shift + BITS >= Integer.SIZE) {
+                    replacement = new Task[] { (Task) entry, task };
+                } else {
+                    replacement = EMPTY.with((Task) entry, hash((Task) entry), shift + BITS)
+                            .with(task, hash, shift + BITS);
+                }
+            } else {
+                Task[] sameHash = (Task[]) entry;
+                for (Task other : sameHash) {
+                    if (other == task) {
+                        return this;
+                    }
+                }
+                Task[] added = Arrays.copyOf(sameHash, sameHash.length + 1);
+                added[sameHash.length] = task;
+                replacement = added;
+            }
+            Object[] replaced = entries.clone();
+            replaced[index] = replacement;
+            return new TaskTrie(bitmap, replaced);
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+/**
+ * A path of a scheduled network diagram with its length, i.e. the EF of its
+ * last task if its tasks were scheduled by the dependencies of the path alone,
+ * and its total float, i.e. how much longer it may get before it delays the
+ * project end.
+ */
+public class RankedPath {
+    private final Path path;
+    private final long length;
+    private final long totalFloat;
+
+    RankedPath(Path path, long length, long totalFloat) {
+        this.path = path;
+        this.length = length;
+        this.totalFloat = totalFloat;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public long totalFloat() {
+        return totalFloat;
+    }
+
+    @Override
+    public String toString() {
+        return path + ": " + length + " (" + totalFloat + ")";
+    }
+}
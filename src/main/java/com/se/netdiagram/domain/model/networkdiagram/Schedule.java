@@ -0,0 +1,23 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Read-only view of a scheduled network diagram: the values calculated for
+ * each task and the critical paths.
+ */
+public interface Schedule {
+
+    long projectEnd();
+
+    List<? extends ScheduledTask> tasks();
+
+    List<? extends ScheduledPath> getCriticalPaths();
+
+    Iterator<? extends ScheduledPath> criticalPathIterator();
+
+    BigInteger countCriticalPaths();
+
+}
@@ -0,0 +1,131 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorted indexes of the tasks of a network diagram on their Slack, ES and LS,
+ * for range and top-k queries that do not scan all the tasks. Each index maps
+ * a value to the tasks that have it, in a balanced tree, so that a query costs
+ * a logarithmic search plus the size of its answer.
+ * <p>
+ * The indexes are not updated by the tasks themselves: after each scheduling
+ * pass the diagram updates the tasks whose values may have changed.
+ */
+class ScheduleIndex {
+    private final SortedIndex bySlack = new SortedIndex(Task::slack);
+    private final SortedIndex byEarliestStart = new SortedIndex(Task::earliestStart);
+    private final SortedIndex byLatestStart = new SortedIndex(Task::latestStart);
+
+    ScheduleIndex(Collection<Task> tasks) {
+        updateAll(tasks);
+    }
+
+    void updateAll(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            update(task);
+        }
+    }
+
+    void update(Task task) {
+        bySlack.update(task);
+        byEarliestStart.update(task);
+        byLatestStart.update(task);
+    }
+
+    void remove(Task task) {
+        bySlack.remove(task);
+        byEarliestStart.remove(task);
+        byLatestStart.remove(task);
+    }
+
+    List<Task> withSlackAtMost(long slack) {
+        return SortedIndex.tasksOf(bySlack.tasks.headMap(slack, true));
+    }
+
+    List<Task> withLeastSlack(int count) {
+        List<Task> result = new ArrayList<>();
+        for (Set<Task> tasks : bySlack.tasks.values()) {
+            for (Task task : tasks) {
+                if (result.size() == count) {
+                    return result;
+                }
+                result.add(task);
+            }
+        }
+        return result;
+    }
+
+    List<Task> startingBetween(long from, long to) {
+        return SortedIndex.tasksOf(byEarliestStart.tasks.subMap(from, true, to, true));
+    }
+
+    List<Task> latestStartingBetween(long from, long to) {
+        return SortedIndex.tasksOf(byLatestStart.tasks.subMap(from, true, to, true));
+    }
+
+    /**
+     * The tasks by one of their values. The value under which each task is
+     * indexed is remembered, by the ordinal of the task id, so that it can be
+     * found again once it changed.
+     */
+    private static class SortedIndex {
+        private final ToLongFunction<Task> valueOf;
+        private final TreeMap<Long, Set<Task>> tasks = new TreeMap<>();
+        private long[] indexedValues = new long[16];
+        private final BitSet indexed = new BitSet();
+
+        SortedIndex(ToLongFunction<Task> valueOf) {
+            this.valueOf = valueOf;
+        }
+
+        void update(Task task) {
+            int ordinal = task.id().ordinal();
+            long value = valueOf.applyAsLong(task);
+            if (indexed.get(ordinal)) {
+                if (indexedValues[ordinal] == value) {
+                    return;
+                }
+                removeFrom(indexedValues[ordinal], task);
+            }
+            if (ordinal >= indexedValues.length) {
+                indexedValues = Arrays.copyOf(indexedValues, Math.max(ordinal + 1, 2 * indexedValues.length));
+            }
+            indexedValues[ordinal] = value;
+            indexed.set(ordinal);
+            tasks.computeIfAbsent(value, v -> new LinkedHashSet<>()).add(task);
+        }
+
+        void remove(Task task) {
+            int ordinal = task.id().ordinal();
+            if (indexed.get(ordinal)) {
+                indexed.clear(ordinal);
+                removeFrom(indexedValues[ordinal], task);
+            }
+        }
+
+        private void removeFrom(long value, Task task) {
+            Set<Task> withValue = tasks.get(value);
+            withValue.remove(task);
+            if (withValue.isEmpty()) {
+                tasks.remove(value);
+            }
+        }
+
+        static List<Task> tasksOf(NavigableMap<Long, Set<Task>> range) {
+            List<Task> result = new ArrayList<>();
+            for (Set<Task> withValue : range.values()) {
+                result.addAll(withValue);
+            }
+            return result;
+        }
+    }
+}
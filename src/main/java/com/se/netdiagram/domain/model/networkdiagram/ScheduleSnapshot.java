@@ -0,0 +1,71 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An immutable copy of a network diagram and its schedule, published by a
+ * {@link ConcurrentNetworkDiagram}. It is never changed after it is published,
+ * so any number of threads can read it without locking.
+ */
+public class ScheduleSnapshot implements Schedule {
+    private final NetworkDiagram diagram;
+    private final long version;
+
+    /**
+     * @param diagram a copy that no one else refers to
+     */
+    ScheduleSnapshot(NetworkDiagram diagram, long version) {
+        this.diagram = diagram;
+        this.version = version;
+    }
+
+    /**
+     * @return the number of changes published before this snapshot
+     */
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public long projectEnd() {
+        return diagram.projectEnd();
+    }
+
+    @Override
+    public List<Task> tasks() {
+        return diagram.tasks();
+    }
+
+    public Task getTask(String id) {
+        return diagram.getTask(id);
+    }
+
+    @Override
+    public List<Path> getCriticalPaths() {
+        return diagram.getCriticalPaths();
+    }
+
+    @Override
+    public Iterator<Path> criticalPathIterator() {
+        return diagram.criticalPathIterator();
+    }
+
+    @Override
+    public BigInteger countCriticalPaths() {
+        return diagram.countCriticalPaths();
+    }
+
+    /**
+     * @return a diagram with the same tasks and schedule that can be changed
+     */
+    NetworkDiagram toNetworkDiagram() {
+        return diagram.copy();
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot " + version + ", project end: " + projectEnd();
+    }
+}
@@ -0,0 +1,16 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import com.se.netdiagram.domain.model.networkdiagram.date.Lag;
+
+/**
+ * Read-only view of a dependency on another task.
+ */
+public interface ScheduledDependency {
+
+    ScheduledTask task();
+
+    DependencyType type();
+
+    Lag lag();
+
+}
@@ -0,0 +1,12 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.List;
+
+/**
+ * Read-only view of a path of tasks.
+ */
+public interface ScheduledPath {
+
+    List<? extends ScheduledTask> tasks();
+
+}
@@ -0,0 +1,26 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.List;
+
+/**
+ * Read-only view of a task and its ES, EF, LS, LF and Slack values.
+ */
+public interface ScheduledTask {
+
+    TaskId id();
+
+    long durationAsInt();
+
+    long earliestStart();
+
+    long earliestFinish();
+
+    long latestStart();
+
+    long latestFinish();
+
+    long slack();
+
+    List<? extends ScheduledDependency> predecessors();
+
+}
@@ -0,0 +1,167 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Finds, for every task, how much the project end moves if the duration of the
+ * task grows by a given delay.
+ * <p>
+ * A delay that does not exceed the slack of a task cannot move the project
+ * end: EF grows by at most the delay, ES does not grow, and so no successor
+ * starts later than its LS. With working calendars the slack is in days while
+ * the delay is in working days, so this shortcut is only taken for tasks
+ * without a calendar. For the other tasks, the new ES and EF values are
+ * propagated forward from the task, only as far as they change, into a scratch
+ * overlay on top of the schedule, which is left untouched. Each worker has its
+ * own overlay, indexed by topological position and reused for all the tasks it
+ * analyses, so the tasks can be analysed concurrently.
+ */
+class SensitivityAnalysis {
+    private final List<Task> order;
+    private final long projectEnd;
+    private final long delay;
+
+    /**
+     * @param order the scheduled tasks in topological order
+     */
+    SensitivityAnalysis(List<Task> order, long projectEnd, long delay) {
+        if (delay < 0)
+            throw new IllegalArgumentException("Delay must not be negative");
+
+        this.order = order;
+        this.projectEnd = projectEnd;
+        this.delay = delay;
+    }
+
+    /**
+     * @return the project end change per task, by topological position
+     */
+    long[] run() {
+        long[] impacts = new long[order.size()];
+        new Overlay().analyse(0, order.size(), impacts);
+        return impacts;
+    }
+
+    /**
+     * @return the project end change per task, by topological position
+     */
+    long[] run(ForkJoinPool pool) {
+        long[] impacts = new long[order.size()];
+        int chunks = Math.max(1, Math.min(order.size(), pool.getParallelism() * 4));
+        int chunkSize = (order.size() + chunks - 1) / chunks;
+        List<Callable<Void>> work = new ArrayList<>();
+        for (int from = 0; from < order.size(); from += chunkSize) {
+            int first = from;
+            int last = Math.min(order.size(), from + chunkSize);
+            work.add(() -> {
+                new Overlay().analyse(first, last, impacts);
+                return null;
+            });
+        }
+
+        for (Future<Void> done : pool.invokeAll(work)) {
+            try {
+                done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Sensitivity analysis interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Sensitivity analysis failed: " + e.getCause(), e.getCause());
+            }
+        }
+        return impacts;
+    }
+
+    /**
+     * ES and EF values that differ from the schedule. A value belongs to the
+     * overlay only if its stamp is the one of the task being analysed, so the
+     * overlay never has to be cleared.
+     */
+    private class Overlay {
+        private final long[] earliestStart = new long[order.size()];
+        private final long[] earliestFinish = new long[order.size()];
+        private final int[] stamp = new int[order.size()];
+        private final int[] queuedStamp = new int[order.size()];
+        private final PriorityQueue<Integer> queue = new PriorityQueue<>();
+        private int current = 0;
+
+        void analyse(int from, int to, long[] impacts) {
+            for (int position = from; position < to; position++) {
+                Task task = order.get(position);
+                impacts[position] = task.calendar() == null && task.slack() >= delay ? 0 : impactOf(position);
+            }
+        }
+
+        private long impactOf(int delayed) {
+            current++;
+            long end = projectEnd;
+            boolean endMayDecrease = false;
+
+            queue.add(delayed);
+            queuedStamp[delayed] = current;
+            while (!queue.isEmpty()) {
+                int position = queue.poll();
+                Task task = order.get(position);
+
+                long duration = task.durationAsInt() + (position == delayed ? delay : 0);
+                long es;
+                long ef;
+                if (task.calendar() == null) {
+                    es = 0;
+                    for (Dependency dependency : task.predecessors()) {
+                        int pred = dependency.task().topologicalPosition();
+                        es = Math.max(es, dependency.type().earliestStartOfSuccessor(earliestStart(pred),
+                                earliestFinish(pred), duration, dependency.lag().value()));
+                    }
+                    ef = es + duration;
+                } else {
+                    es = EarliestLatest.earliestStartInCalendar(task.predecessors(), duration, task.calendar(),
+                            pred -> earliestStart(pred.topologicalPosition()),
+                            pred -> earliestFinish(pred.topologicalPosition()));
+                    ef = EarliestLatest.finishInCalendar(es, duration, task.calendar());
+                }
+                if (es == earliestStart(position) && ef == earliestFinish(position)) {
+                    continue;
+                }
+
+                if (earliestFinish(position) == projectEnd && ef < projectEnd) {
+                    endMayDecrease = true;
+                }
+                earliestStart[position] = es;
+                earliestFinish[position] = ef;
+                stamp[position] = current;
+                end = Math.max(end, ef);
+
+                for (Dependency dependency : task.successorEdges()) {
+                    int succ = dependency.successor().topologicalPosition();
+                    if (queuedStamp[succ] != current) {
+                        queuedStamp[succ] = current;
+                        queue.add(succ);
+                    }
+                }
+            }
+
+            if (endMayDecrease) {
+                end = 0;
+                for (int position = 0; position < order.size(); position++) {
+                    end = Math.max(end, earliestFinish(position));
+                }
+            }
+            return end - projectEnd;
+        }
+
+        private long earliestStart(int position) {
+            return stamp[position] == current ? earliestStart[position] : order.get(position).earliestStart();
+        }
+
+        private long earliestFinish(int position) {
+            return stamp[position] == current ? earliestFinish[position] : order.get(position).earliestFinish();
+        }
+    }
+}
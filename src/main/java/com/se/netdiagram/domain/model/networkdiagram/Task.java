@@ -1,18 +1,60 @@
 package com.se.netdiagram.domain.model.networkdiagram;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongConsumer;
 
 import com.se.netdiagram.domain.model.networkdiagram.date.Duration;
+import com.se.netdiagram.domain.model.networkdiagram.date.Lag;
+import com.se.netdiagram.domain.model.networkdiagram.date.WorkingCalendar;
 import com.se.netdiagram.domain.model.utilities.Query;
 
-public class Task {
+public class Task implements ScheduledTask {
+    /**
+     * The number of predecessors above which they are also indexed by task.
+     */
+    private static final int INDEXED_PREDECESSORS = 8;
+    private static final int DEPENDENCY_TYPES = DependencyType.values().length;
+
     private TaskId id;
     private Duration duration;
     private List<Dependency> predecessors = new ArrayList<>();
-    private List<Dependency> successors = new ArrayList<>();
+    /**
+     * The dependencies of other tasks on this task, the same objects as in their
+     * predecessors.
+     */
+    private List<Dependency> successorEdges = new ArrayList<>();
+    /**
+     * The predecessors by predecessor task and by the ordinal of their type, once
+     * there are more than {@link #INDEXED_PREDECESSORS}; fewer are searched.
+     */
+    private Map<Task, Dependency[]> predecessorIndex = null;
+    private final List<Dependency> predecessorsView = Collections.unmodifiableList(predecessors);
+    private final List<Dependency> successorEdgesView = Collections.unmodifiableList(successorEdges);
+    private final List<Dependency> successorsView = new AbstractList<Dependency>() {
+        @Override
+        public Dependency get(int index) {
+            Dependency edge = successorEdges.get(index);
+            return new Dependency(edge.successor(), edge.type(), edge.lag());
+        }
+
+        @Override
+        public int size() {
+            return successorEdges.size();
+        }
+    };
     private EarliestLatest earliestLatest = new EarliestLatest();
+    private int topologicalPosition;
+    private WorkingCalendar calendar = null;
+    private boolean hasOwnCalendar = false;
+    private NetworkDiagram subNetwork = null;
+    private LongConsumer subNetworkListener = null;
 
     protected Task(TaskId taskId, Duration duration) {
         this.id = taskId;
@@ -39,12 +81,92 @@ public class Task {
         return duration.value();
     }
 
+    protected void changeDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * @return the working calendar of the task, or null if the task is scheduled
+     *         in plain time units
+     */
+    public WorkingCalendar calendar() {
+        return calendar;
+    }
+
+    /**
+     * @param own whether the calendar was given to this task rather than being
+     *            the calendar of the diagram
+     */
+    protected void setCalendar(WorkingCalendar calendar, boolean own) {
+        this.calendar = calendar;
+        this.hasOwnCalendar = own;
+    }
+
+    protected boolean hasOwnCalendar() {
+        return hasOwnCalendar;
+    }
+
+    /**
+     * @return whether the task stands for a sub-network
+     */
+    public boolean isSummary() {
+        return subNetwork != null;
+    }
+
+    /**
+     * @return the sub-network of a summary task, or null
+     */
+    public NetworkDiagram subNetwork() {
+        return subNetwork;
+    }
+
+    /**
+     * @param listener updates the duration of this task when the project end of
+     *                 the sub-network changes
+     */
+    protected void setSubNetwork(NetworkDiagram subNetwork, LongConsumer listener) {
+        this.subNetwork = subNetwork;
+        this.subNetworkListener = listener;
+    }
+
+    protected LongConsumer subNetworkListener() {
+        return subNetworkListener;
+    }
+
+    protected int topologicalPosition() {
+        return topologicalPosition;
+    }
+
+    protected void setTopologicalPosition(int topologicalPosition) {
+        this.topologicalPosition = topologicalPosition;
+    }
+
+    /**
+     * @return a read-only view of the successors, which reflects later changes;
+     *         each dependency in it is created when it is read, with the
+     *         successor as its task, so reading the same element twice gives two
+     *         objects and identity-based {@code contains} or {@code indexOf} do
+     *         not find a dependency read before
+     */
     public List<Dependency> successors() {
-        return Collections.unmodifiableList(successors);
+        return successorsView;
+    }
+
+    /**
+     * @return a read-only view of the dependencies of other tasks on this task,
+     *         which reflects later changes; the task of each one is this task and
+     *         its {@link Dependency#successor()} is the other task
+     */
+    List<Dependency> successorEdges() {
+        return successorEdgesView;
     }
 
+    /**
+     * @return a read-only view of the predecessors, which reflects later changes;
+     *         removing a dependency moves the last one into its place
+     */
     public List<Dependency> predecessors() {
-        return Collections.unmodifiableList(predecessors);
+        return predecessorsView;
     }
 
     public boolean dependsOnAnyTaskFrom(List<Task> tasks) {
@@ -72,8 +194,13 @@ public class Task {
      * <li>A task cannot be its own predecessor.
      * <li>A task "A" with a "B" as predecessor means that "B" must have "A" as a
      * successor.
-     * <li>Adding a predecessor should not create a circular dependency.
+     * <li>Adding a predecessor should not create a circular dependency. The
+     * network diagram checks it when it orders the predecessor before this task,
+     * see {@link TopologicalOrder#addDependency}, before adding the dependency.
      * </ul>
+     * A dependency on a predecessor with the same type as an existing one is
+     * merged into it, keeping the greater lag, which is the one that constrains
+     * the schedule.
      * 
      * @param predDependency
      */
@@ -81,42 +208,216 @@ public class Task {
         if (predDependency.task() == this)
             throw new IllegalArgumentException("A task cannot be its own predecessor!");
 
-        if (predecessors.contains(predDependency)) {
-            throw new IllegalArgumentException("A task cannot have the same predecessor twice!");
+        Dependency existing = predecessor(predDependency.task(), predDependency.type());
+        if (existing != null) {
+            if (predDependency.lag().value() > existing.lag().value()) {
+                replace(existing,
+                        new Dependency(predDependency.task(), predDependency.type(), predDependency.lag()));
+            }
+        } else {
+            link(predDependency.successor() == null ? predDependency
+                    : new Dependency(predDependency.task(), predDependency.type(), predDependency.lag()));
         }
 
-        if (this.additionOfDependencyCreatesACircularDependency(predDependency)) {
-            throw new IllegalArgumentException("Adding a predecessor should not create a circular dependency!");
+        earliestLatest = new EarliestLatest();
+    }
+
+    /**
+     * Adds a dependency copied from another diagram, where it was already
+     * validated, keeping the calculated values.
+     */
+    void copyPredecessor(Dependency predDependency) {
+        link(predDependency);
+    }
+
+    /**
+     * @return the dependency of this task on the predecessor with the given type,
+     *         or null if there is none
+     */
+    Dependency predecessor(Task predTask, DependencyType type) {
+        if (predecessorIndex != null) {
+            Dependency[] byType = predecessorIndex.get(predTask);
+            return byType == null ? null : byType[type.ordinal()];
         }
+        for (Dependency dependency : predecessors) {
+            if (dependency.task() == predTask && dependency.type() == type) {
+                return dependency;
+            }
+        }
+        return null;
+    }
 
-        predecessors.add(predDependency);
-        predDependency.task().successors.add(new Dependency(this, predDependency.type(), predDependency.lag()));
+    /**
+     * Adds the dependency to the predecessors of this task and to the successor
+     * edges of the predecessor.
+     */
+    private void link(Dependency dependency) {
+        List<Dependency> edges = dependency.task().successorEdges;
+        dependency.setSuccessor(this);
+        dependency.setPredecessorPosition(predecessors.size());
+        dependency.setSuccessorPosition(edges.size());
+        predecessors.add(dependency);
+        edges.add(dependency);
+        if (predecessorIndex != null) {
+            index(dependency);
+        } else if (predecessors.size() > INDEXED_PREDECESSORS) {
+            predecessorIndex = new HashMap<>();
+            for (Dependency predDependency : predecessors) {
+                index(predDependency);
+            }
+        }
+    }
 
-        earliestLatest = new EarliestLatest();
-        predDependency.task().earliestLatest = new EarliestLatest();
+    private void index(Dependency dependency) {
+        Dependency[] byType = predecessorIndex.computeIfAbsent(dependency.task(),
+                predTask -> new Dependency[DEPENDENCY_TYPES]);
+        byType[dependency.type().ordinal()] = dependency;
     }
 
-    private boolean additionOfDependencyCreatesACircularDependency(Dependency predDependency) {
-        for (Dependency dependency : successors) {
-            Task nextTask = dependency.task();
+    /**
+     * Removes the dependencies of this task on the predecessor, from both tasks.
+     * 
+     * @return true if the task depended on the predecessor
+     */
+    protected boolean removePredecessor(Task predTask) {
+        boolean removed = false;
+        for (DependencyType type : DependencyType.values()) {
+            removed |= removePredecessor(predTask, type);
+        }
+        return removed;
+    }
 
-            if (nextTask == predDependency.task()) {
-                return true;
+    /**
+     * Removes the dependency of this task on the predecessor with the given type,
+     * from both tasks.
+     * 
+     * @return true if the task depended on the predecessor with that type
+     */
+    protected boolean removePredecessor(Task predTask, DependencyType type) {
+        Dependency dependency = predecessor(predTask, type);
+        if (dependency == null) {
+            return false;
+        }
+        unlink(dependency);
+        if (predecessorIndex != null) {
+            Dependency[] byType = predecessorIndex.get(predTask);
+            byType[type.ordinal()] = null;
+            if (Arrays.stream(byType).allMatch(Objects::isNull)) {
+                predecessorIndex.remove(predTask);
             }
+        }
+        return true;
+    }
 
-            if (nextTask.additionOfDependencyCreatesACircularDependency(predDependency)) {
-                return true;
-            }
+    /**
+     * Removes the dependency from both tasks, moving the last dependency of each
+     * list into its place.
+     */
+    private void unlink(Dependency dependency) {
+        Dependency last = predecessors.remove(predecessors.size() - 1);
+        if (last != dependency) {
+            last.setPredecessorPosition(dependency.predecessorPosition());
+            predecessors.set(dependency.predecessorPosition(), last);
+        }
+        List<Dependency> edges = dependency.task().successorEdges;
+        Dependency lastEdge = edges.remove(edges.size() - 1);
+        if (lastEdge != dependency) {
+            lastEdge.setSuccessorPosition(dependency.successorPosition());
+            edges.set(dependency.successorPosition(), lastEdge);
         }
-        return false;
     }
 
-    protected void calculateEarliest() {
-        earliestLatest = earliestLatest.calculateEarliest(predecessors, duration);
+    /**
+     * Replaces the lag of the dependencies of this task on the predecessor, on
+     * both tasks.
+     * 
+     * @return true if the task depends on the predecessor
+     */
+    protected boolean changeLagOfPredecessor(Task predTask, Lag lag) {
+        boolean changed = false;
+        for (DependencyType type : DependencyType.values()) {
+            changed |= changeLagOfPredecessor(predTask, type, lag);
+        }
+        return changed;
     }
 
-    protected void calculateLatestAndSlack(long projectEnd) {
-        earliestLatest = earliestLatest.calculateLatestAndSlack(successors, duration, projectEnd);
+    /**
+     * Replaces the lag of the dependency of this task on the predecessor with the
+     * given type, on both tasks.
+     * 
+     * @return true if the task depends on the predecessor with that type
+     */
+    protected boolean changeLagOfPredecessor(Task predTask, DependencyType type, Lag lag) {
+        Dependency dependency = predecessor(predTask, type);
+        if (dependency == null) {
+            return false;
+        }
+        replace(dependency, new Dependency(predTask, type, lag));
+        return true;
+    }
+
+    /**
+     * Replaces a predecessor with a dependency on the same task with the same
+     * type, in the same places on both tasks.
+     */
+    private void replace(Dependency dependency, Dependency replacement) {
+        replacement.setSuccessor(this);
+        replacement.setPredecessorPosition(dependency.predecessorPosition());
+        replacement.setSuccessorPosition(dependency.successorPosition());
+        predecessors.set(dependency.predecessorPosition(), replacement);
+        dependency.task().successorEdges.set(dependency.successorPosition(), replacement);
+        if (predecessorIndex != null) {
+            index(replacement);
+        }
+    }
+
+    /**
+     * Calculates ES and EF from the predecessors.
+     * 
+     * @return true if ES or EF changed
+     */
+    protected boolean calculateEarliest() {
+        EarliestLatest previous = earliestLatest;
+        earliestLatest = earliestLatest.calculateEarliest(predecessors, duration, calendar);
+        return !earliestLatest.hasSameEarliestAs(previous);
+    }
+
+    /**
+     * Calculates LS, LF and Slack from the successors.
+     * 
+     * @return true if LS or LF changed
+     */
+    protected boolean calculateLatestAndSlack(long projectEnd) {
+        EarliestLatest previous = earliestLatest;
+        earliestLatest = earliestLatest.calculateLatestAndSlack(successorEdges, duration, projectEnd, calendar);
+        return !earliestLatest.hasSameLatestAs(previous);
+    }
+
+    /**
+     * Replaces the calculated values, e.g. with the values of the task a copy is
+     * made of.
+     */
+    protected void setEarliestLatest(EarliestLatest earliestLatest) {
+        this.earliestLatest = earliestLatest;
+    }
+
+    /**
+     * Moves LS, LF and Slack after a move of the project end, see
+     * {@link EarliestLatest#withLatestShiftedBy(long)}.
+     */
+    protected void shiftLatestBy(long delta) {
+        earliestLatest = earliestLatest.withLatestShiftedBy(delta);
+    }
+
+    /**
+     * @return the ES a dependency of the given type on the predecessor alone
+     *         allows to this task
+     */
+    long earliestStartAllowedBy(Task pred, DependencyType type, long lag) {
+        if (calendar == null) {
+            return type.earliestStartOfSuccessor(pred.earliestStart(), pred.earliestFinish(), durationAsInt(), lag);
+        }
+        return EarliestLatest.earliestStartInCalendarAllowedBy(pred, type, lag, durationAsInt(), calendar);
     }
 
     public EarliestLatest earliestLatest() {
@@ -124,23 +425,23 @@ public class Task {
     }
 
     public long earliestStart() {
-        return earliestLatest.earliestStart().getAsLong();
+        return earliestLatest.earliestStartAsLong();
     }
 
     public long earliestFinish() {
-        return earliestLatest.earliestFinish().getAsLong();
+        return earliestLatest.earliestFinishAsLong();
     }
 
     public long latestStart() {
-        return earliestLatest.latestStart().getAsLong();
+        return earliestLatest.latestStartAsLong();
     }
 
     public long latestFinish() {
-        return earliestLatest.latestFinish().getAsLong();
+        return earliestLatest.latestFinishAsLong();
     }
 
     public long slack() {
-        return earliestLatest.slack().value();
+        return earliestLatest.slackAsLong();
     }
 
 }
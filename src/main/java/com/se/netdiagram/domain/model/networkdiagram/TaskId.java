@@ -2,12 +2,33 @@ package com.se.netdiagram.domain.model.networkdiagram;
 
 public class TaskId {
     private String id;
+    private int ordinal;
 
     public TaskId(String id) {
+        this(id, -1);
+    }
+
+    /**
+     * @param ordinal the dense number of the id in the diagram that interned it
+     */
+    TaskId(String id, int ordinal) {
+        checkValid(id);
+
+        this.id = id;
+        this.ordinal = ordinal;
+    }
+
+    static void checkValid(String id) {
         if (id == null || id.isEmpty())
             throw new IllegalArgumentException("TaskId cannot be null or empty!");
+    }
 
-        this.id = id;
+    /**
+     * @return the dense number of the id in the diagram of the task, or -1 if
+     *         the id was not interned by a diagram
+     */
+    int ordinal() {
+        return ordinal;
     }
 
     @Override
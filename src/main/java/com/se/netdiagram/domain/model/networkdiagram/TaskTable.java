@@ -0,0 +1,82 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.Arrays;
+
+import com.se.netdiagram.domain.model.utilities.IdSlots;
+
+/**
+ * The tasks of a network diagram by id. Each task id gets a dense int ordinal
+ * when it is interned, so that per-task data can be kept in arrays indexed by
+ * the ordinal instead of maps keyed by task. The ordinals of removed tasks are
+ * reused.
+ * <p>
+ * Ids are looked up with the id string itself, through {@link IdSlots} holding
+ * ordinals, so neither a {@link TaskId} nor a map entry is allocated per
+ * lookup.
+ */
+final class TaskTable {
+    private Task[] tasks = new Task[16];
+    private final IdSlots slots = new IdSlots(ordinal -> tasks[ordinal].idAsString());
+    private int[] freeOrdinals = new int[16];
+    private int freeCount = 0;
+    private int ordinalBound = 0;
+
+    /**
+     * @return the task with the id, or null if there is none
+     * @throws IllegalArgumentException if the id is null or empty, like
+     *                                  {@link TaskId}
+     */
+    Task get(String id) {
+        TaskId.checkValid(id);
+        int ordinal = slots.indexOf(id);
+        return ordinal < 0 ? null : tasks[ordinal];
+    }
+
+    /**
+     * @return an id with an ordinal that is not in use; it is in use once the
+     *         task is added with {@link #add(Task)}
+     */
+    TaskId intern(String id) {
+        int ordinal = freeCount > 0 ? freeOrdinals[freeCount - 1] : ordinalBound;
+        return new TaskId(id, ordinal);
+    }
+
+    /**
+     * Adds a task whose id was interned by this table and is not in the table.
+     */
+    void add(Task task) {
+        int ordinal = task.id().ordinal();
+        if (freeCount > 0 && freeOrdinals[freeCount - 1] == ordinal) {
+            freeCount--;
+        } else {
+            ordinalBound++;
+        }
+        if (ordinal >= tasks.length) {
+            tasks = Arrays.copyOf(tasks, tasks.length * 2);
+        }
+        tasks[ordinal] = task;
+        slots.add(ordinal);
+    }
+
+    void remove(Task task) {
+        int ordinal = task.id().ordinal();
+        slots.remove(ordinal);
+        tasks[ordinal] = null;
+        if (freeCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+        }
+        freeOrdinals[freeCount++] = ordinal;
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return an upper bound of the ordinals in use, for sizing arrays indexed by
+     *         ordinal
+     */
+    int ordinalBound() {
+        return ordinalBound;
+    }
+}
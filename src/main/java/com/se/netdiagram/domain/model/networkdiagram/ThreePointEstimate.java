@@ -0,0 +1,133 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.SplittableRandom;
+
+/**
+ * An uncertain duration given by its optimistic, most likely and pessimistic
+ * values, and the distribution that is fitted to them.
+ */
+public class ThreePointEstimate {
+
+    public enum Distribution {
+        TRIANGULAR, PERT
+    }
+
+    private final long optimistic;
+    private final long mostLikely;
+    private final long pessimistic;
+    private final Distribution distribution;
+
+    public ThreePointEstimate(long optimistic, long mostLikely, long pessimistic, Distribution distribution) {
+        if (optimistic < 0 || optimistic > mostLikely || mostLikely > pessimistic)
+            throw new IllegalArgumentException(
+                    "Estimates should satisfy 0 <= optimistic <= most likely <= pessimistic: " + optimistic + ", "
+                            + mostLikely + ", " + pessimistic);
+        if (distribution == null)
+            throw new IllegalArgumentException("Distribution cannot be null!");
+
+        this.optimistic = optimistic;
+        this.mostLikely = mostLikely;
+        this.pessimistic = pessimistic;
+        this.distribution = distribution;
+    }
+
+    public ThreePointEstimate(long optimistic, long mostLikely, long pessimistic) {
+        this(optimistic, mostLikely, pessimistic, Distribution.TRIANGULAR);
+    }
+
+    /**
+     * An estimate without uncertainty.
+     */
+    public static ThreePointEstimate fixed(long duration) {
+        return new ThreePointEstimate(duration, duration, duration);
+    }
+
+    public long optimistic() {
+        return optimistic;
+    }
+
+    public long mostLikely() {
+        return mostLikely;
+    }
+
+    public long pessimistic() {
+        return pessimistic;
+    }
+
+    public Distribution distribution() {
+        return distribution;
+    }
+
+    /**
+     * Draws a duration, rounded to whole time units.
+     */
+    public long sample(SplittableRandom random) {
+        if (optimistic == pessimistic) {
+            return mostLikely;
+        }
+        double range = pessimistic - optimistic;
+        double fraction;
+        if (distribution == Distribution.TRIANGULAR) {
+            fraction = triangular(random.nextDouble(), (mostLikely - optimistic) / range);
+        } else {
+            fraction = beta(random, 1 + 4 * (mostLikely - optimistic) / range,
+                    1 + 4 * (pessimistic - mostLikely) / range);
+        }
+        return Math.round(optimistic + fraction * range);
+    }
+
+    /**
+     * Inverse of the cumulative distribution of the triangular distribution on
+     * [0, 1] with the given mode.
+     */
+    private static double triangular(double u, double mode) {
+        if (u < mode) {
+            return Math.sqrt(u * mode);
+        }
+        return 1 - Math.sqrt((1 - u) * (1 - mode));
+    }
+
+    private static double beta(SplittableRandom random, double alpha, double beta) {
+        double x = gamma(random, alpha);
+        double y = gamma(random, beta);
+        return x / (x + y);
+    }
+
+    /**
+     * Marsaglia and Tsang's method, for shape >= 1.
+     */
+    private static double gamma(SplittableRandom random, double shape) {
+        double d = shape - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x;
+            double v;
+            do {
+                x = gaussian(random);
+                v = 1 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) {
+                return d * v;
+            }
+        }
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * random.nextDouble() - 1;
+            v = 2 * random.nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+    @Override
+    public String toString() {
+        return distribution + "(" + optimistic + ", " + mostLikely + ", " + pessimistic + ")";
+    }
+}
@@ -0,0 +1,129 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the tasks of a network diagram in an order where every task comes
+ * after all of its predecessors. The position of each task in the order is
+ * stored in the task, so that comparing two tasks is O(1).
+ * <p>
+ * The order is maintained online with the Pearce-Kelly algorithm: when a
+ * dependency is added that contradicts the order, only the tasks whose
+ * positions lie between the two tasks are searched and reordered. The same
+ * search detects circular dependencies.
+ */
+class TopologicalOrder {
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<Task> tasksView = Collections.unmodifiableList(tasks);
+
+    /**
+     * Appends a task without dependencies at the end of the order.
+     */
+    void add(Task task) {
+        task.setTopologicalPosition(tasks.size());
+        tasks.add(task);
+    }
+
+    /**
+     * Removes a task without dependencies. The tasks after it move one position
+     * forward, which keeps the order.
+     */
+    void remove(Task task) {
+        int position = task.topologicalPosition();
+        tasks.remove(position);
+        for (int i = position; i < tasks.size(); i++) {
+            tasks.get(i).setTopologicalPosition(i);
+        }
+    }
+
+    /**
+     * Reorders the tasks, if needed, so that the predecessor comes before the
+     * successor. Must be called before the dependency is added to the tasks.
+     *
+     * @throws IllegalArgumentException if the dependency would create a circular
+     *                                  dependency
+     */
+    void addDependency(Task predecessor, Task successor) {
+        int lowerBound = successor.topologicalPosition();
+        int upperBound = predecessor.topologicalPosition();
+        if (upperBound <= lowerBound) {
+            return;
+        }
+
+        List<Task> reachableFromSuccessor = new ArrayList<>();
+        Set<Task> visited = new HashSet<>();
+        Deque<Task> stack = new ArrayDeque<>();
+        visited.add(successor);
+        stack.push(successor);
+        while (!stack.isEmpty()) {
+            Task task = stack.pop();
+            reachableFromSuccessor.add(task);
+            for (Dependency dependency : task.successorEdges()) {
+                Task next = dependency.successor();
+                if (next == predecessor) {
+                    throw new IllegalArgumentException(
+                            "Adding a predecessor should not create a circular dependency!");
+                }
+                if (next.topologicalPosition() < upperBound && visited.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+
+        List<Task> reachingPredecessor = new ArrayList<>();
+        visited.add(predecessor);
+        stack.push(predecessor);
+        while (!stack.isEmpty()) {
+            Task task = stack.pop();
+            reachingPredecessor.add(task);
+            for (Dependency dependency : task.predecessors()) {
+                Task next = dependency.task();
+                if (next.topologicalPosition() > lowerBound && visited.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+
+        reorder(reachingPredecessor, reachableFromSuccessor);
+    }
+
+    /**
+     * Moves the tasks that lead to the predecessor in front of the tasks that can
+     * be reached from the successor, reusing the positions they occupied.
+     */
+    private void reorder(List<Task> reachingPredecessor, List<Task> reachableFromSuccessor) {
+        Comparator<Task> byPosition = Comparator.comparingInt(Task::topologicalPosition);
+        Collections.sort(reachingPredecessor, byPosition);
+        Collections.sort(reachableFromSuccessor, byPosition);
+
+        List<Task> moved = new ArrayList<>(reachingPredecessor);
+        moved.addAll(reachableFromSuccessor);
+
+        int[] positions = new int[moved.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = moved.get(i).topologicalPosition();
+        }
+        Arrays.sort(positions);
+
+        for (int i = 0; i < positions.length; i++) {
+            Task task = moved.get(i);
+            task.setTopologicalPosition(positions[i]);
+            tasks.set(positions[i], task);
+        }
+    }
+
+    /**
+     * @return the tasks in topological order
+     */
+    List<Task> tasks() {
+        return tasksView;
+    }
+}
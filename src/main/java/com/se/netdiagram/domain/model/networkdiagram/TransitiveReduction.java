@@ -0,0 +1,164 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Finds the finish-to-start dependencies without lag that a chain of such
+ * dependencies already implies, e.g. A-C when A-B and B-C exist. As durations
+ * are never negative, such a dependency never constrains the ES of its task or
+ * the LF of its predecessor more than the chain does.
+ * <p>
+ * The tasks are visited in reverse topological order and each one collects the
+ * set of tasks it reaches as a bitset. A successor that is already in the set
+ * when the successors are visited by increasing topological position is
+ * reached through another successor, so the dependency on it is redundant. To
+ * bound the memory, the sets are kept for one range of target positions at a
+ * time, as many as fit in the memory budget for all the tasks, and the tasks
+ * are visited once per range.
+ */
+final class TransitiveReduction {
+    private static final int BITS_PER_WORD = 64;
+
+    private final int size;
+    /**
+     * The positions of the successors through finish-to-start dependencies
+     * without lag, of each task by position, in increasing order.
+     */
+    private final int[] successorsStart;
+    private final int[] successors;
+    /**
+     * Whether all the dependencies of the successor on the task are
+     * finish-to-start without lag, so that they may be removed.
+     */
+    private final boolean[] removable;
+
+    private TransitiveReduction(List<Task> order) {
+        size = order.size();
+        successorsStart = new int[size + 1];
+        for (Task task : order) {
+            int count = 0;
+            for (Dependency dependency : task.successorEdges()) {
+                if (isPlainFinishToStart(dependency)) {
+                    count++;
+                }
+            }
+            successorsStart[task.topologicalPosition() + 1] = count;
+        }
+        for (int i = 0; i < size; i++) {
+            successorsStart[i + 1] += successorsStart[i];
+        }
+
+        successors = new int[successorsStart[size]];
+        removable = new boolean[successors.length];
+        for (Task task : order) {
+            int from = successorsStart[task.topologicalPosition()];
+            int next = from;
+            for (Dependency dependency : task.successorEdges()) {
+                if (isPlainFinishToStart(dependency)) {
+                    successors[next++] = dependency.successor().topologicalPosition();
+                }
+            }
+            Arrays.sort(successors, from, next);
+            for (int i = from; i < next; i++) {
+                removable[i] = true;
+            }
+            for (Dependency dependency : task.successorEdges()) {
+                if (!isPlainFinishToStart(dependency)) {
+                    int position = dependency.successor().topologicalPosition();
+                    int found = Arrays.binarySearch(successors, from, next, position);
+                    if (found >= 0) {
+                        for (int i = found; i >= from && successors[i] == position; i--) {
+                            removable[i] = false;
+                        }
+                        for (int i = found + 1; i < next && successors[i] == position; i++) {
+                            removable[i] = false;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @param order        the tasks in topological order
+     * @param memoryBudget the bytes the reachability sets may take
+     * @return the redundant predecessors of each task that has any, in
+     *         topological order
+     */
+    static Map<Task, List<Task>> redundantPredecessors(List<Task> order, long memoryBudget) {
+        TransitiveReduction reduction = new TransitiveReduction(order);
+        boolean[] redundant = reduction.redundantDependencies(memoryBudget);
+
+        Map<Integer, List<Task>> byTaskPosition = new TreeMap<>();
+        for (int task = 0; task < reduction.size; task++) {
+            for (int i = reduction.successorsStart[task]; i < reduction.successorsStart[task + 1]; i++) {
+                if (redundant[i]) {
+                    byTaskPosition.computeIfAbsent(reduction.successors[i], position -> new ArrayList<>())
+                            .add(order.get(task));
+                }
+            }
+        }
+
+        Map<Task, List<Task>> redundantPredecessors = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Task>> entry : byTaskPosition.entrySet()) {
+            redundantPredecessors.put(order.get(entry.getKey()), entry.getValue());
+        }
+        return redundantPredecessors;
+    }
+
+    /**
+     * @return whether each dependency of {@link #successors} is redundant and
+     *         removable
+     */
+    private boolean[] redundantDependencies(long memoryBudget) {
+        boolean[] redundant = new boolean[successors.length];
+        if (size == 0) {
+            return redundant;
+        }
+        int words = (int) Math.max(1, Math.min(memoryBudget / Long.BYTES / size,
+                (size + BITS_PER_WORD - 1) / BITS_PER_WORD));
+        int range = words * BITS_PER_WORD;
+
+        for (int rangeStart = 0; rangeStart < size; rangeStart += range) {
+            int rangeEnd = Math.min(size, rangeStart + range);
+            // only the tasks before the end of the range can reach into it
+            long[] reached = new long[rangeEnd * words];
+            for (int task = rangeEnd - 1; task >= 0; task--) {
+                int row = task * words;
+                for (int i = successorsStart[task]; i < successorsStart[task + 1]; i++) {
+                    int successor = successors[i];
+                    if (successor >= rangeEnd) {
+                        break;
+                    }
+                    if (i > successorsStart[task] && successor == successors[i - 1]) {
+                        // a second dependency on the same predecessor
+                        continue;
+                    }
+                    if (successor >= rangeStart) {
+                        int bit = successor - rangeStart;
+                        long mask = 1L << (bit % BITS_PER_WORD);
+                        if ((reached[row + bit / BITS_PER_WORD] & mask) != 0) {
+                            redundant[i] = removable[i];
+                        } else {
+                            reached[row + bit / BITS_PER_WORD] |= mask;
+                        }
+                    }
+                    int successorRow = successor * words;
+                    for (int word = 0; word < words; word++) {
+                        reached[row + word] |= reached[successorRow + word];
+                    }
+                }
+            }
+        }
+        return redundant;
+    }
+
+    private static boolean isPlainFinishToStart(Dependency dependency) {
+        return dependency.type() == DependencyType.FS && dependency.lag().value() == 0;
+    }
+}
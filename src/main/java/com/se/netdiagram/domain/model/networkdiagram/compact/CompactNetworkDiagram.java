@@ -0,0 +1,727 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.math.BigInteger;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.Dependency;
+import com.se.netdiagram.domain.model.networkdiagram.DependencyType;
+import com.se.netdiagram.domain.model.networkdiagram.NetworkDiagram;
+import com.se.netdiagram.domain.model.networkdiagram.Schedule;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledDependency;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledPath;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
+import com.se.netdiagram.domain.model.networkdiagram.Task;
+import com.se.netdiagram.domain.model.networkdiagram.TaskId;
+import com.se.netdiagram.domain.model.networkdiagram.date.Lag;
+
+/**
+ * A network diagram stored in primitive arrays. Tasks are identified by dense
+ * int indexes; the predecessors and successors of each task are kept in
+ * compressed sparse row (CSR) form, with the type and lag of each dependency in
+ * parallel arrays, and the ES, EF, LS, LF and Slack values in {@code long[]}.
+ * <p>
+ * The structure cannot be changed once built. It is meant for very large
+ * diagrams that only have to be scheduled and read, and is exposed through the
+ * same read-only {@link Schedule} view as {@link NetworkDiagram}. Task and
+ * dependency views are created on demand and are not stored.
+ */
+public class CompactNetworkDiagram implements Schedule {
+    static final DependencyType[] TYPES = DependencyType.values();
+
+    /*
+     * The structure and the schedule never change once built; they are shared,
+     * read-only, with the classes of this package that run their own passes over
+     * them, such as the scenarios forked from the diagram.
+     */
+    private final IdIndex ids;
+    final long[] durations;
+
+    final int[] predecessorOffsets;
+    final int[] predecessors;
+    final byte[] predecessorTypes;
+    final long[] predecessorLags;
+
+    final int[] successorOffsets;
+    final int[] successors;
+    final byte[] successorTypes;
+    final long[] successorLags;
+
+    final int[] order;
+    /**
+     * The position of each task in {@link #order}.
+     */
+    final int[] rank;
+
+    final long[] earliestStart;
+    final long[] earliestFinish;
+    final long[] latestStart;
+    final long[] latestFinish;
+    final long[] slack;
+    private long projectEnd;
+
+    private CompactNetworkDiagram(IdIndex ids, long[] durations, int dependencyCount, int[] dependencySuccessors,
+            int[] dependencyPredecessors, byte[] dependencyTypes, long[] dependencyLags) {
+        int size = ids.size();
+        this.ids = ids;
+        this.durations = durations;
+
+        predecessorOffsets = offsets(size, dependencyCount, dependencySuccessors);
+        predecessors = new int[dependencyCount];
+        predecessorTypes = new byte[dependencyCount];
+        predecessorLags = new long[dependencyCount];
+
+        successorOffsets = offsets(size, dependencyCount, dependencyPredecessors);
+        successors = new int[dependencyCount];
+        successorTypes = new byte[dependencyCount];
+        successorLags = new long[dependencyCount];
+
+        int[] nextPredecessor = Arrays.copyOf(predecessorOffsets, size);
+        int[] nextSuccessor = Arrays.copyOf(successorOffsets, size);
+        for (int e = 0; e < dependencyCount; e++) {
+            int p = nextPredecessor[dependencySuccessors[e]]++;
+            predecessors[p] = dependencyPredecessors[e];
+            predecessorTypes[p] = dependencyTypes[e];
+            predecessorLags[p] = dependencyLags[e];
+
+            int s = nextSuccessor[dependencyPredecessors[e]]++;
+            successors[s] = dependencySuccessors[e];
+            successorTypes[s] = dependencyTypes[e];
+            successorLags[s] = dependencyLags[e];
+        }
+
+        order = topologicalOrder();
+        rank = new int[size];
+        for (int i = 0; i < size; i++) {
+            rank[order[i]] = i;
+        }
+
+        earliestStart = new long[size];
+        earliestFinish = new long[size];
+        latestStart = new long[size];
+        latestFinish = new long[size];
+        slack = new long[size];
+        forwardAndBackward();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Copies the tasks and dependencies of a network diagram.
+     *
+     * @throws IllegalArgumentException if a task has a working calendar, which
+     *                                  the compact diagram does not support
+     */
+    public static CompactNetworkDiagram from(NetworkDiagram nd) {
+        Builder builder = builder();
+        List<Task> tasks = nd.tasks();
+        try {
+            for (Task task : tasks) {
+                if (task.calendar() != null) {
+                    throw new IllegalArgumentException(
+                            "Working calendars are not supported by the compact diagram: task " + task);
+                }
+                builder.addTask(task.idAsString(), task.durationAsInt());
+            }
+            for (Task task : tasks) {
+                for (Dependency dependency : task.predecessors()) {
+                    builder.addDependency(task.idAsString(), dependency.task().idAsString(), dependency.type(),
+                            dependency.lag().value());
+                }
+            }
+        } catch (DuplicateTaskKeyException | KeyNotFoundException e) {
+            throw new IllegalStateException("Inconsistent network diagram: " + e.getMessage());
+        }
+        return builder.build();
+    }
+
+    private static int[] offsets(int size, int dependencyCount, int[] owners) {
+        int[] offsets = new int[size + 1];
+        for (int e = 0; e < dependencyCount; e++) {
+            offsets[owners[e] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        return offsets;
+    }
+
+    /**
+     * Kahn's algorithm over the CSR arrays.
+     */
+    private int[] topologicalOrder() {
+        int size = durations.length;
+        int[] inDegree = new int[size];
+        int[] sorted = new int[size];
+        int tail = 0;
+        for (int task = 0; task < size; task++) {
+            inDegree[task] = predecessorOffsets[task + 1] - predecessorOffsets[task];
+            if (inDegree[task] == 0) {
+                sorted[tail++] = task;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int task = sorted[head];
+            for (int e = successorOffsets[task]; e < successorOffsets[task + 1]; e++) {
+                if (--inDegree[successors[e]] == 0) {
+                    sorted[tail++] = successors[e];
+                }
+            }
+        }
+        if (tail != size) {
+            throw new IllegalArgumentException("Adding a predecessor should not create a circular dependency!");
+        }
+        return sorted;
+    }
+
+    private void forwardAndBackward() {
+        projectEnd = schedule(durations, earliestStart, earliestFinish, latestStart, latestFinish, slack);
+    }
+
+    /**
+     * Makes the forward and backward processing for the given durations, writing
+     * the values into the given arrays instead of the ones of the diagram, so
+     * that a caller can schedule many variations of the durations reusing the
+     * same buffers.
+     *
+     * @return project end
+     */
+    long schedule(long[] durations, long[] earliestStart, long[] earliestFinish, long[] latestStart,
+            long[] latestFinish, long[] slack) {
+        long end = 0;
+        for (int task : order) {
+            long es = 0;
+            for (int e = predecessorOffsets[task]; e < predecessorOffsets[task + 1]; e++) {
+                int pred = predecessors[e];
+                es = Math.max(es, TYPES[predecessorTypes[e]].earliestStartOfSuccessor(earliestStart[pred],
+                        earliestFinish[pred], durations[task], predecessorLags[e]));
+            }
+            earliestStart[task] = es;
+            earliestFinish[task] = es + durations[task];
+            end = Math.max(end, earliestFinish[task]);
+        }
+
+        for (int i = order.length - 1; i >= 0; i--) {
+            int task = order[i];
+            long lf = end;
+            for (int e = successorOffsets[task]; e < successorOffsets[task + 1]; e++) {
+                int succ = successors[e];
+                lf = Math.min(lf, TYPES[successorTypes[e]].latestFinishOfPredecessor(latestStart[succ],
+                        latestFinish[succ], durations[task], successorLags[e]));
+            }
+            latestFinish[task] = lf;
+            latestStart[task] = lf - durations[task];
+            slack[task] = lf - earliestFinish[task];
+        }
+        return end;
+    }
+
+    /**
+     * Starts a what-if scenario that shares the structure and the schedule of
+     * this diagram.
+     */
+    public Scenario fork() {
+        return new Scenario(this);
+    }
+
+    /**
+     * Evaluates each scenario on its own fork of this diagram, concurrently on
+     * the given pool.
+     *
+     * @return the results, in the order of the scenarios
+     * @throws KeyNotFoundException if a scenario refers to a task or dependency
+     *                              that does not exist
+     */
+    public List<ScenarioResult> evaluate(List<ScenarioOverrides> scenarios, ForkJoinPool pool)
+            throws KeyNotFoundException {
+        List<Callable<ScenarioResult>> evaluations = new ArrayList<>();
+        for (ScenarioOverrides overrides : scenarios) {
+            evaluations.add(() -> {
+                Scenario scenario = overrides.applyTo(fork());
+                return new ScenarioResult(overrides.name(), scenario.projectEnd(), scenario.criticalTasks());
+            });
+        }
+
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Future<ScenarioResult> result : pool.invokeAll(evaluations)) {
+            try {
+                results.add(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Evaluation interrupted");
+            } catch (ExecutionException e) {
+                for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                    if (cause instanceof KeyNotFoundException) {
+                        throw (KeyNotFoundException) cause;
+                    }
+                }
+                throw new IllegalStateException("Evaluation failed: " + e.getCause(), e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the index of the task with the given id, or -1 if there is no such
+     *         task
+     */
+    int indexOf(String id) {
+        return ids.indexOf(id);
+    }
+
+    String idAt(int index) {
+        return ids.id(index);
+    }
+
+    long durationAt(int index) {
+        return durations[index];
+    }
+
+    public int size() {
+        return durations.length;
+    }
+
+    @Override
+    public long projectEnd() {
+        return projectEnd;
+    }
+
+    /**
+     * @return the task with the given id, or null if there is no such task
+     */
+    public ScheduledTask getTask(String id) {
+        int index = ids.indexOf(id);
+        return index < 0 ? null : new TaskView(index);
+    }
+
+    /**
+     * @return a view of the tasks in the order they were added
+     */
+    @Override
+    public List<ScheduledTask> tasks() {
+        return new AbstractList<ScheduledTask>() {
+            @Override
+            public ScheduledTask get(int index) {
+                return new TaskView(index);
+            }
+
+            @Override
+            public int size() {
+                return durations.length;
+            }
+        };
+    }
+
+    /**
+     * Returns all critical paths of {@link #criticalPathIterator()}.
+     */
+    @Override
+    public List<ScheduledPath> getCriticalPaths() {
+        List<ScheduledPath> paths = new ArrayList<>();
+        Iterator<ScheduledPath> iterator = criticalPathIterator();
+        while (iterator.hasNext()) {
+            paths.add(iterator.next());
+        }
+        return paths;
+    }
+
+    /**
+     * Returns the critical paths one at a time. A critical path follows critical
+     * dependencies, i.e. dependencies between two tasks with zero slack where the
+     * predecessor determines the ES of the successor, from a task without such a
+     * predecessor to a task without such a successor.
+     */
+    @Override
+    public Iterator<ScheduledPath> criticalPathIterator() {
+        return new CriticalPathIterator();
+    }
+
+    /**
+     * Counts the paths of {@link #criticalPathIterator()} without enumerating
+     * them, by summing in reverse topological order the number of critical paths
+     * that start at each task.
+     */
+    @Override
+    public BigInteger countCriticalPaths() {
+        BigInteger[] pathsFrom = new BigInteger[durations.length];
+        BigInteger total = BigInteger.ZERO;
+        for (int i = order.length - 1; i >= 0; i--) {
+            int task = order[i];
+            if (slack[task] != 0) {
+                continue;
+            }
+            BigInteger count = BigInteger.ZERO;
+            boolean isLast = true;
+            for (int e = successorOffsets[task]; e < successorOffsets[task + 1]; e++) {
+                if (isCritical(task, successors[e], successorTypes[e], successorLags[e])) {
+                    count = count.add(pathsFrom[successors[e]]);
+                    isLast = false;
+                }
+            }
+            pathsFrom[task] = isLast ? BigInteger.ONE : count;
+            if (!hasCriticalPredecessor(task)) {
+                total = total.add(pathsFrom[task]);
+            }
+        }
+        return total;
+    }
+
+    private boolean hasCriticalPredecessor(int task) {
+        for (int e = predecessorOffsets[task]; e < predecessorOffsets[task + 1]; e++) {
+            if (isCritical(predecessors[e], task, predecessorTypes[e], predecessorLags[e])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCritical(int pred, int succ, byte type, long lag) {
+        return slack[pred] == 0 && slack[succ] == 0
+                && TYPES[type].earliestStartOfSuccessor(earliestStart[pred], earliestFinish[pred],
+                        durations[succ], lag) == earliestStart[succ];
+    }
+
+    /**
+     * Depth-first enumeration of the critical paths, one at a time, keeping only
+     * the current path in int arrays.
+     */
+    private class CriticalPathIterator implements Iterator<ScheduledPath> {
+        private final int[] path = new int[durations.length];
+        private final int[] nextDependency = new int[durations.length];
+        private final boolean[] extended = new boolean[durations.length];
+        private int depth = -1;
+        private int nextRoot = 0;
+        private ScheduledPath next;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public ScheduledPath next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ScheduledPath result = next;
+            next = null;
+            return result;
+        }
+
+        private ScheduledPath advance() {
+            while (true) {
+                if (depth < 0) {
+                    while (nextRoot < order.length
+                            && (slack[order[nextRoot]] != 0 || hasCriticalPredecessor(order[nextRoot]))) {
+                        nextRoot++;
+                    }
+                    if (nextRoot == order.length) {
+                        return null;
+                    }
+                    push(order[nextRoot++]);
+                }
+
+                int task = path[depth];
+                int e = nextDependency[depth]++;
+                if (e < successorOffsets[task + 1]) {
+                    if (isCritical(task, successors[e], successorTypes[e], successorLags[e])) {
+                        extended[depth] = true;
+                        push(successors[e]);
+                    }
+                } else {
+                    boolean isLast = !extended[depth];
+                    depth--;
+                    if (isLast) {
+                        return new CompactPath(Arrays.copyOf(path, depth + 2));
+                    }
+                }
+            }
+        }
+
+        private void push(int task) {
+            depth++;
+            path[depth] = task;
+            nextDependency[depth] = successorOffsets[task];
+            extended[depth] = false;
+        }
+    }
+
+    private class TaskView implements ScheduledTask {
+        private final int index;
+
+        TaskView(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public TaskId id() {
+            return new TaskId(ids.id(index));
+        }
+
+        @Override
+        public long durationAsInt() {
+            return durations[index];
+        }
+
+        @Override
+        public long earliestStart() {
+            return earliestStart[index];
+        }
+
+        @Override
+        public long earliestFinish() {
+            return earliestFinish[index];
+        }
+
+        @Override
+        public long latestStart() {
+            return latestStart[index];
+        }
+
+        @Override
+        public long latestFinish() {
+            return latestFinish[index];
+        }
+
+        @Override
+        public long slack() {
+            return slack[index];
+        }
+
+        @Override
+        public List<ScheduledDependency> predecessors() {
+            int first = predecessorOffsets[index];
+            int count = predecessorOffsets[index + 1] - first;
+            return new AbstractList<ScheduledDependency>() {
+                @Override
+                public ScheduledDependency get(int i) {
+                    if (i < 0 || i >= count) {
+                        throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + count);
+                    }
+                    return new DependencyView(first + i);
+                }
+
+                @Override
+                public int size() {
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TaskView))
+                return false;
+
+            TaskView other = (TaskView) obj;
+            return other.index == index && other.diagram() == diagram();
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            return ids.id(index);
+        }
+
+        private CompactNetworkDiagram diagram() {
+            return CompactNetworkDiagram.this;
+        }
+    }
+
+    private class DependencyView implements ScheduledDependency {
+        private final int edge;
+
+        DependencyView(int edge) {
+            this.edge = edge;
+        }
+
+        @Override
+        public ScheduledTask task() {
+            return new TaskView(predecessors[edge]);
+        }
+
+        @Override
+        public DependencyType type() {
+            return TYPES[predecessorTypes[edge]];
+        }
+
+        @Override
+        public Lag lag() {
+            return new Lag(predecessorLags[edge]);
+        }
+
+        @Override
+        public String toString() {
+            long lag = predecessorLags[edge];
+            return ids.id(predecessors[edge]) + (type() != DependencyType.FS ? "-" + type().toString() : "")
+                    + (lag != 0 ? lag : "");
+        }
+    }
+
+    private class CompactPath implements ScheduledPath {
+        private final int[] path;
+
+        CompactPath(int[] path) {
+            this.path = path;
+        }
+
+        @Override
+        public List<ScheduledTask> tasks() {
+            return new AbstractList<ScheduledTask>() {
+                @Override
+                public ScheduledTask get(int i) {
+                    return new TaskView(path[i]);
+                }
+
+                @Override
+                public int size() {
+                    return path.length;
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return tasks().toString();
+        }
+    }
+
+    /**
+     * Collects tasks and dependencies in growable primitive arrays and builds
+     * the CSR structure once.
+     */
+    public static class Builder {
+        private final IdIndex ids = new IdIndex();
+        private long[] durations = new long[16];
+
+        private int dependencyCount = 0;
+        private int[] dependencySuccessors = new int[16];
+        private int[] dependencyPredecessors = new int[16];
+        private byte[] dependencyTypes = new byte[16];
+        private long[] dependencyLags = new long[16];
+
+        private Builder() {
+        }
+
+        public Builder addTask(String id, long duration) throws DuplicateTaskKeyException {
+            if (id == null || id.isEmpty())
+                throw new IllegalArgumentException("TaskId cannot be null or empty!");
+            if (duration < 0)
+                throw new IllegalArgumentException("Duration must be positive");
+
+            int index = ids.add(id);
+            if (index < 0) {
+                throw new DuplicateTaskKeyException("Task Id: " + id + " already exists!");
+            }
+            if (index == durations.length) {
+                durations = Arrays.copyOf(durations, index * 2);
+            }
+            durations[index] = duration;
+            return this;
+        }
+
+        public Builder addDependency(String taskId, String predId, DependencyType type, long lag)
+                throws KeyNotFoundException {
+            int task = ids.indexOf(taskId);
+            if (task < 0) {
+                throw new KeyNotFoundException("Not existing task KEY: " + taskId);
+            }
+            int pred = ids.indexOf(predId);
+            if (pred < 0) {
+                throw new KeyNotFoundException("Not existing predecessor KEY: " + predId + " in Task: " + taskId);
+            }
+            if (task == pred) {
+                throw new IllegalArgumentException("A task cannot be its own predecessor!");
+            }
+
+            if (dependencyCount == dependencySuccessors.length) {
+                int capacity = dependencyCount * 2;
+                dependencySuccessors = Arrays.copyOf(dependencySuccessors, capacity);
+                dependencyPredecessors = Arrays.copyOf(dependencyPredecessors, capacity);
+                dependencyTypes = Arrays.copyOf(dependencyTypes, capacity);
+                dependencyLags = Arrays.copyOf(dependencyLags, capacity);
+            }
+            dependencySuccessors[dependencyCount] = task;
+            dependencyPredecessors[dependencyCount] = pred;
+            dependencyTypes[dependencyCount] = (byte) type.ordinal();
+            dependencyLags[dependencyCount] = lag;
+            dependencyCount++;
+            return this;
+        }
+
+        /**
+         * Builds the diagram and calculates its schedule. Like
+         * {@link NetworkDiagram}, merges repeated dependencies on the same
+         * predecessor with the same type, keeping the greater lag.
+         *
+         * @throws IllegalArgumentException if the dependencies are circular
+         */
+        public CompactNetworkDiagram build() {
+            ids.trim();
+            mergeRepeatedDependencies();
+            return new CompactNetworkDiagram(ids, Arrays.copyOf(durations, ids.size()), dependencyCount,
+                    dependencySuccessors, dependencyPredecessors, dependencyTypes, dependencyLags);
+        }
+
+        /**
+         * Keeps the first of the dependencies of a task on a predecessor with the
+         * same type, with the greatest lag of them, and removes the others.
+         */
+        private void mergeRepeatedDependencies() {
+            int size = ids.size();
+            int types = DependencyType.values().length;
+            int[] byTask = new int[dependencyCount];
+            int[] next = offsets(size, dependencyCount, dependencySuccessors);
+            for (int e = 0; e < dependencyCount; e++) {
+                byTask[next[dependencySuccessors[e]]++] = e;
+            }
+
+            // the dependencies of each task are visited together, in the order they
+            // were added, so a key seen by the same task is a repeated dependency
+            int[] seenBy = new int[size * types];
+            int[] keptAt = new int[size * types];
+            boolean[] repeated = new boolean[dependencyCount];
+            for (int e : byTask) {
+                int key = dependencyPredecessors[e] * types + dependencyTypes[e];
+                if (seenBy[key] == dependencySuccessors[e] + 1) {
+                    dependencyLags[keptAt[key]] = Math.max(dependencyLags[keptAt[key]], dependencyLags[e]);
+                    repeated[e] = true;
+                } else {
+                    seenBy[key] = dependencySuccessors[e] + 1;
+                    keptAt[key] = e;
+                }
+            }
+
+            int kept = 0;
+            for (int e = 0; e < dependencyCount; e++) {
+                if (!repeated[e]) {
+                    dependencySuccessors[kept] = dependencySuccessors[e];
+                    dependencyPredecessors[kept] = dependencyPredecessors[e];
+                    dependencyTypes[kept] = dependencyTypes[e];
+                    dependencyLags[kept] = dependencyLags[e];
+                    kept++;
+                }
+            }
+            dependencyCount = kept;
+        }
+    }
+}
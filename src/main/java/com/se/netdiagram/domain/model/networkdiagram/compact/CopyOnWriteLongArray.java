@@ -0,0 +1,54 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.Arrays;
+
+/**
+ * A {@code long[]} that reads through to a shared base array until a value is
+ * written. Writes copy only the page of the base array that contains the value,
+ * so a fork that changes few values costs little more than its page table. The
+ * base array must not change while forks of it are in use.
+ */
+class CopyOnWriteLongArray {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final long[] base;
+    private final long[][] pages;
+    private int copiedPages = 0;
+
+    CopyOnWriteLongArray(long[] base) {
+        this.base = base;
+        this.pages = new long[(base.length + PAGE_SIZE - 1) >>> PAGE_BITS][];
+    }
+
+    long get(int i) {
+        long[] page = pages[i >>> PAGE_BITS];
+        return page == null ? base[i] : page[i & PAGE_MASK];
+    }
+
+    /**
+     * @return true if the value changed
+     */
+    boolean set(int i, long value) {
+        int pageIndex = i >>> PAGE_BITS;
+        long[] page = pages[pageIndex];
+        if (page == null) {
+            if (base[i] == value) {
+                return false;
+            }
+            int from = pageIndex << PAGE_BITS;
+            page = Arrays.copyOfRange(base, from, Math.min(base.length, from + PAGE_SIZE));
+            pages[pageIndex] = page;
+            copiedPages++;
+        } else if (page[i & PAGE_MASK] == value) {
+            return false;
+        }
+        page[i & PAGE_MASK] = value;
+        return true;
+    }
+
+    int copiedPages() {
+        return copiedPages;
+    }
+}
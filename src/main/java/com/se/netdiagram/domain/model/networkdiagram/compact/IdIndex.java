@@ -0,0 +1,53 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.Arrays;
+
+import com.se.netdiagram.domain.model.utilities.IdSlots;
+
+/**
+ * Assigns dense int indexes to task ids. The ids are kept in an array and
+ * looked up through {@link IdSlots}, so that no entry or boxed integer objects
+ * are allocated per task.
+ */
+final class IdIndex {
+    private String[] ids = new String[16];
+    private final IdSlots slots = new IdSlots(index -> ids[index]);
+
+    /**
+     * @return the index of the new id, or -1 if the id already exists
+     */
+    int add(String id) {
+        if (indexOf(id) >= 0) {
+            return -1;
+        }
+        int index = slots.size();
+        if (index == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(16, index * 2));
+        }
+        ids[index] = id;
+        slots.add(index);
+        return index;
+    }
+
+    /**
+     * @return the index of the id, or -1 if the id does not exist
+     */
+    int indexOf(String id) {
+        return slots.indexOf(id);
+    }
+
+    String id(int index) {
+        return ids[index];
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * Releases the spare capacity once no more ids will be added.
+     */
+    void trim() {
+        ids = Arrays.copyOf(ids, size());
+    }
+}
@@ -0,0 +1,147 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.ThreePointEstimate;
+
+/**
+ * Schedule risk analysis of a {@link CompactNetworkDiagram}: the forward and
+ * backward processing is repeated with durations drawn from the
+ * {@link ThreePointEstimate} of each task, and the distribution of the project
+ * end and how often each task is critical are collected.
+ * <p>
+ * The iterations are split in chunks of fixed size. Each chunk has its own
+ * random generator, split in order from the seed, and its own duration and
+ * schedule arrays, which are reused by all its iterations; nothing is allocated
+ * per iteration. The results therefore only depend on the seed, not on the
+ * number of threads.
+ */
+public class MonteCarloSimulation {
+    private static final int ITERATIONS_PER_CHUNK = 1000;
+
+    private final CompactNetworkDiagram diagram;
+    private final ThreePointEstimate[] estimates;
+
+    /**
+     * Starts with the durations of the diagram, without uncertainty.
+     */
+    public MonteCarloSimulation(CompactNetworkDiagram diagram) {
+        this.diagram = diagram;
+        this.estimates = new ThreePointEstimate[diagram.size()];
+    }
+
+    public MonteCarloSimulation withEstimate(String taskId, ThreePointEstimate estimate)
+            throws KeyNotFoundException {
+        int task = diagram.indexOf(taskId);
+        if (task < 0) {
+            throw new KeyNotFoundException("Not existing task KEY: " + taskId);
+        }
+        estimates[task] = estimate;
+        return this;
+    }
+
+    /**
+     * Runs the iterations in the calling thread.
+     */
+    public SimulationResult run(int iterations, long seed) {
+        long[] projectEnds = new long[iterations];
+        int[] criticalCounts = new int[diagram.size()];
+        for (Chunk chunk : chunks(iterations, seed, projectEnds)) {
+            add(criticalCounts, chunk.call());
+        }
+        return new SimulationResult(diagram, projectEnds, criticalCounts);
+    }
+
+    /**
+     * Runs the chunks of iterations concurrently on the given pool.
+     */
+    public SimulationResult run(int iterations, long seed, ForkJoinPool pool) {
+        long[] projectEnds = new long[iterations];
+        int[] criticalCounts = new int[diagram.size()];
+        for (Future<int[]> counts : pool.invokeAll(chunks(iterations, seed, projectEnds))) {
+            try {
+                add(criticalCounts, counts.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulation interrupted");
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Simulation failed: " + e.getCause(), e.getCause());
+            }
+        }
+        return new SimulationResult(diagram, projectEnds, criticalCounts);
+    }
+
+    private List<Chunk> chunks(int iterations, long seed, long[] projectEnds) {
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Chunk> chunks = new ArrayList<>();
+        for (int first = 0; first < iterations; first += ITERATIONS_PER_CHUNK) {
+            int count = Math.min(ITERATIONS_PER_CHUNK, iterations - first);
+            chunks.add(new Chunk(first, count, random.split(), projectEnds));
+        }
+        return chunks;
+    }
+
+    private static void add(int[] total, int[] counts) {
+        for (int i = 0; i < total.length; i++) {
+            total[i] += counts[i];
+        }
+    }
+
+    private class Chunk implements Callable<int[]> {
+        private final int first;
+        private final int count;
+        private final SplittableRandom random;
+        private final long[] projectEnds;
+
+        Chunk(int first, int count, SplittableRandom random, long[] projectEnds) {
+            this.first = first;
+            this.count = count;
+            this.random = random;
+            this.projectEnds = projectEnds;
+        }
+
+        /**
+         * @return how many times each task was critical
+         */
+        @Override
+        public int[] call() {
+            int size = diagram.size();
+            long[] durations = new long[size];
+            long[] earliestStart = new long[size];
+            long[] earliestFinish = new long[size];
+            long[] latestStart = new long[size];
+            long[] latestFinish = new long[size];
+            long[] slack = new long[size];
+            int[] criticalCounts = new int[size];
+
+            for (int task = 0; task < size; task++) {
+                durations[task] = diagram.durationAt(task);
+            }
+            for (int iteration = first; iteration < first + count; iteration++) {
+                for (int task = 0; task < size; task++) {
+                    if (estimates[task] != null) {
+                        durations[task] = estimates[task].sample(random);
+                    }
+                }
+                projectEnds[iteration] = diagram.schedule(durations, earliestStart, earliestFinish, latestStart,
+                        latestFinish, slack);
+                for (int task = 0; task < size; task++) {
+                    if (slack[task] == 0) {
+                        criticalCounts[task]++;
+                    }
+                }
+            }
+            return criticalCounts;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * Schedules the tasks of a {@link CompactNetworkDiagram} so that, at any time,
+ * the tasks in progress do not demand more of a resource than its capacity.
+ * <p>
+ * It is a serial schedule generation scheme: the tasks whose predecessors have
+ * all been scheduled are kept in a priority queue, ordered by a
+ * {@link PriorityRule} on the unconstrained schedule; the first task is started
+ * at the earliest time that satisfies its dependencies and for which the
+ * capacity profile of every resource it demands has room during its whole
+ * duration. The profile is indexed by time, so a start time is found by looking
+ * only at the time units the task would occupy, skipping past each conflict.
+ */
+public class ResourceConstrainedScheduler {
+
+    public enum PriorityRule {
+        MIN_SLACK, LATEST_START, EARLIEST_START
+    }
+
+    private final CompactNetworkDiagram diagram;
+    private final IdIndex resources = new IdIndex();
+    private int[] capacities = new int[16];
+
+    /**
+     * The resources and amounts demanded by each task, or null if none.
+     */
+    private final int[][] demandedResources;
+    private final int[][] demandedAmounts;
+
+    public ResourceConstrainedScheduler(CompactNetworkDiagram diagram) {
+        this.diagram = diagram;
+        this.demandedResources = new int[diagram.size()][];
+        this.demandedAmounts = new int[diagram.size()][];
+    }
+
+    /**
+     * @throws IllegalArgumentException if the capacity is negative or the
+     *                                  resource already has a capacity
+     */
+    public ResourceConstrainedScheduler withCapacity(String resource, int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative");
+
+        int index = resources.add(resource);
+        if (index < 0) {
+            throw new IllegalArgumentException("Resource Id: " + resource + " already exists!");
+        }
+        if (index == capacities.length) {
+            capacities = Arrays.copyOf(capacities, index * 2);
+        }
+        capacities[index] = capacity;
+        return this;
+    }
+
+    public ResourceConstrainedScheduler withDemand(String taskId, String resource, int amount)
+            throws KeyNotFoundException {
+        int task = diagram.indexOf(taskId);
+        if (task < 0) {
+            throw new KeyNotFoundException("Not existing task KEY: " + taskId);
+        }
+        int index = resources.indexOf(resource);
+        if (index < 0) {
+            throw new KeyNotFoundException("Not existing resource KEY: " + resource + " in Task: " + taskId);
+        }
+        if (amount < 0 || amount > capacities[index]) {
+            throw new IllegalArgumentException("Demand of task " + taskId + " for resource " + resource
+                    + " should be between 0 and its capacity " + capacities[index] + ": " + amount);
+        }
+
+        int[] taskResources = demandedResources[task];
+        int count = taskResources == null ? 0 : taskResources.length;
+        demandedResources[task] = taskResources == null ? new int[1] : Arrays.copyOf(taskResources, count + 1);
+        demandedAmounts[task] = taskResources == null ? new int[1]
+                : Arrays.copyOf(demandedAmounts[task], count + 1);
+        demandedResources[task][count] = index;
+        demandedAmounts[task][count] = amount;
+        return this;
+    }
+
+    public ResourceSchedule schedule(PriorityRule rule) {
+        int size = diagram.size();
+        long[] key = priorityKeys(rule);
+        PriorityQueue<Integer> eligible = new PriorityQueue<>((a, b) -> {
+            int byKey = Long.compare(key[a], key[b]);
+            if (byKey != 0) {
+                return byKey;
+            }
+            int byStart = Long.compare(diagram.earliestStart[a], diagram.earliestStart[b]);
+            return byStart != 0 ? byStart : Integer.compare(a, b);
+        });
+
+        int[] unscheduledPredecessors = new int[size];
+        for (int task = 0; task < size; task++) {
+            unscheduledPredecessors[task] = diagram.predecessorOffsets[task + 1] - diagram.predecessorOffsets[task];
+            if (unscheduledPredecessors[task] == 0) {
+                eligible.add(task);
+            }
+        }
+
+        CapacityProfile profile = new CapacityProfile();
+        long[] start = new long[size];
+        long[] finish = new long[size];
+        while (!eligible.isEmpty()) {
+            int task = eligible.poll();
+            long duration = diagram.durations[task];
+            long earliest = 0;
+            for (int e = diagram.predecessorOffsets[task]; e < diagram.predecessorOffsets[task + 1]; e++) {
+                int pred = diagram.predecessors[e];
+                earliest = Math.max(earliest, CompactNetworkDiagram.TYPES[diagram.predecessorTypes[e]]
+                        .earliestStartOfSuccessor(start[pred], finish[pred], duration, diagram.predecessorLags[e]));
+            }
+
+            start[task] = profile.reserveFrom(earliest, duration, demandedResources[task], demandedAmounts[task]);
+            finish[task] = start[task] + duration;
+
+            for (int e = diagram.successorOffsets[task]; e < diagram.successorOffsets[task + 1]; e++) {
+                if (--unscheduledPredecessors[diagram.successors[e]] == 0) {
+                    eligible.add(diagram.successors[e]);
+                }
+            }
+        }
+        return new ResourceSchedule(diagram, start, finish);
+    }
+
+    private long[] priorityKeys(PriorityRule rule) {
+        switch (rule) {
+        case MIN_SLACK:
+            return diagram.slack;
+        case LATEST_START:
+            return diagram.latestStart;
+        default:
+            return diagram.earliestStart;
+        }
+    }
+
+    /**
+     * The amount of each resource in use at each time unit.
+     */
+    private class CapacityProfile {
+        private final int[][] usage = new int[resources.size()][];
+        private int horizon = 64;
+
+        /**
+         * Reserves the demanded amounts for the duration, at the earliest time
+         * from the given one at which they are available.
+         *
+         * @return the start time
+         */
+        long reserveFrom(long earliest, long duration, int[] demanded, int[] amounts) {
+            if (demanded == null || duration == 0) {
+                return earliest;
+            }
+
+            long start = earliest;
+            boolean fits = false;
+            while (!fits) {
+                ensureHorizon(start + duration);
+                fits = true;
+                for (int d = 0; d < demanded.length && fits; d++) {
+                    int[] used = usage(demanded[d]);
+                    int capacity = capacities[demanded[d]];
+                    for (int t = (int) (start + duration - 1); t >= start; t--) {
+                        if (used[t] + amounts[d] > capacity) {
+                            start = t + 1;
+                            fits = false;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            for (int d = 0; d < demanded.length; d++) {
+                int[] used = usage(demanded[d]);
+                for (int t = (int) start; t < start + duration; t++) {
+                    used[t] += amounts[d];
+                }
+            }
+            return start;
+        }
+
+        private int[] usage(int resource) {
+            if (usage[resource] == null) {
+                usage[resource] = new int[horizon];
+            }
+            return usage[resource];
+        }
+
+        private void ensureHorizon(long end) {
+            if (end <= horizon) {
+                return;
+            }
+            if (end > Integer.MAX_VALUE / 2) {
+                throw new IllegalStateException("Schedule horizon too large: " + end);
+            }
+            while (horizon < end) {
+                horizon *= 2;
+            }
+            for (int r = 0; r < usage.length; r++) {
+                if (usage[r] != null) {
+                    usage[r] = Arrays.copyOf(usage[r], horizon);
+                }
+            }
+        }
+    }
+}
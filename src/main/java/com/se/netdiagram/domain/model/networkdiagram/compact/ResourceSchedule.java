@@ -0,0 +1,59 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * The start and finish of each task in a schedule made by a
+ * {@link ResourceConstrainedScheduler}.
+ */
+public class ResourceSchedule {
+    private final CompactNetworkDiagram diagram;
+    private final long[] start;
+    private final long[] finish;
+    private final long projectEnd;
+
+    ResourceSchedule(CompactNetworkDiagram diagram, long[] start, long[] finish) {
+        this.diagram = diagram;
+        this.start = start;
+        this.finish = finish;
+        long end = 0;
+        for (long taskFinish : finish) {
+            end = Math.max(end, taskFinish);
+        }
+        this.projectEnd = end;
+    }
+
+    public long projectEnd() {
+        return projectEnd;
+    }
+
+    public long start(String taskId) throws KeyNotFoundException {
+        return start[indexOf(taskId)];
+    }
+
+    public long finish(String taskId) throws KeyNotFoundException {
+        return finish[indexOf(taskId)];
+    }
+
+    /**
+     * @return how long the task starts after its ES in the unconstrained
+     *         schedule
+     */
+    public long delay(String taskId) throws KeyNotFoundException {
+        int task = indexOf(taskId);
+        return start[task] - diagram.earliestStart[task];
+    }
+
+    private int indexOf(String taskId) throws KeyNotFoundException {
+        int task = diagram.indexOf(taskId);
+        if (task < 0) {
+            throw new KeyNotFoundException("Not existing task KEY: " + taskId);
+        }
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return "Project end: " + projectEnd;
+    }
+}
@@ -0,0 +1,263 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * A what-if fork of a {@link CompactNetworkDiagram}. The fork shares the
+ * structure and the schedule of the diagram; changing a duration or a lag only
+ * recalculates the tasks whose values actually change, and only the pages of
+ * the schedule arrays that hold changed values are copied.
+ * <p>
+ * Any number of scenarios can be forked from the same diagram and used on
+ * different threads, but a single scenario is not thread-safe.
+ */
+public class Scenario {
+    private final CompactNetworkDiagram diagram;
+
+    private final CopyOnWriteLongArray durations;
+    private final CopyOnWriteLongArray earliestStart;
+    private final CopyOnWriteLongArray earliestFinish;
+    private final CopyOnWriteLongArray latestStart;
+    private final CopyOnWriteLongArray latestFinish;
+    private final CopyOnWriteLongArray slack;
+    private long projectEnd;
+
+    /**
+     * Changed lags, by index in the predecessor and in the successor arrays of
+     * the diagram.
+     */
+    private final Map<Integer, Long> predecessorLags = new HashMap<>();
+    private final Map<Integer, Long> successorLags = new HashMap<>();
+
+    Scenario(CompactNetworkDiagram diagram) {
+        this.diagram = diagram;
+        this.durations = new CopyOnWriteLongArray(diagram.durations);
+        this.earliestStart = new CopyOnWriteLongArray(diagram.earliestStart);
+        this.earliestFinish = new CopyOnWriteLongArray(diagram.earliestFinish);
+        this.latestStart = new CopyOnWriteLongArray(diagram.latestStart);
+        this.latestFinish = new CopyOnWriteLongArray(diagram.latestFinish);
+        this.slack = new CopyOnWriteLongArray(diagram.slack);
+        this.projectEnd = diagram.projectEnd();
+    }
+
+    public Scenario changeDuration(String taskId, long duration) throws KeyNotFoundException {
+        if (duration < 0)
+            throw new IllegalArgumentException("Duration must be positive");
+
+        int task = indexOf(taskId);
+        if (durations.set(task, duration)) {
+            reschedule(new int[] { task }, new int[] { task });
+        }
+        return this;
+    }
+
+    /**
+     * Changes the lag of all the dependencies of the task on the predecessor.
+     */
+    public Scenario changeLag(String taskId, String predId, long lag) throws KeyNotFoundException {
+        int task = indexOf(taskId);
+        int pred = diagram.indexOf(predId);
+        boolean found = false;
+        for (int e = diagram.predecessorOffsets[task]; e < diagram.predecessorOffsets[task + 1]; e++) {
+            if (diagram.predecessors[e] == pred) {
+                predecessorLags.put(e, lag);
+                found = true;
+            }
+        }
+        if (!found) {
+            throw new KeyNotFoundException("Not existing predecessor KEY: " + predId + " in Task: " + taskId);
+        }
+        for (int e = diagram.successorOffsets[pred]; e < diagram.successorOffsets[pred + 1]; e++) {
+            if (diagram.successors[e] == task) {
+                successorLags.put(e, lag);
+            }
+        }
+
+        reschedule(new int[] { task }, new int[] { pred });
+        return this;
+    }
+
+    public long projectEnd() {
+        return projectEnd;
+    }
+
+    public long earliestStart(String taskId) throws KeyNotFoundException {
+        return earliestStart.get(indexOf(taskId));
+    }
+
+    public long earliestFinish(String taskId) throws KeyNotFoundException {
+        return earliestFinish.get(indexOf(taskId));
+    }
+
+    public long latestStart(String taskId) throws KeyNotFoundException {
+        return latestStart.get(indexOf(taskId));
+    }
+
+    public long latestFinish(String taskId) throws KeyNotFoundException {
+        return latestFinish.get(indexOf(taskId));
+    }
+
+    public long slack(String taskId) throws KeyNotFoundException {
+        return slack.get(indexOf(taskId));
+    }
+
+    /**
+     * @return the ids of the tasks with zero slack, in topological order
+     */
+    public List<String> criticalTasks() {
+        List<String> critical = new ArrayList<>();
+        for (int task : diagram.order) {
+            if (slack.get(task) == 0) {
+                critical.add(diagram.idAt(task));
+            }
+        }
+        return critical;
+    }
+
+    /**
+     * @return how many pages of the schedule arrays this scenario has copied
+     */
+    int copiedPages() {
+        return durations.copiedPages() + earliestStart.copiedPages() + earliestFinish.copiedPages()
+                + latestStart.copiedPages() + latestFinish.copiedPages() + slack.copiedPages();
+    }
+
+    private int indexOf(String taskId) throws KeyNotFoundException {
+        int task = diagram.indexOf(taskId);
+        if (task < 0) {
+            throw new KeyNotFoundException("Not existing task KEY: " + taskId);
+        }
+        return task;
+    }
+
+    /**
+     * Propagates ES and EF forward and LS, LF and Slack backward, in topological
+     * order and only as far as the values change. When the project end moves,
+     * the latest values of all tasks move with it and are all recalculated.
+     *
+     * @param forwardSeeds  tasks whose ES and EF may have changed
+     * @param backwardSeeds tasks whose LS and LF may have changed
+     */
+    private void reschedule(int[] forwardSeeds, int[] backwardSeeds) {
+        int[] rank = diagram.rank;
+        PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) -> Integer.compare(rank[a], rank[b]));
+        BitSet queued = new BitSet();
+        for (int task : forwardSeeds) {
+            enqueue(task, queue, queued);
+        }
+
+        List<Integer> earliestChanged = new ArrayList<>();
+        long end = projectEnd;
+        boolean endMayDecrease = false;
+        while (!queue.isEmpty()) {
+            int task = queue.poll();
+            queued.clear(task);
+
+            long previousFinish = earliestFinish.get(task);
+            if (calculateEarliest(task)) {
+                earliestChanged.add(task);
+                end = Math.max(end, earliestFinish.get(task));
+                if (previousFinish == projectEnd && earliestFinish.get(task) < projectEnd) {
+                    endMayDecrease = true;
+                }
+                for (int e = diagram.successorOffsets[task]; e < diagram.successorOffsets[task + 1]; e++) {
+                    enqueue(diagram.successors[e], queue, queued);
+                }
+            }
+        }
+
+        if (endMayDecrease) {
+            end = 0;
+            for (int task = 0; task < diagram.size(); task++) {
+                end = Math.max(end, earliestFinish.get(task));
+            }
+        }
+
+        if (end != projectEnd) {
+            projectEnd = end;
+            for (int i = diagram.order.length - 1; i >= 0; i--) {
+                calculateLatestAndSlack(diagram.order[i]);
+            }
+            return;
+        }
+
+        queue = new PriorityQueue<>((a, b) -> Integer.compare(rank[b], rank[a]));
+        for (int task : backwardSeeds) {
+            enqueue(task, queue, queued);
+        }
+        for (int task : earliestChanged) {
+            enqueue(task, queue, queued);
+        }
+        while (!queue.isEmpty()) {
+            int task = queue.poll();
+            queued.clear(task);
+
+            if (calculateLatestAndSlack(task)) {
+                for (int e = diagram.predecessorOffsets[task]; e < diagram.predecessorOffsets[task + 1]; e++) {
+                    enqueue(diagram.predecessors[e], queue, queued);
+                }
+            }
+        }
+    }
+
+    private static void enqueue(int task, PriorityQueue<Integer> queue, BitSet queued) {
+        if (!queued.get(task)) {
+            queued.set(task);
+            queue.add(task);
+        }
+    }
+
+    /**
+     * @return true if ES or EF changed
+     */
+    private boolean calculateEarliest(int task) {
+        long duration = durations.get(task);
+        long es = 0;
+        for (int e = diagram.predecessorOffsets[task]; e < diagram.predecessorOffsets[task + 1]; e++) {
+            int pred = diagram.predecessors[e];
+            es = Math.max(es, CompactNetworkDiagram.TYPES[diagram.predecessorTypes[e]].earliestStartOfSuccessor(
+                    earliestStart.get(pred), earliestFinish.get(pred), duration, predecessorLag(e)));
+        }
+        boolean changed = earliestStart.set(task, es);
+        return earliestFinish.set(task, es + duration) || changed;
+    }
+
+    /**
+     * @return true if LS or LF changed
+     */
+    private boolean calculateLatestAndSlack(int task) {
+        long duration = durations.get(task);
+        long lf = projectEnd;
+        for (int e = diagram.successorOffsets[task]; e < diagram.successorOffsets[task + 1]; e++) {
+            int succ = diagram.successors[e];
+            lf = Math.min(lf, CompactNetworkDiagram.TYPES[diagram.successorTypes[e]].latestFinishOfPredecessor(
+                    latestStart.get(succ), latestFinish.get(succ), duration, successorLag(e)));
+        }
+        slack.set(task, lf - earliestFinish.get(task));
+        boolean changed = latestFinish.set(task, lf);
+        return latestStart.set(task, lf - duration) || changed;
+    }
+
+    private long predecessorLag(int e) {
+        if (predecessorLags.isEmpty()) {
+            return diagram.predecessorLags[e];
+        }
+        Long lag = predecessorLags.get(e);
+        return lag == null ? diagram.predecessorLags[e] : lag;
+    }
+
+    private long successorLag(int e) {
+        if (successorLags.isEmpty()) {
+            return diagram.successorLags[e];
+        }
+        Long lag = successorLags.get(e);
+        return lag == null ? diagram.successorLags[e] : lag;
+    }
+}
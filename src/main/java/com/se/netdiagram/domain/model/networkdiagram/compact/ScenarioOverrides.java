@@ -0,0 +1,63 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * The duration and lag changes of a named what-if scenario, to be evaluated
+ * with {@link CompactNetworkDiagram#evaluate}.
+ */
+public class ScenarioOverrides {
+    private final String name;
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private final List<LagOverride> lags = new ArrayList<>();
+
+    private ScenarioOverrides(String name) {
+        this.name = name;
+    }
+
+    // DSL
+    public static ScenarioOverrides scenario(String name) {
+        return new ScenarioOverrides(name);
+    }
+
+    public ScenarioOverrides withDuration(String taskId, long duration) {
+        durations.put(taskId, duration);
+        return this;
+    }
+
+    public ScenarioOverrides withLag(String taskId, String predId, long lag) {
+        lags.add(new LagOverride(taskId, predId, lag));
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    Scenario applyTo(Scenario scenario) throws KeyNotFoundException {
+        for (Map.Entry<String, Long> duration : durations.entrySet()) {
+            scenario.changeDuration(duration.getKey(), duration.getValue());
+        }
+        for (LagOverride lag : lags) {
+            scenario.changeLag(lag.taskId, lag.predId, lag.lag);
+        }
+        return scenario;
+    }
+
+    private static class LagOverride {
+        private final String taskId;
+        private final String predId;
+        private final long lag;
+
+        LagOverride(String taskId, String predId, long lag) {
+            this.taskId = taskId;
+            this.predId = predId;
+            this.lag = lag;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The project end and critical tasks of an evaluated what-if scenario.
+ */
+public class ScenarioResult {
+    private final String name;
+    private final long projectEnd;
+    private final List<String> criticalTasks;
+
+    ScenarioResult(String name, long projectEnd, List<String> criticalTasks) {
+        this.name = name;
+        this.projectEnd = projectEnd;
+        this.criticalTasks = Collections.unmodifiableList(criticalTasks);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long projectEnd() {
+        return projectEnd;
+    }
+
+    /**
+     * @return the ids of the tasks with zero slack, in topological order
+     */
+    public List<String> criticalTasks() {
+        return criticalTasks;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + projectEnd + " " + criticalTasks;
+    }
+}
@@ -0,0 +1,76 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import java.util.Arrays;
+
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * The outcome of a {@link MonteCarloSimulation}: the project ends of all
+ * iterations and, per task, the fraction of iterations in which it was
+ * critical.
+ */
+public class SimulationResult {
+    private final CompactNetworkDiagram diagram;
+    private final long[] sortedProjectEnds;
+    private final int[] criticalCounts;
+
+    SimulationResult(CompactNetworkDiagram diagram, long[] projectEnds, int[] criticalCounts) {
+        this.diagram = diagram;
+        this.sortedProjectEnds = projectEnds;
+        this.criticalCounts = criticalCounts;
+        Arrays.sort(sortedProjectEnds);
+    }
+
+    public int iterations() {
+        return sortedProjectEnds.length;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the smallest project end that at least the given percentage of
+     *         the iterations did not exceed
+     */
+    public long projectEndPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("Percentile should be between 0 and 100: " + percentile);
+
+        int rank = (int) Math.ceil(percentile / 100 * sortedProjectEnds.length);
+        return sortedProjectEnds[Math.max(0, rank - 1)];
+    }
+
+    public long p50() {
+        return projectEndPercentile(50);
+    }
+
+    public long p80() {
+        return projectEndPercentile(80);
+    }
+
+    public long p95() {
+        return projectEndPercentile(95);
+    }
+
+    public double meanProjectEnd() {
+        double sum = 0;
+        for (long end : sortedProjectEnds) {
+            sum += end;
+        }
+        return sum / sortedProjectEnds.length;
+    }
+
+    /**
+     * @return the fraction of the iterations in which the task had zero slack
+     */
+    public double criticalityIndex(String taskId) throws KeyNotFoundException {
+        int task = diagram.indexOf(taskId);
+        if (task < 0) {
+            throw new KeyNotFoundException("Not existing task KEY: " + taskId);
+        }
+        return (double) criticalCounts[task] / sortedProjectEnds.length;
+    }
+
+    @Override
+    public String toString() {
+        return "Iterations: " + iterations() + ", P50: " + p50() + ", P80: " + p80() + ", P95: " + p95();
+    }
+}
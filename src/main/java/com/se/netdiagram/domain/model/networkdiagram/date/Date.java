@@ -1,5 +1,6 @@
 package com.se.netdiagram.domain.model.networkdiagram.date;
 
+import java.time.LocalDate;
 import java.util.NoSuchElementException;
 
 public class Date {
@@ -30,8 +31,42 @@ public class Date {
         return new Date(i);
     }
 
+    /**
+     * @return the day of the calendar of the given calendar date, i.e. the number
+     *         of days after the start of the calendar
+     */
+    public static Date ofLocalDate(LocalDate localDate, WorkingCalendar calendar) {
+        return new Date(calendar.dayOf(localDate));
+    }
+
+    /**
+     * @return the calendar date of this day of the calendar
+     */
+    public LocalDate toLocalDate(WorkingCalendar calendar) {
+        return calendar.dateOf(getAsLong());
+    }
+
     public boolean isDateIsPresent() {
         return dateIsPresent;
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == null)
+            return false;
+
+        if (!(obj instanceof Date))
+            return false;
+
+        Date other = (Date) obj;
+        if (!dateIsPresent || !other.dateIsPresent)
+            return dateIsPresent == other.dateIsPresent;
+        return date == other.date;
+    }
+
+    @Override
+    public int hashCode() {
+        return dateIsPresent ? Long.hashCode(date) : -1;
+    }
+
 }
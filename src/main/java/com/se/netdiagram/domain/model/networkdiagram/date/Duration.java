@@ -1,5 +1,7 @@
 package com.se.netdiagram.domain.model.networkdiagram.date;
 
+import java.time.LocalDate;
+
 public class Duration {
 
     private long value;
@@ -18,6 +20,14 @@ public class Duration {
         return new Duration(asLong - asLong2);
     }
 
+    /**
+     * @return the working days from the first date, inclusive, to the second,
+     *         exclusive
+     */
+    public static Duration workingDaysBetween(LocalDate from, LocalDate to, WorkingCalendar calendar) {
+        return new Duration(calendar.workingDaysBetween(from, to));
+    }
+
     // public static Duration ofDays(int days) {
     //     return new Duration(days);
     // }
@@ -0,0 +1,235 @@
+package com.se.netdiagram.domain.model.networkdiagram.date;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Maps the days elapsed since the start date of a project, the timeline on
+ * which dates are placed when calendars are used, to working time, i.e. the
+ * number of working days, and back.
+ * <p>
+ * Day {@code t} of the timeline is the day {@code t} days after the start date;
+ * a value {@code t} is also the start of that day and the end of day
+ * {@code t - 1}. Within a horizon the number of working days before each day
+ * and the day of each working day are precomputed, so that all conversions are
+ * array lookups. After the horizon only the weekly pattern applies and the
+ * conversions are computed arithmetically. Before the start date every day is
+ * a working day, so that negative values map to themselves.
+ * <p>
+ * Instances are immutable and can be shared between tasks, diagrams and
+ * threads.
+ */
+public class WorkingCalendar {
+    private static final int DEFAULT_HORIZON_IN_DAYS = 20 * 366;
+
+    private final LocalDate start;
+    private final int horizon;
+    /**
+     * workingDaysBefore[t] is the number of working days in [0, t).
+     */
+    private final int[] workingDaysBefore;
+    /**
+     * dayOfWorkingDay[w] is the day of the w-th working day, for the working
+     * days within the horizon.
+     */
+    private final int[] dayOfWorkingDay;
+    /**
+     * The working days of the week that starts at the horizon, as offsets from
+     * the horizon.
+     */
+    private final int[] workingDaysOfWeekAfterHorizon;
+
+    private WorkingCalendar(LocalDate start, Set<DayOfWeek> weekend, Set<LocalDate> holidays, int horizon) {
+        if (weekend.size() == 7)
+            throw new IllegalArgumentException("A calendar should have at least one working day per week");
+
+        this.start = start;
+        this.horizon = horizon;
+        this.workingDaysBefore = new int[horizon + 1];
+        int[] days = new int[horizon];
+        int working = 0;
+        for (int day = 0; day < horizon; day++) {
+            workingDaysBefore[day] = working;
+            LocalDate date = start.plusDays(day);
+            if (!weekend.contains(date.getDayOfWeek()) && !holidays.contains(date)) {
+                days[working++] = day;
+            }
+        }
+        workingDaysBefore[horizon] = working;
+        this.dayOfWorkingDay = Arrays.copyOf(days, working);
+
+        int[] week = new int[7];
+        int count = 0;
+        for (int offset = 0; offset < 7; offset++) {
+            if (!weekend.contains(start.plusDays((long) horizon + offset).getDayOfWeek())) {
+                week[count++] = offset;
+            }
+        }
+        this.workingDaysOfWeekAfterHorizon = Arrays.copyOf(week, count);
+    }
+
+    public static Builder builder(LocalDate start) {
+        return new Builder(start);
+    }
+
+    public LocalDate start() {
+        return start;
+    }
+
+    /**
+     * @return the number of working days in [0, day)
+     */
+    public long workingTimeBefore(long day) {
+        if (day <= 0) {
+            return day;
+        }
+        if (day <= horizon) {
+            return workingDaysBefore[(int) day];
+        }
+        long after = day - horizon;
+        long perWeek = workingDaysOfWeekAfterHorizon.length;
+        long count = workingDaysBefore[horizon] + after / 7 * perWeek;
+        int rest = (int) (after % 7);
+        for (int i = 0; i < perWeek && workingDaysOfWeekAfterHorizon[i] < rest; i++) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the day of the given working day, i.e. the start of the working
+     *         time
+     */
+    public long startOfWorkingTime(long workingTime) {
+        if (workingTime < 0) {
+            return workingTime;
+        }
+        if (workingTime < dayOfWorkingDay.length) {
+            return dayOfWorkingDay[(int) workingTime];
+        }
+        long after = workingTime - dayOfWorkingDay.length;
+        long perWeek = workingDaysOfWeekAfterHorizon.length;
+        return horizon + after / perWeek * 7 + workingDaysOfWeekAfterHorizon[(int) (after % perWeek)];
+    }
+
+    /**
+     * @return the end of the day of the last working day before the given
+     *         working time
+     */
+    public long finishOfWorkingTime(long workingTime) {
+        if (workingTime <= 0) {
+            return workingTime;
+        }
+        return startOfWorkingTime(workingTime - 1) + 1;
+    }
+
+    /**
+     * @return the first working time that starts on or after the day
+     */
+    public long workingTimeStartingAtOrAfter(long day) {
+        return workingTimeBefore(day);
+    }
+
+    /**
+     * @return the last working time that starts on or before the day
+     */
+    public long workingTimeStartingAtOrBefore(long day) {
+        return workingTimeBefore(day + 1) - 1;
+    }
+
+    /**
+     * @return the first working time that finishes on or after the day
+     */
+    public long workingTimeFinishingAtOrAfter(long day) {
+        return workingTimeBefore(day - 1) + 1;
+    }
+
+    /**
+     * @return the last working time that finishes on or before the day
+     */
+    public long workingTimeFinishingAtOrBefore(long day) {
+        return workingTimeBefore(day);
+    }
+
+    public boolean isWorkingDay(long day) {
+        return workingTimeBefore(day + 1) != workingTimeBefore(day);
+    }
+
+    public LocalDate dateOf(long day) {
+        return start.plusDays(day);
+    }
+
+    /**
+     * @return the date of the last day before the end, e.g. the last day a task
+     *         finishing at the end works on
+     */
+    public LocalDate finishDateOf(long end) {
+        return start.plusDays(end - 1);
+    }
+
+    public long dayOf(LocalDate date) {
+        return ChronoUnit.DAYS.between(start, date);
+    }
+
+    /**
+     * @return the number of working days from the first date, inclusive, to the
+     *         second, exclusive
+     */
+    public long workingDaysBetween(LocalDate from, LocalDate to) {
+        return workingTimeBefore(dayOf(to)) - workingTimeBefore(dayOf(from));
+    }
+
+    @Override
+    public String toString() {
+        return "WorkingCalendar(" + start + ")";
+    }
+
+    public static class Builder {
+        private final LocalDate start;
+        private final Set<DayOfWeek> weekend = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+        private final Set<LocalDate> holidays = new HashSet<>();
+        private int horizon = DEFAULT_HORIZON_IN_DAYS;
+
+        private Builder(LocalDate start) {
+            if (start == null)
+                throw new IllegalArgumentException("Start date cannot be null!");
+            this.start = start;
+        }
+
+        /**
+         * Replaces the default weekend of Saturday and Sunday.
+         */
+        public Builder weekend(DayOfWeek... days) {
+            weekend.clear();
+            for (DayOfWeek day : days) {
+                weekend.add(day);
+            }
+            return this;
+        }
+
+        public Builder holiday(LocalDate date) {
+            holidays.add(date);
+            return this;
+        }
+
+        /**
+         * @param days the number of days after the start date for which holidays
+         *             are taken into account, 0 to only use the weekend
+         */
+        public Builder horizonInDays(int days) {
+            if (days < 0)
+                throw new IllegalArgumentException("Horizon must not be negative");
+            horizon = days;
+            return this;
+        }
+
+        public WorkingCalendar build() {
+            return new WorkingCalendar(start, weekend, holidays, horizon);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.se.netdiagram.domain.model.utilities;
+
+import java.util.function.IntFunction;
+
+/**
+ * An open-addressing hash table of int slots that finds the dense index of a
+ * string id. The ids themselves are kept by the owner, e.g. in an array indexed
+ * by the same ints, and read through a function, so that no entry or boxed
+ * integer objects are allocated per id.
+ * <p>
+ * Removal shifts back the entries that follow in the probe sequence, so that no
+ * deleted markers accumulate.
+ */
+public final class IdSlots {
+    private static final int EMPTY = 0;
+
+    private final IntFunction<String> idOf;
+    private int[] slots = new int[32];
+    private int size = 0;
+
+    /**
+     * @param idOf the id of each index in the table
+     */
+    public IdSlots(IntFunction<String> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * @return the index of the id, or -1 if the id is not in the table
+     */
+    public int indexOf(String id) {
+        int mask = slots.length - 1;
+        for (int slot = mix(id.hashCode()) & mask;; slot = (slot + 1) & mask) {
+            int entry = slots[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (idOf.apply(entry - 1).equals(id)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Adds an index whose id is not in the table.
+     */
+    public void add(int index) {
+        if (2 * (size + 1) > slots.length) {
+            rehash(slots.length * 2);
+        }
+        insert(index, slots);
+        size++;
+    }
+
+    /**
+     * Removes an index that is in the table, while its id can still be read.
+     */
+    public void remove(int index) {
+        int mask = slots.length - 1;
+        int slot = mix(idOf.apply(index).hashCode()) & mask;
+        while (slots[slot] != index + 1) {
+            slot = (slot + 1) & mask;
+        }
+
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            int entry = slots[next];
+            if (entry == EMPTY) {
+                break;
+            }
+            int home = mix(idOf.apply(entry - 1).hashCode()) & mask;
+            boolean canMoveBack = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+            if (canMoveBack) {
+                slots[slot] = entry;
+                slot = next;
+            }
+        }
+        slots[slot] = EMPTY;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void insert(int index, int[] table) {
+        int mask = table.length - 1;
+        int slot = mix(idOf.apply(index).hashCode()) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        for (int entry : slots) {
+            if (entry != EMPTY) {
+                insert(entry - 1, rehashed);
+            }
+        }
+        slots = rehashed;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
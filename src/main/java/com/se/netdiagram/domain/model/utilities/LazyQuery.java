@@ -0,0 +1,78 @@
+package com.se.netdiagram.domain.model.utilities;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A lazy counterpart of {@link Query}: filters and maps are only recorded, and
+ * run fused in a single pass over the source when a terminal operation, e.g.
+ * {@link #toList()} or {@link #any(Predicate)}, is called. No intermediate
+ * collection is built, and {@link #any(Predicate)} and {@link #first()} stop at
+ * the first match.
+ * <p>
+ * A query can be run again; it reads the source as it is at that time.
+ * {@link #parallel()} makes the terminal operations split the source between
+ * the threads of the common pool, which pays off only for large sources and
+ * expensive predicates or functions.
+ */
+public class LazyQuery<T> {
+    private final Supplier<Stream<T>> pipeline;
+    private final boolean parallel;
+
+    private LazyQuery(Supplier<Stream<T>> pipeline, boolean parallel) {
+        this.pipeline = pipeline;
+        this.parallel = parallel;
+    }
+
+    public static <T> LazyQuery<T> from(Collection<T> source) {
+        return new LazyQuery<>(source::stream, false);
+    }
+
+    public LazyQuery<T> filter(Predicate<? super T> predicate) {
+        return new LazyQuery<>(() -> pipeline.get().filter(predicate), parallel);
+    }
+
+    public <M> LazyQuery<M> map(Function<? super T, ? extends M> function) {
+        return new LazyQuery<>(() -> pipeline.get().map(function), parallel);
+    }
+
+    public LazyQuery<T> parallel() {
+        return new LazyQuery<>(pipeline, true);
+    }
+
+    public boolean any(Predicate<? super T> predicate) {
+        return stream().anyMatch(predicate);
+    }
+
+    public Optional<T> first() {
+        return parallel ? stream().findAny() : stream().findFirst();
+    }
+
+    public long count() {
+        return stream().count();
+    }
+
+    /**
+     * @return the elements, in the order of the source also when run in
+     *         parallel
+     */
+    public List<T> toList() {
+        return stream().collect(Collectors.toList());
+    }
+
+    public void forEach(Consumer<? super T> action) {
+        stream().forEach(action);
+    }
+
+    public Stream<T> stream() {
+        Stream<T> stream = pipeline.get();
+        return parallel ? stream.parallel() : stream;
+    }
+}
@@ -1,8 +1,8 @@
 package com.se.netdiagram.port.adapter;
 
 import com.se.netdiagram.application.NetworkDiagramPrinter;
-import com.se.netdiagram.domain.model.networkdiagram.Path;
-import com.se.netdiagram.domain.model.networkdiagram.Task;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledPath;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
 
 public class ConsoleNetworkDiagramPrinter implements NetworkDiagramPrinter {
 
@@ -36,7 +36,7 @@ public class ConsoleNetworkDiagramPrinter implements NetworkDiagramPrinter {
     }
 
     @Override
-    public void printTask(Task task, long projectEnd) {
+    public void printTask(ScheduledTask task, long projectEnd) {
         String ANSI_RED = "\u001B[31m";
         String ANSI_RESET = "\u001B[0m";
         String criticalTask = " ";
@@ -83,8 +83,8 @@ public class ConsoleNetworkDiagramPrinter implements NetworkDiagramPrinter {
     }
 
     @Override
-    public void printCriticalPath(Path path) {
-        for (Task task : path.tasks()) {
+    public void printCriticalPath(ScheduledPath path) {
+        for (ScheduledTask task : path.tasks()) {
             System.out.printf("%5s ->", task.id());
         }
         System.out.println(" end");
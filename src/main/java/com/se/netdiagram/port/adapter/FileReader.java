@@ -2,10 +2,12 @@ package com.se.netdiagram.port.adapter;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.se.netdiagram.application.ParsingError;
@@ -14,18 +16,32 @@ import com.se.netdiagram.application.TaskDataList;
 
 public class FileReader {
 
+    /**
+     * Reads either a list of tasks or an object with the list of tasks in
+     * "tasks" and the capacities of the resources in "capacities".
+     */
     public TaskDataList readJsonFile(String fileName) throws ParsingError {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new Jdk8Module());
-        List<TaskData> taskJSONList = new ArrayList<>();
+        List<TaskData> taskJSONList;
+        Map<String, Integer> capacities = new LinkedHashMap<>();
 
         try {
-            taskJSONList = mapper.readValue(new File(fileName), new TypeReference<List<TaskData>>() {
+            JsonNode root = mapper.readTree(new File(fileName));
+            JsonNode tasks = root != null && root.isObject() ? root.get("tasks") : root;
+            taskJSONList = mapper.convertValue(tasks, new TypeReference<List<TaskData>>() {
             });
-        } catch (IOException e) {
+            if (root != null && root.has("capacities")) {
+                capacities = mapper.convertValue(root.get("capacities"), new TypeReference<Map<String, Integer>>() {
+                });
+            }
+        } catch (IOException | IllegalArgumentException e) {
             throw new ParsingError("Parsing error error while parsing JSON file" + e.getMessage());
         }
+        if (taskJSONList == null) {
+            throw new ParsingError("Parsing error error while parsing JSON file: no tasks in " + fileName);
+        }
 
-        return new TaskDataList(taskJSONList);
+        return new TaskDataList(taskJSONList, capacities);
     }
 }
@@ -8,7 +8,9 @@ import static org.hamcrest.Matchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.junit.Test;
@@ -17,8 +19,13 @@ import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
 import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
 import com.se.netdiagram.domain.model.networkdiagram.NetworkDiagram;
 import com.se.netdiagram.domain.model.networkdiagram.Path;
+import com.se.netdiagram.domain.model.networkdiagram.TaskId;
+import com.se.netdiagram.domain.model.networkdiagram.compact.ResourceSchedule;
+import com.se.netdiagram.domain.model.networkdiagram.compact.SimulationResult;
+import com.se.netdiagram.domain.model.networkdiagram.compact.ResourceConstrainedScheduler.PriorityRule;
 import com.se.netdiagram.domain.model.utilities.Query;
 import com.se.netdiagram.port.adapter.ConsoleNetworkDiagramPrinter;
+import com.se.netdiagram.port.adapter.JSONFileTaskDataReader;
 
 import static com.se.netdiagram.application.TaskData.task;
 import static com.se.netdiagram.application.TaskDataList.taskList;
@@ -524,12 +531,11 @@ public class DiagramNetworkReaderServiceTest {
 
         List<Path> paths = nd.getCriticalPaths();
 
-        assertEquals(1, paths.size());
-        assertEquals(3, paths.get(0).size());
-
-        assertEquals("A", paths.get(0).taskAt(0).idAsString());
-        assertEquals("B", paths.get(0).taskAt(1).idAsString());
-        assertEquals("C", paths.get(0).taskAt(2).idAsString());
+        // the tasks take no time, so the dependency of C on A is critical as well
+        assertThat(Query.map(paths, p -> Query.map(p.tasks(), tsk -> tsk.idAsString())),
+                containsInAnyOrder(
+                        Arrays.asList("A", "B", "C"),
+                        Arrays.asList("A", "C")));
     }
 
     @Test
@@ -556,16 +562,21 @@ public class DiagramNetworkReaderServiceTest {
 
         List<Path> paths = nd.getCriticalPaths();
 
-        assertEquals(8, paths.size());
-        for (int i = 0; i < 8; i++) {
-            assertEquals(3, paths.get(i).size());
+        // 8 paths through C or D, and 4 through the direct dependencies on A and B
+        assertEquals(12, paths.size());
+        for (Path path : paths) {
             assertTrue(Arrays.asList(new String[] { "A", "B" })
-                    .contains(paths.get(i).taskAt(0).idAsString()));
-            assertTrue(Arrays.asList(new String[] { "C", "D" })
-                    .contains(paths.get(i).taskAt(1).idAsString()));
+                    .contains(path.taskAt(0).idAsString()));
+            if (path.size() == 3) {
+                assertTrue(Arrays.asList(new String[] { "C", "D" })
+                        .contains(path.taskAt(1).idAsString()));
+            } else {
+                assertEquals(2, path.size());
+            }
             assertTrue(Arrays.asList(new String[] { "E", "F" })
-                    .contains(paths.get(i).taskAt(2).idAsString()));
+                    .contains(path.lastTask().idAsString()));
         }
+        assertEquals(8, Query.filter(paths, path -> path.size() == 3).size());
 
     }
 
@@ -598,4 +609,68 @@ public class DiagramNetworkReaderServiceTest {
                         Arrays.asList("A", "E")));
 
     }
+
+    @Test
+    public void readMonteCarloSimulation_Should_UseEstimates_When_TasksHaveThem()
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        TaskDataList taskList = taskList()
+                .add(task("A", 3).withEstimate(3, 3))
+                .add(task("B", 4).withPred("A").withEstimate(2, 10, "PERT"))
+                .add(task("C", 1).withPred("A"));
+
+        SimulationResult result = DiagramNetworkReaderService.readMonteCarloSimulationWith(() -> taskList)
+                .run(2000, 1);
+
+        assertEquals(1.0, result.criticalityIndex("A"), 0);
+        assertEquals(1.0, result.criticalityIndex("B"), 0);
+        assertEquals(0.0, result.criticalityIndex("C"), 0);
+        assertThat(result.p50(), is(both(greaterThanOrEqualTo(5L)).and(lessThanOrEqualTo(13L))));
+        assertThat(result.p95(), is(greaterThanOrEqualTo(result.p50())));
+    }
+
+    @Test(expected = ParsingError.class)
+    public void readMonteCarloSimulation_Should_ThrowParsingError_When_EstimateIsInconsistent()
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        TaskDataList taskList = taskList()
+                .add(task("A", 3).withEstimate(4, 5));
+
+        DiagramNetworkReaderService.readMonteCarloSimulationWith(() -> taskList);
+    }
+
+    @Test
+    public void readResourceConstrainedScheduler_Should_ReadCapacitiesAndDemands_FromJSON()
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        ResourceSchedule schedule = DiagramNetworkReaderService
+                .readResourceConstrainedSchedulerWith(new JSONFileTaskDataReader("examples/tasks_resources.json"))
+                .schedule(PriorityRule.MIN_SLACK);
+
+        assertEquals(5, schedule.start("C"));
+        assertEquals(8, schedule.projectEnd());
+    }
+
+    @Test
+    public void readNetworkDiagram_Should_AcceptTheTaskListAsAnObject()
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        NetworkDiagram nd = DiagramNetworkReaderService
+                .readNetworkDiagramWith(new JSONFileTaskDataReader("examples/tasks_resources.json"));
+
+        assertEquals(6, nd.projectEnd());
+    }
+
+    @Test
+    public void readReducedNetworkDiagram_Should_RemoveImpliedDependencies_BeforeScheduling()
+            throws DuplicateTaskKeyException, KeyNotFoundException, ParsingError {
+        TaskDataList taskList = taskList()
+                .add(task("A", 3))
+                .add(task("B", 4).withPred("A"))
+                .add(task("C", 1).withPred("A").withPred("B"));
+
+        NetworkDiagram nd = new NetworkDiagram();
+        Map<TaskId, List<TaskId>> removed = DiagramNetworkReaderService.readReducedNetworkDiagramInto(nd,
+                () -> taskList);
+
+        assertEquals(Collections.singletonMap(new TaskId("C"), Arrays.asList(new TaskId("A"))), removed);
+        assertEquals(1, nd.getTask("C").predecessors().size());
+        assertEquals(8, nd.projectEnd());
+    }
 }
@@ -0,0 +1,216 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.addRandomNetwork;
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.assertSameSchedule;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.compact.CompactNetworkDiagram;
+import com.se.netdiagram.domain.model.networkdiagram.date.WorkingCalendar;
+
+public class CalendarSchedulingTest {
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    public void schedule_Should_SkipTheWeekend() throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.setCalendar(WorkingCalendar.builder(MONDAY).build());
+        nd.addTask("A", 3);
+        nd.addTask("B", 4);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+
+        Task b = nd.getTask("B");
+        assertEquals(3, b.earliestStart());
+        assertEquals(9, b.earliestFinish());
+        assertEquals(LocalDate.of(2024, 1, 9), nd.calendar().finishDateOf(nd.projectEnd()));
+        assertEquals(0, nd.getTask("A").latestStart());
+        assertEquals(0, b.slack());
+    }
+
+    @Test
+    public void schedule_Should_UseTheCalendarOfTheTask() throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 3);
+        nd.addTask("B", 4);
+        nd.addTask("C", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "B", "FS", 0);
+        nd.setCalendar(WorkingCalendar.builder(MONDAY).build());
+        nd.setCalendarOfTask("C",
+                WorkingCalendar.builder(MONDAY).weekend(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY, DayOfWeek.WEDNESDAY)
+                        .build());
+
+        assertEquals(10, nd.getTask("C").earliestStart());
+        assertEquals(11, nd.projectEnd());
+        assertEquals(1, nd.getTask("B").slack());
+
+        nd.setCalendarOfTask("C", null);
+
+        assertEquals(9, nd.getTask("C").earliestStart());
+        assertEquals(0, nd.getTask("B").slack());
+    }
+
+    @Test
+    public void summaryTask_Should_SpanTheDaysOfItsSubNetwork_When_ThereIsACalendar()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram subNetwork = new NetworkDiagram();
+        subNetwork.addTask("X", 7);
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 3);
+        nd.addSummaryTask("S", subNetwork);
+        nd.addTask("B", 1);
+        nd.addPredecessorToTask("S", "A", "FS", 0);
+        nd.addPredecessorToTask("B", "S", "FS", 0);
+        nd.setCalendar(WorkingCalendar.builder(MONDAY).build());
+
+        Task s = nd.getTask("S");
+        assertNull(s.calendar());
+        assertEquals(3, s.earliestStart());
+        assertEquals(10, s.earliestFinish());
+        assertEquals(10, nd.getTask("B").earliestStart());
+        assertEquals(11, nd.projectEnd());
+
+        subNetwork.changeDurationOfTask("X", 10);
+
+        assertEquals(13, s.earliestFinish());
+        // day 13 is a Sunday
+        assertEquals(14, nd.getTask("B").earliestStart());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCalendarOfTask_Should_ThrowException_When_TheTaskIsASummaryTask()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addSummaryTask("S", new NetworkDiagram());
+
+        nd.setCalendarOfTask("S", WorkingCalendar.builder(MONDAY).build());
+    }
+
+    @Test
+    public void schedule_Should_BeUnchanged_When_TheCalendarHasOnlyWorkingDays()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(41);
+        for (int n = 0; n < 30; n++) {
+            NetworkDiagram plain = new NetworkDiagram();
+            NetworkDiagram withCalendar = new NetworkDiagram();
+            withCalendar.setCalendar(WorkingCalendar.builder(MONDAY).weekend().horizonInDays(100).build());
+            long seed = random.nextLong();
+            addRandomNetwork(new Random(seed), plain);
+            addRandomNetwork(new Random(seed), withCalendar);
+
+            assertSameSchedule(plain, withCalendar);
+        }
+    }
+
+    @Test
+    public void schedule_Should_RespectDependenciesAndWorkingDays_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY).holiday(LocalDate.of(2024, 1, 10))
+                .holiday(LocalDate.of(2024, 1, 24)).build();
+        for (int n = 0; n < 30; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            nd.setCalendar(calendar);
+            addRandomNetwork(new Random(n), nd);
+
+            for (Task task : nd.tasks()) {
+                long duration = task.durationAsInt();
+                if (duration > 0) {
+                    assertTrue(task.toString(), calendar.isWorkingDay(task.earliestStart()));
+                    assertTrue(task.toString(), calendar.isWorkingDay(task.latestStart()));
+                    assertEquals(task.toString(), calendar.finishOfWorkingTime(
+                            calendar.workingTimeBefore(task.earliestStart()) + duration), task.earliestFinish());
+                } else {
+                    assertEquals(task.toString(), task.earliestStart(), task.earliestFinish());
+                }
+                assertThat(task.toString(), task.slack(), greaterThanOrEqualTo(0L));
+                assertThat(task.toString(), nd.projectEnd(), greaterThanOrEqualTo(task.latestFinish()));
+                for (Dependency dependency : task.predecessors()) {
+                    Task pred = dependency.task();
+                    long lag = dependency.lag().value();
+                    switch (dependency.type()) {
+                        case FS:
+                            assertThat(task.earliestStart(), greaterThanOrEqualTo(pred.earliestFinish() + lag));
+                            break;
+                        case SS:
+                            assertThat(task.earliestStart(), greaterThanOrEqualTo(pred.earliestStart() + lag));
+                            break;
+                        case FF:
+                            assertThat(task.earliestFinish(), greaterThanOrEqualTo(pred.earliestFinish() + lag));
+                            break;
+                        default:
+                            assertThat(task.earliestFinish(), greaterThanOrEqualTo(pred.earliestStart() + lag));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sensitivity_Should_BeTheSameAsRescheduling_When_ThereIsACalendar()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        for (int n = 0; n < 20; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            nd.setCalendar(WorkingCalendar.builder(MONDAY).holiday(LocalDate.of(2024, 1, 17)).build());
+            addRandomNetwork(new Random(n), nd);
+            long delay = 1 + n % 4;
+
+            Map<TaskId, Long> impacts = nd.sensitivity(delay);
+
+            long end = nd.projectEnd();
+            for (Task task : nd.tasks()) {
+                int duration = (int) task.durationAsInt();
+                nd.changeDurationOfTask(task.idAsString(), duration + (int) delay);
+                long expected = nd.projectEnd() - end;
+                nd.changeDurationOfTask(task.idAsString(), duration);
+
+                assertEquals(task.toString(), Long.valueOf(expected), impacts.get(task.id()));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setCalendarOfTask_Should_ThrowException_When_CalendarsStartOnDifferentDates()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.setCalendar(WorkingCalendar.builder(MONDAY).build());
+        nd.addTask("A", 3);
+
+        nd.setCalendarOfTask("A", WorkingCalendar.builder(MONDAY.plusDays(1)).build());
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void setCalendarOfTask_Should_ThrowException_When_TaskDoesNotExist() throws KeyNotFoundException {
+        new NetworkDiagram().setCalendarOfTask("A", WorkingCalendar.builder(MONDAY).build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshot_Should_ThrowException_When_ThereIsACalendar() throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.setCalendar(WorkingCalendar.builder(MONDAY).build());
+        nd.addTask("A", 3);
+
+        CompactNetworkDiagram.from(nd);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void snapshotOfTheDiagram_Should_ThrowException_When_ThereIsACalendar()
+            throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 3);
+        nd.setCalendar(WorkingCalendar.builder(MONDAY).build());
+
+        nd.snapshot();
+    }
+}
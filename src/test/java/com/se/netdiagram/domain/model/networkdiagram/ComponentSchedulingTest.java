@@ -0,0 +1,198 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.TYPES;
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.assertSameSchedule;
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.rebuilt;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class ComponentSchedulingTest {
+
+    @Test
+    public void componentScheduling_Should_GiveTheSameValuesAsSequentialScheduling()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int seed = 0; seed < 5; seed++) {
+                NetworkDiagram sequential = new NetworkDiagram();
+                NetworkDiagram byComponent = new NetworkDiagram();
+                byComponent.useComponentScheduling(pool);
+                buildStreams(new Random(seed), sequential, 40, 30);
+                buildStreams(new Random(seed), byComponent, 40, 30);
+
+                assertSameSchedule(sequential, byComponent);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void componentScheduling_Should_ReuseTheComponentsThatDidNotChange()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            NetworkDiagram sequential = new NetworkDiagram();
+            NetworkDiagram byComponent = new NetworkDiagram();
+            byComponent.useComponentScheduling(pool);
+            buildStreams(new Random(4), sequential, 30, 50);
+            buildStreams(new Random(4), byComponent, 30, 50);
+
+            for (NetworkDiagram nd : new NetworkDiagram[] { sequential, byComponent }) {
+                nd.beginBatch();
+                nd.changeDurationOfTask("S7-T3", 40);
+                nd.addTask("S7-extra", 2);
+                nd.addPredecessorToTask("S7-extra", "S7-T10", "FS", 1);
+                nd.commitBatch();
+            }
+
+            assertEquals(29, byComponent.reusedComponents());
+            assertSameSchedule(sequential, byComponent);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void componentScheduling_Should_NotCalculateTheTasksOfUnchangedComponents()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.useComponentScheduling(ForkJoinPool.commonPool());
+        nd.beginBatch();
+        for (int s = 0; s < 50; s++) {
+            nd.addTask("A" + s, 2);
+            nd.addTask("B" + s, 3);
+            nd.addPredecessorToTask("B" + s, "A" + s, "FS", 0);
+        }
+        nd.addTask("Long", 9);
+        nd.commitBatch();
+        EarliestLatest unchanged = nd.getTask("B3").earliestLatest();
+
+        nd.beginBatch();
+        nd.changeDurationOfTask("A7", 4);
+        nd.commitBatch();
+
+        assertEquals(50, nd.reusedComponents());
+        assertSame(unchanged, nd.getTask("B3").earliestLatest());
+        assertEquals(7, nd.getTask("B7").earliestFinish());
+        assertEquals(2, nd.getTask("B7").slack());
+
+        nd.beginBatch();
+        nd.changeDurationOfTask("Long", 5);
+        nd.commitBatch();
+
+        assertEquals(50, nd.reusedComponents());
+        assertEquals(7, nd.projectEnd());
+        assertEquals(2, nd.getTask("A3").latestStart());
+        assertEquals(0, nd.getTask("B7").slack());
+    }
+
+    @Test
+    public void componentScheduling_Should_FollowComponentsThatAreJoinedOrSplit()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Random random = new Random(21);
+            NetworkDiagram sequential = new NetworkDiagram();
+            NetworkDiagram byComponent = new NetworkDiagram();
+            byComponent.useComponentScheduling(pool);
+            buildStreams(new Random(8), sequential, 15, 10);
+            buildStreams(new Random(8), byComponent, 15, 10);
+
+            for (int batch = 0; batch < 60; batch++) {
+                long seed = random.nextLong();
+                for (NetworkDiagram nd : new NetworkDiagram[] { sequential, byComponent }) {
+                    nd.beginBatch();
+                    changeRandomly(new Random(seed), nd, batch, batch % 5 != 0);
+                    nd.commitBatch();
+                }
+                assertSameSchedule(sequential, byComponent);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Joins streams with new dependencies, splits them by removing dependencies
+     * and tasks, adds tasks and changes durations, the same for the same seed.
+     */
+    private static void changeRandomly(Random random, NetworkDiagram nd, int batch, boolean inBatch)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        if (!inBatch) {
+            nd.commitBatch();
+        }
+        for (int change = 0; change < 3; change++) {
+            List<Task> tasks = new ArrayList<>(nd.tasks());
+            Task task = tasks.get(random.nextInt(tasks.size()));
+            Task other = tasks.get(random.nextInt(tasks.size()));
+            switch (random.nextInt(5)) {
+            case 0:
+                if (task.topologicalPosition() > other.topologicalPosition()) {
+                    nd.addPredecessorToTask(task.idAsString(), other.idAsString(), TYPES[random.nextInt(4)],
+                            random.nextInt(3));
+                }
+                break;
+            case 1:
+                if (!task.predecessors().isEmpty()) {
+                    nd.removePredecessorFromTask(task.idAsString(), task.predecessors().get(0).task().idAsString());
+                }
+                break;
+            case 2:
+                if (tasks.size() > 20) {
+                    nd.removeTask(task.idAsString());
+                }
+                break;
+            case 3:
+                nd.addTask("N" + batch + "-" + change, random.nextInt(8));
+                break;
+            default:
+                nd.changeDurationOfTask(task.idAsString(), random.nextInt(12));
+            }
+        }
+        if (!inBatch) {
+            nd.beginBatch();
+        }
+    }
+
+    @Test
+    public void incrementalUpdates_Should_ShiftTheLatestValues_When_TheProjectEndMoves()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(9);
+        NetworkDiagram nd = new NetworkDiagram();
+        buildStreams(random, nd, 20, 20);
+
+        for (int change = 0; change < 100; change++) {
+            String id = "S" + random.nextInt(20) + "-T" + random.nextInt(20);
+            nd.changeDurationOfTask(id, random.nextInt(30));
+
+            assertSameSchedule(rebuilt(nd), nd);
+        }
+    }
+
+    private static void buildStreams(Random random, NetworkDiagram nd, int streams, int tasksPerStream)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        nd.beginBatch();
+        for (int s = 0; s < streams; s++) {
+            for (int i = 0; i < tasksPerStream; i++) {
+                String id = "S" + s + "-T" + i;
+                nd.addTask(id, random.nextInt(8));
+                if (i > 0) {
+                    nd.addPredecessorToTask(id, "S" + s + "-T" + random.nextInt(i), TYPES[random.nextInt(4)],
+                            random.nextInt(3));
+                }
+            }
+        }
+        nd.commitBatch();
+    }
+}
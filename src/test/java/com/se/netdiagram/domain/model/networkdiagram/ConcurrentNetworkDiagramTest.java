@@ -0,0 +1,201 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.scheduleAndDependenciesOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class ConcurrentNetworkDiagramTest {
+
+    @Test
+    public void snapshot_Should_NotChange_When_LaterChangesArePublished()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ConcurrentNetworkDiagram nd = new ConcurrentNetworkDiagram();
+        nd.edit(diagram -> {
+            diagram.addTask("A", 2);
+            diagram.addTask("B", 3);
+            diagram.addPredecessorToTask("B", "A", "FS", 0);
+        });
+        ScheduleSnapshot before = nd.snapshot();
+
+        ScheduleSnapshot after = nd.changeDurationOfTask("A", 5);
+
+        assertEquals(5, before.projectEnd());
+        assertEquals(2, before.getTask("B").earliestStart());
+        assertEquals(8, after.projectEnd());
+        assertEquals(5, after.getTask("B").earliestStart());
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(after, nd.snapshot());
+    }
+
+    @Test
+    public void olderSnapshots_Should_NeverSeeLaterChanges_For_RandomChanges()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(5);
+        ConcurrentNetworkDiagram nd = new ConcurrentNetworkDiagram();
+        List<ScheduleSnapshot> snapshots = new ArrayList<>();
+        List<String> schedules = new ArrayList<>();
+        int next = 0;
+
+        while (snapshots.size() < 200) {
+            List<Task> tasks = nd.snapshot().tasks();
+            ScheduleSnapshot published;
+            try {
+                if (tasks.size() < 2 || random.nextInt(6) == 0) {
+                    published = nd.addTask("T" + next++, random.nextInt(10));
+                } else {
+                    String task = tasks.get(random.nextInt(tasks.size())).idAsString();
+                    String other = tasks.get(random.nextInt(tasks.size())).idAsString();
+                    switch (random.nextInt(5)) {
+                    case 0:
+                        published = nd.addPredecessorToTask(task, other, "FS", random.nextInt(4));
+                        break;
+                    case 1:
+                        published = nd.changeDurationOfTask(task, random.nextInt(10));
+                        break;
+                    case 2:
+                        published = nd.changeLagOfDependency(task, other, random.nextInt(4));
+                        break;
+                    case 3:
+                        published = nd.removePredecessorFromTask(task, other);
+                        break;
+                    default:
+                        published = nd.removeTask(task);
+                    }
+                }
+            } catch (IllegalArgumentException | KeyNotFoundException rejected) {
+                continue;
+            }
+            snapshots.add(published);
+            schedules.add(scheduleAndDependenciesOf(published.toNetworkDiagram()));
+        }
+
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(schedules.get(i), scheduleAndDependenciesOf(snapshots.get(i).toNetworkDiagram()));
+        }
+    }
+
+    @Test
+    public void edit_Should_PublishNothing_When_AChangeFails() throws DuplicateTaskKeyException, KeyNotFoundException {
+        ConcurrentNetworkDiagram nd = new ConcurrentNetworkDiagram();
+        nd.addTask("A", 2);
+        ScheduleSnapshot before = nd.snapshot();
+
+        try {
+            nd.edit(diagram -> {
+                diagram.addTask("B", 3);
+                diagram.addPredecessorToTask("B", "Missing", "FS", 0);
+            });
+            fail("The edit should fail");
+        } catch (KeyNotFoundException expected) {
+        }
+
+        assertEquals(before, nd.snapshot());
+        assertNull(nd.snapshot().getTask("B"));
+        nd.addTask("B", 4);
+        assertEquals(4, nd.snapshot().projectEnd());
+    }
+
+    @Test
+    public void edit_Should_RejectSummaryTasks_And_KeepTheDiagramUsable()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ConcurrentNetworkDiagram nd = new ConcurrentNetworkDiagram();
+        nd.addTask("A", 2);
+        NetworkDiagram subNetwork = new NetworkDiagram();
+        subNetwork.addTask("S", 5);
+
+        try {
+            nd.edit(diagram -> diagram.addSummaryTask("Sum", subNetwork));
+            fail("The edit should fail");
+        } catch (IllegalArgumentException expected) {
+        }
+        subNetwork.changeDurationOfTask("S", 9);
+
+        assertNull(nd.snapshot().getTask("Sum"));
+        try {
+            nd.edit(diagram -> diagram.addSummaryTask("Sum", subNetwork));
+            fail("The restored diagram should reject summary tasks too");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(3, nd.changeDurationOfTask("A", 3).projectEnd());
+    }
+
+    @Test(timeout = 30000)
+    public void readers_Should_AlwaysSeeConsistentSchedules_While_WritersChangeTheDiagram() throws Exception {
+        ConcurrentNetworkDiagram nd = new ConcurrentNetworkDiagram();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int r = 0; r < 4; r++) {
+                readers.add(executor.submit(() -> {
+                    long lastVersion = -1;
+                    while (writing.get()) {
+                        ScheduleSnapshot snapshot = nd.snapshot();
+                        assertThat(snapshot.version(), greaterThanOrEqualTo(lastVersion));
+                        lastVersion = snapshot.version();
+                        assertConsistent(snapshot);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < 2; w++) {
+                String stream = "W" + w;
+                writers.add(executor.submit(() -> {
+                    nd.addTask(stream + "-0", 1);
+                    for (int i = 1; i < 200; i++) {
+                        nd.addTask(stream + "-" + i, i % 7);
+                        nd.addPredecessorToTask(stream + "-" + i, stream + "-" + (i - 1), "FS", 0);
+                        if (i % 10 == 0) {
+                            nd.changeDurationOfTask(stream + "-" + (i / 2), 3);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(400, nd.snapshot().tasks().size());
+        assertConsistent(nd.snapshot());
+    }
+
+    private static void assertConsistent(ScheduleSnapshot snapshot) {
+        long end = 0;
+        for (Task task : snapshot.tasks()) {
+            end = Math.max(end, task.earliestFinish());
+            assertThat(task.slack(), greaterThanOrEqualTo(0L));
+            assertEquals(task.earliestStart() + task.durationAsInt(), task.earliestFinish());
+            for (Dependency dependency : task.predecessors()) {
+                assertThat(task.earliestStart(), greaterThanOrEqualTo(dependency.task().earliestFinish()));
+            }
+        }
+        assertEquals(end, snapshot.projectEnd());
+    }
+}
@@ -0,0 +1,125 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.TYPES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.compact.CompactNetworkDiagram;
+
+public class CriticalPathsTest {
+
+    @Test
+    public void criticalPaths_Should_FollowOnlyDrivingDependencies()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        for (String id : new String[] { "A", "B", "C", "D", "E" }) {
+            nd.addTask(id, 1);
+        }
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "B", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("D", "A", "FS", 0);
+        nd.addPredecessorToTask("E", "D", "FS", 0);
+        nd.addPredecessorToTask("E", "A", "FS", 0);
+
+        assertThat(pathsOf(nd), containsInAnyOrder(
+                Arrays.asList("A", "B", "C"),
+                Arrays.asList("A", "D", "E")));
+        assertEquals(BigInteger.valueOf(2), nd.countCriticalPaths());
+    }
+
+    @Test(timeout = 1000)
+    public void criticalPaths_Should_BeCountedAndStreamed_When_ThereAreExponentiallyMany()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        int levels = 80;
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        for (int level = 0; level < levels; level++) {
+            nd.addTask("L" + level, 1);
+            nd.addTask("R" + level, 1);
+            if (level > 0) {
+                for (String task : new String[] { "L", "R" }) {
+                    for (String pred : new String[] { "L", "R" }) {
+                        nd.addPredecessorToTask(task + level, pred + (level - 1), "FS", 0);
+                    }
+                }
+            }
+        }
+        nd.commitBatch();
+
+        assertEquals(BigInteger.valueOf(2).pow(levels), nd.countCriticalPaths());
+
+        List<Path> firstPaths = nd.criticalPaths().limit(1000).collect(Collectors.toList());
+        assertEquals(1000, firstPaths.size());
+        for (Path path : firstPaths) {
+            assertEquals(levels, path.size());
+        }
+    }
+
+    @Test
+    public void criticalPaths_Should_BeTheSameAsTheCompactDiagramOnes_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(11);
+
+        for (int n = 0; n < 30; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            nd.beginBatch();
+            int size = 3 + random.nextInt(25);
+            for (int i = 0; i < size; i++) {
+                nd.addTask("T" + i, random.nextInt(3));
+            }
+            for (int i = 1; i < size; i++) {
+                for (int p = 0; p < i; p++) {
+                    if (random.nextInt(4) == 0) {
+                        nd.addPredecessorToTask("T" + i, "T" + p, TYPES[random.nextInt(4)], random.nextInt(2));
+                    }
+                }
+            }
+            nd.commitBatch();
+
+            List<List<String>> paths = pathsOf(nd);
+            CompactNetworkDiagram compact = CompactNetworkDiagram.from(nd);
+            List<List<String>> compactPaths = compact.getCriticalPaths().stream()
+                    .map(path -> path.tasks().stream().map(task -> task.id().toString())
+                            .collect(Collectors.toList()))
+                    .collect(Collectors.toList());
+
+            assertTrue(!paths.isEmpty());
+            assertEquals(BigInteger.valueOf(paths.size()), nd.countCriticalPaths());
+            assertEquals(nd.countCriticalPaths(), compact.countCriticalPaths());
+            assertEquals(paths.size(), compactPaths.size());
+            assertTrue(paths.containsAll(compactPaths));
+        }
+    }
+
+    @Test
+    public void criticalPathIterator_Should_ReturnTheSinglePath_When_OnlyOneTask() throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+
+        Iterator<Path> paths = nd.criticalPathIterator();
+
+        assertTrue(paths.hasNext());
+        assertEquals("[A]", paths.next().toString());
+        assertTrue(!paths.hasNext());
+    }
+
+    private static List<List<String>> pathsOf(NetworkDiagram nd) {
+        return nd.criticalPaths()
+                .map(path -> path.tasks().stream().map(Task::idAsString).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+}
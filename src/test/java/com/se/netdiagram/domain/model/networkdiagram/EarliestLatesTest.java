@@ -4,6 +4,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -60,4 +61,12 @@ public class EarliestLatesTest {
         assertFalse(newEarliestValues.latestFinish().isDateIsPresent());
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void when_earliestValuesOfAPredecessorHaveNotBeenCalculated_calcEarliest_throwsAnException() {
+        Task pred = new Task(new TaskId("A"), new Duration(1));
+
+        new EarliestLatest().calculateEarliest(Arrays.asList(new Dependency(pred, DependencyType.FS)),
+                new Duration(1));
+    }
+
 }
@@ -0,0 +1,239 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.scheduleAndDependenciesOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class EditHistoryTest {
+
+    @Test
+    public void undo_Should_RestoreTheSchedule_When_ATaskIsRemoved()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 2);
+        history.addTask("B", 3);
+        history.addTask("C", 4);
+        history.addPredecessorToTask("B", "A", "FS", 1);
+        history.addPredecessorToTask("C", "B", "SS", 2);
+        String before = scheduleAndDependenciesOf(history.diagram());
+
+        history.removeTask("B");
+        assertNull(history.diagram().getTask("B"));
+
+        history.undo();
+        assertEquals(before, scheduleAndDependenciesOf(history.diagram()));
+
+        history.redo();
+        assertNull(history.diagram().getTask("B"));
+        assertEquals(4, history.diagram().projectEnd());
+    }
+
+    @Test
+    public void undo_Should_RestoreAllTheDependenciesOnThePredecessor()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 2);
+        history.addTask("B", 3);
+        history.addPredecessorToTask("B", "A", "SS", 1);
+        history.addPredecessorToTask("B", "A", "FF", 4);
+        String before = scheduleAndDependenciesOf(history.diagram());
+
+        history.changeLagOfDependency("B", "A", 0);
+        history.undo();
+        assertEquals(before, scheduleAndDependenciesOf(history.diagram()));
+
+        history.removePredecessorFromTask("B", "A");
+        history.undo();
+        assertEquals(before, scheduleAndDependenciesOf(history.diagram()));
+    }
+
+    @Test
+    public void undoingAnAddedDependency_Should_KeepTheOtherTypesOnThePredecessor()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 2);
+        history.addTask("B", 3);
+        history.addPredecessorToTask("B", "A", "SS", 1);
+
+        history.addPredecessorToTask("B", "A", "FS", 0);
+        history.undo();
+
+        assertEquals("[A-SS1]", history.diagram().getTask("B").predecessors().toString());
+        assertEquals(4, history.diagram().projectEnd());
+    }
+
+    @Test
+    public void undoingAMergedDependency_Should_RestoreThePreviousLag()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 2);
+        history.addTask("B", 3);
+        history.addPredecessorToTask("B", "A", "FS", 1);
+
+        history.addPredecessorToTask("B", "A", "FS", 4);
+        assertEquals("[A4]", history.diagram().getTask("B").predecessors().toString());
+        history.undo();
+
+        assertEquals("[A1]", history.diagram().getTask("B").predecessors().toString());
+        assertEquals(6, history.diagram().projectEnd());
+        history.redo();
+        assertEquals(9, history.diagram().projectEnd());
+    }
+
+    @Test
+    public void aNewChange_Should_StartABranch_And_KeepTheUndoneSteps()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 2);
+        history.changeDurationOfTask("A", 5);
+        history.addTask("B", 9);
+        history.undo();
+        history.undo();
+
+        history.changeDurationOfTask("A", 7);
+
+        assertEquals(7, history.diagram().projectEnd());
+        assertFalse(history.canRedo());
+        history.undo();
+        assertEquals(2, history.branches());
+
+        history.redo();
+        assertEquals(7, history.diagram().projectEnd());
+        history.undo();
+        history.redo(0);
+        assertEquals(5, history.diagram().projectEnd());
+        history.redo();
+        assertEquals(9, history.diagram().projectEnd());
+        history.undo();
+        history.undo();
+        history.redo();
+        assertEquals(5, history.diagram().projectEnd());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void redo_Should_Throw_When_ThereIsNoSuchBranch() throws DuplicateTaskKeyException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 2);
+        history.undo();
+
+        history.redo(1);
+    }
+
+    @Test
+    public void history_Should_KeepAtMostItsDepth() throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 2);
+        history.addTask("A", 1);
+        history.changeDurationOfTask("A", 2);
+        history.changeDurationOfTask("A", 3);
+
+        history.undo();
+        history.undo();
+
+        assertFalse(history.canUndo());
+        assertEquals(1, history.diagram().projectEnd());
+    }
+
+    @Test
+    public void history_Should_ForgetTheBranchesOfTheForgottenSteps()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 2);
+        history.addTask("A", 1);
+        history.undo();
+        history.addTask("B", 2);
+        history.undo();
+        assertEquals(2, history.branches());
+        history.redo(1);
+
+        history.changeDurationOfTask("B", 3);
+        history.changeDurationOfTask("B", 4);
+        history.undo();
+        history.undo();
+
+        assertFalse(history.canUndo());
+        assertEquals(1, history.branches());
+        assertEquals(2, history.diagram().projectEnd());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void undo_Should_Throw_When_ThereIsNothingToUndo() {
+        new EditHistory(new NetworkDiagram(), 1).undo();
+    }
+
+    @Test
+    public void aFailedChange_Should_NotBeRecorded() throws DuplicateTaskKeyException, KeyNotFoundException {
+        EditHistory history = new EditHistory(new NetworkDiagram(), 10);
+        history.addTask("A", 1);
+        try {
+            history.addPredecessorToTask("A", "Missing", "FS", 0);
+        } catch (KeyNotFoundException expected) {
+        }
+
+        history.undo();
+
+        assertFalse(history.canUndo());
+        assertTrue(history.diagram().tasks().isEmpty());
+    }
+
+    @Test
+    public void undoingAndRedoingRandomChanges_Should_GiveTheSchedulesOfEachStep()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(11);
+        String[] types = { "FS", "SS", "FF", "SF" };
+        EditHistory history = new EditHistory(new NetworkDiagram(), 1000);
+        NetworkDiagram nd = history.diagram();
+        List<String> schedules = new ArrayList<>();
+        schedules.add(scheduleAndDependenciesOf(nd));
+        int next = 0;
+
+        while (schedules.size() < 300) {
+            List<Task> tasks = nd.tasks();
+            int choice = random.nextInt(6);
+            try {
+                if (tasks.size() < 2 || choice == 0) {
+                    history.addTask("T" + next++, random.nextInt(10));
+                } else {
+                    Task task = tasks.get(random.nextInt(tasks.size()));
+                    Task other = tasks.get(random.nextInt(tasks.size()));
+                    boolean depends = task.predecessors().stream().anyMatch(dep -> dep.task() == other);
+                    if (choice == 1 && task != other && !depends) {
+                        history.addPredecessorToTask(task.idAsString(), other.idAsString(), types[random.nextInt(4)],
+                                random.nextInt(4));
+                    } else if (choice == 2 && depends) {
+                        history.removePredecessorFromTask(task.idAsString(), other.idAsString());
+                    } else if (choice == 3 && depends) {
+                        history.changeLagOfDependency(task.idAsString(), other.idAsString(), random.nextInt(5));
+                    } else if (choice == 4) {
+                        history.changeDurationOfTask(task.idAsString(), random.nextInt(10));
+                    } else if (choice == 5) {
+                        history.removeTask(task.idAsString());
+                    } else {
+                        continue;
+                    }
+                }
+            } catch (IllegalArgumentException circular) {
+                continue;
+            }
+            schedules.add(scheduleAndDependenciesOf(nd));
+        }
+
+        for (int step = schedules.size() - 2; step >= 0; step--) {
+            history.undo();
+            assertEquals(schedules.get(step), scheduleAndDependenciesOf(nd));
+        }
+        for (int step = 1; step < schedules.size(); step++) {
+            history.redo();
+            assertEquals(schedules.get(step), scheduleAndDependenciesOf(nd));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.TYPES;
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.assertSameSchedule;
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.rebuilt;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class IncrementalSchedulingTest {
+
+    private interface Edit {
+        void applyTo(NetworkDiagram nd) throws DuplicateTaskKeyException, KeyNotFoundException;
+    }
+
+    @Test
+    public void changingTheDuration_Should_UpdateSuccessorsAndPredecessors()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addTask("C", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+
+        nd.changeDurationOfTask("C", 5);
+
+        assertEquals(7, nd.projectEnd());
+        assertEquals(2, nd.getTask("C").earliestStart());
+        assertEquals(0, nd.getTask("C").slack());
+        assertEquals(2, nd.getTask("B").slack());
+        assertEquals(0, nd.getTask("A").slack());
+
+        nd.changeDurationOfTask("C", 1);
+
+        assertEquals(5, nd.projectEnd());
+        assertEquals(2, nd.getTask("C").slack());
+        assertEquals(0, nd.getTask("B").slack());
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void changingTheDurationOfAMissingTask_Should_Throw_KeyNotFoundException()
+            throws KeyNotFoundException {
+        new NetworkDiagram().changeDurationOfTask("A", 1);
+    }
+
+    @Test
+    public void incrementalUpdates_Should_GiveTheSameValuesAsAFullCalculation()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(7);
+
+        for (int n = 0; n < 10; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            int size = 0;
+
+            for (int step = 0; step < 150; step++) {
+                Edit edit;
+                int choice = random.nextInt(3);
+                if (size < 2 || choice == 0) {
+                    String id = "T" + size++;
+                    int duration = random.nextInt(10);
+                    edit = diagram -> diagram.addTask(id, duration);
+                } else if (choice == 1) {
+                    int a = random.nextInt(size);
+                    int b = random.nextInt(size);
+                    if (a == b || nd.getTask("T" + a).predecessors().stream()
+                            .anyMatch(dep -> dep.task().idAsString().equals("T" + b))) {
+                        continue;
+                    }
+                    String task = "T" + a;
+                    String pred = "T" + b;
+                    String type = TYPES[random.nextInt(4)];
+                    int lag = random.nextInt(4);
+                    edit = diagram -> diagram.addPredecessorToTask(task, pred, type, lag);
+                } else {
+                    String id = "T" + random.nextInt(size);
+                    int duration = random.nextInt(10);
+                    edit = diagram -> diagram.changeDurationOfTask(id, duration);
+                }
+
+                try {
+                    edit.applyTo(nd);
+                } catch (IllegalArgumentException circularDependency) {
+                    continue;
+                }
+                assertSameSchedule(rebuilt(nd), nd);
+            }
+        }
+    }
+
+    @Test
+    public void removingATask_Should_RemoveItsDependenciesAndUpdateTheSchedule()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 5);
+        nd.addTask("C", 1);
+        nd.addTask("D", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("D", "B", "FS", 0);
+        nd.addPredecessorToTask("D", "C", "FS", 0);
+
+        nd.removeTask("B");
+
+        assertEquals(null, nd.getTask("B"));
+        assertEquals(3, nd.tasks().size());
+        assertEquals(1, nd.getTask("A").successors().size());
+        assertEquals(1, nd.getTask("D").predecessors().size());
+        assertEquals(3, nd.getTask("D").earliestStart());
+        assertEquals(4, nd.projectEnd());
+        assertEquals(0, nd.getTask("C").slack());
+    }
+
+    @Test
+    public void removingAndChangingDependencies_Should_UpdateBothTasks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+
+        nd.changeLagOfDependency("B", "A", 4);
+
+        assertEquals(6, nd.getTask("B").earliestStart());
+        assertEquals(4, nd.getTask("A").successors().get(0).lag().value());
+        assertEquals(9, nd.projectEnd());
+
+        nd.removePredecessorFromTask("B", "A");
+
+        assertEquals(0, nd.getTask("B").predecessors().size());
+        assertEquals(0, nd.getTask("A").successors().size());
+        assertEquals(0, nd.getTask("B").earliestStart());
+        assertEquals(3, nd.projectEnd());
+        assertEquals(1, nd.getTask("A").slack());
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void removingAMissingDependency_Should_Throw_KeyNotFoundException()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+
+        nd.removePredecessorFromTask("B", "A");
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void addingAPredecessorToAMissingTask_Should_Throw_KeyNotFoundException()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+    }
+
+    @Test
+    public void incrementalRemovalsAndUpdates_Should_GiveTheSameValuesAsAFullCalculation()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(17);
+
+        for (int n = 0; n < 10; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            List<String> ids = new ArrayList<>();
+            int size = 0;
+
+            for (int step = 0; step < 200; step++) {
+                Edit edit;
+                int choice = random.nextInt(6);
+                if (ids.size() < 3 || choice == 0) {
+                    String id = "T" + size++;
+                    int duration = random.nextInt(10);
+                    ids.add(id);
+                    edit = diagram -> diagram.addTask(id, duration);
+                } else if (choice <= 2) {
+                    String task = ids.get(random.nextInt(ids.size()));
+                    String pred = ids.get(random.nextInt(ids.size()));
+                    if (task.equals(pred) || nd.getTask(task).predecessors().stream()
+                            .anyMatch(dep -> dep.task().idAsString().equals(pred))) {
+                        continue;
+                    }
+                    String type = TYPES[random.nextInt(4)];
+                    int lag = random.nextInt(4);
+                    edit = diagram -> diagram.addPredecessorToTask(task, pred, type, lag);
+                } else if (choice == 3) {
+                    String id = ids.remove(random.nextInt(ids.size()));
+                    edit = diagram -> diagram.removeTask(id);
+                } else {
+                    Task task = nd.getTask(ids.get(random.nextInt(ids.size())));
+                    if (task.predecessors().isEmpty()) {
+                        continue;
+                    }
+                    String id = task.idAsString();
+                    String pred = task.predecessors().get(random.nextInt(task.predecessors().size())).task()
+                            .idAsString();
+                    int lag = random.nextInt(4);
+                    edit = choice == 4 ? diagram -> diagram.removePredecessorFromTask(id, pred)
+                            : diagram -> diagram.changeLagOfDependency(id, pred, lag);
+                }
+
+                try {
+                    edit.applyTo(nd);
+                } catch (IllegalArgumentException circularDependency) {
+                    continue;
+                }
+                assertSameSchedule(rebuilt(nd), nd);
+                assertEquals(ids.size(), nd.tasks().size());
+            }
+        }
+    }
+}
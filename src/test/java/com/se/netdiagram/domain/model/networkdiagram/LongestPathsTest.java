@@ -0,0 +1,181 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.date.WorkingCalendar;
+
+public class LongestPathsTest {
+
+    @Test
+    public void longestPaths_Should_ReturnPathsInDecreasingLength_WithTheirTotalFloat()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 3);
+        nd.addTask("B", 2);
+        nd.addTask("C", 4);
+        nd.addTask("D", 1);
+        nd.addTask("E", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("D", "B", "FS", 0);
+        nd.addPredecessorToTask("D", "C", "FS", 0);
+
+        List<RankedPath> paths = nd.longestPaths(5);
+
+        assertEquals("[[A, C, D]: 8 (0), [A, B, D]: 6 (2), [E]: 1 (7)]", paths.toString());
+    }
+
+    @Test
+    public void longestPaths_Should_WeighDependenciesByTypeAndLag()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addTask("C", 1);
+        nd.addPredecessorToTask("B", "A", "SS", 1);
+        nd.addPredecessorToTask("C", "B", "FF", 2);
+
+        List<RankedPath> paths = nd.longestPaths(1);
+
+        assertEquals(nd.getTask("C").earliestFinish(), paths.get(0).length());
+        assertEquals(0, paths.get(0).totalFloat());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void longestPaths_Should_Throw_When_TheDiagramHasCalendars() throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.setCalendar(WorkingCalendar.builder(LocalDate.of(2024, 1, 1)).build());
+
+        nd.longestPaths(1);
+    }
+
+    @Test
+    public void longestPaths_Should_MatchAllPathsEnumerated() throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(13);
+        String[] types = { "FS", "FS", "SS", "FF", "SF" };
+
+        for (int n = 0; n < 30; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            int size = 3 + random.nextInt(10);
+            for (int i = 0; i < size; i++) {
+                nd.addTask("T" + i, random.nextInt(6));
+            }
+            for (int i = 0; i < 2 * size; i++) {
+                int a = random.nextInt(size);
+                int b = random.nextInt(size);
+                if (a < b && !dependsOn(nd.getTask("T" + b), "T" + a)) {
+                    nd.addPredecessorToTask("T" + b, "T" + a, types[random.nextInt(types.length)],
+                            random.nextInt(3));
+                }
+            }
+
+            List<Long> expected = new ArrayList<>();
+            for (Task task : nd.tasks()) {
+                if (task.predecessors().isEmpty()) {
+                    addLengthsOfPathsFrom(task, 0, expected);
+                }
+            }
+            expected.sort(Collections.reverseOrder());
+            int count = random.nextInt(expected.size() + 2);
+
+            List<RankedPath> paths = nd.longestPaths(count);
+
+            List<Long> lengths = new ArrayList<>();
+            Set<String> distinct = new HashSet<>();
+            for (RankedPath path : paths) {
+                lengths.add(path.length());
+                assertEquals(lengthOf(path.path()), path.length());
+                assertEquals(nd.projectEnd() - path.length(), path.totalFloat());
+                assertThat(path.length(), lessThanOrEqualTo(nd.projectEnd()));
+                distinct.add(path.path().toString());
+            }
+            assertEquals(expected.subList(0, Math.min(count, expected.size())), lengths);
+            assertEquals(paths.size(), distinct.size());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void longestPaths_Should_AnswerQuickly_OnLargeDiagrams()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        int size = 100_000;
+        Random random = new Random(17);
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        for (int i = 0; i < size; i++) {
+            nd.addTask("T" + i, 1 + random.nextInt(10));
+            for (int j = 0; j < 3 && i >= 100; j++) {
+                int pred = i - 1 - random.nextInt(100);
+                if (!dependsOn(nd.getTask("T" + i), "T" + pred)) {
+                    nd.addPredecessorToTask("T" + i, "T" + pred, "FS", random.nextInt(2));
+                }
+            }
+        }
+        nd.commitBatch();
+
+        List<RankedPath> paths = nd.longestPaths(100);
+
+        assertEquals(100, paths.size());
+        assertEquals(0, paths.get(0).totalFloat());
+        for (int i = 1; i < paths.size(); i++) {
+            assertThat(paths.get(i).length(), lessThanOrEqualTo(paths.get(i - 1).length()));
+        }
+    }
+
+    private static boolean dependsOn(Task task, String predId) {
+        return task.predecessors().stream().anyMatch(dependency -> dependency.task().idAsString().equals(predId));
+    }
+
+    private static void addLengthsOfPathsFrom(Task task, long start, List<Long> lengths) {
+        if (task.successors().isEmpty()) {
+            lengths.add(start + task.durationAsInt());
+            return;
+        }
+        for (Dependency dependency : task.successors()) {
+            addLengthsOfPathsFrom(dependency.task(), start + weightOf(task, dependency), lengths);
+        }
+    }
+
+    private static long lengthOf(Path path) {
+        long start = 0;
+        for (int i = 1; i < path.size(); i++) {
+            Task pred = path.taskAt(i - 1);
+            for (Dependency dependency : pred.successors()) {
+                if (dependency.task() == path.taskAt(i)) {
+                    start += weightOf(pred, dependency);
+                }
+            }
+        }
+        return start + path.lastTask().durationAsInt();
+    }
+
+    private static long weightOf(Task pred, Dependency successor) {
+        long predFinish = pred.durationAsInt();
+        long duration = successor.task().durationAsInt();
+        long lag = successor.lag().value();
+        switch (successor.type()) {
+        case FS:
+            return predFinish + lag;
+        case SS:
+            return lag;
+        case FF:
+            return predFinish + lag - duration;
+        default:
+            return lag - duration;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.se.netdiagram.domain.model.networkdiagram;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import org.junit.Test;
 
@@ -32,4 +35,135 @@ public class NetworkDiagramTest {
         networkDiagram.addTask("B", 0);
         networkDiagram.addPredecessorToTask("A", "B", "XX", 0);
     }
+
+    @Test
+    public void when_aBatchIsOpen_theScheduleIsCalculatedOnCommit()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram networkDiagram = new NetworkDiagram();
+        networkDiagram.beginBatch();
+        networkDiagram.addTask("A", 2);
+        networkDiagram.addTask("B", 3);
+        networkDiagram.addPredecessorToTask("B", "A", "FS", 0);
+
+        assertTrue(networkDiagram.isInBatch());
+        assertFalse(networkDiagram.getTask("B").earliestLatest().earliestStart().isDateIsPresent());
+
+        networkDiagram.commitBatch();
+
+        assertFalse(networkDiagram.isInBatch());
+        assertEquals(2, networkDiagram.getTask("B").earliestStart());
+        assertEquals(5, networkDiagram.projectEnd());
+        assertEquals(0, networkDiagram.getTask("A").slack());
+    }
+
+    @Test(expected = DuplicateTaskKeyException.class)
+    public void when_aBatchIsOpen_tasksAreStillValidated() throws DuplicateTaskKeyException {
+        NetworkDiagram networkDiagram = new NetworkDiagram();
+        networkDiagram.beginBatch();
+        networkDiagram.addTask("A", 2);
+        networkDiagram.addTask("A", 3);
+    }
+
+    @Test
+    public void aLongChain_Should_BeCheckedForCircularDependenciesQuickly()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        int length = 100_000;
+        NetworkDiagram networkDiagram = new NetworkDiagram();
+        networkDiagram.beginBatch();
+        for (int i = 0; i < length; i++) {
+            networkDiagram.addTask("T" + i, 1);
+        }
+
+        long start = System.nanoTime();
+        for (int i = length - 1; i > 0; i--) {
+            networkDiagram.addPredecessorToTask("T" + i, "T" + (i - 1), "FS", 0);
+        }
+        try {
+            networkDiagram.addPredecessorToTask("T0", "T" + (length - 1), "FS", 0);
+            fail("A circular dependency should have been detected");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(networkDiagram.getTask("T0").predecessors().isEmpty());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Took " + elapsedMillis + "ms", elapsedMillis < 1000);
+
+        networkDiagram.commitBatch();
+        assertEquals(length, networkDiagram.projectEnd());
+    }
+
+    @Test(timeout = 10000)
+    public void dependenciesAgainstTheOrderOfTheTasks_Should_ReorderThemQuickly()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        int blocks = 1000;
+        int blockSize = 100;
+        NetworkDiagram networkDiagram = new NetworkDiagram();
+        networkDiagram.beginBatch();
+        for (int i = 0; i < blocks * blockSize; i++) {
+            networkDiagram.addTask("T" + i, 1);
+        }
+        // within a block each task follows the next one, against the order in
+        // which they were added, and each block follows the previous one
+        for (int block = 0; block < blocks; block++) {
+            int first = block * blockSize;
+            for (int j = 1; j < blockSize; j++) {
+                networkDiagram.addPredecessorToTask("T" + (first + j - 1), "T" + (first + j), "FS", 0);
+            }
+            if (block > 0) {
+                networkDiagram.addPredecessorToTask("T" + (first + blockSize - 1), "T" + (first - blockSize), "FS",
+                        0);
+            }
+        }
+        networkDiagram.commitBatch();
+
+        assertEquals(blocks * blockSize, networkDiagram.projectEnd());
+        for (Task task : networkDiagram.tasks()) {
+            int i = Integer.parseInt(task.idAsString().substring(1));
+            assertEquals(task.toString(), i / blockSize * blockSize + blockSize - 1 - i % blockSize,
+                    task.earliestStart());
+            for (Dependency dependency : task.predecessors()) {
+                assertTrue(dependency.task().topologicalPosition() < task.topologicalPosition());
+            }
+        }
+    }
+
+    @Test(timeout = 1000)
+    public void aDiamondLattice_Should_BeCheckedForCircularDependenciesQuickly()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        int levels = 30;
+        NetworkDiagram networkDiagram = new NetworkDiagram();
+        for (int level = 0; level < levels; level++) {
+            networkDiagram.addTask("L" + level, 1);
+            networkDiagram.addTask("R" + level, 1);
+        }
+        for (int level = levels - 1; level > 0; level--) {
+            for (String task : new String[] { "L", "R" }) {
+                for (String pred : new String[] { "L", "R" }) {
+                    networkDiagram.addPredecessorToTask(task + level, pred + (level - 1), "FS", 0);
+                }
+            }
+        }
+
+        assertEquals(levels, networkDiagram.projectEnd());
+        try {
+            networkDiagram.addPredecessorToTask("L0", "R" + (levels - 1), "FS", 0);
+            fail("A circular dependency should have been detected");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(networkDiagram.getTask("L0").predecessors().isEmpty());
+        }
+    }
+
+    @Test
+    public void when_aDependencyContradictsTheOrderOfTheTasks_theTasksAreReordered()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram networkDiagram = new NetworkDiagram();
+        networkDiagram.addTask("C", 1);
+        networkDiagram.addTask("B", 2);
+        networkDiagram.addTask("A", 3);
+        networkDiagram.addPredecessorToTask("C", "B", "FS", 0);
+        networkDiagram.addPredecessorToTask("B", "A", "FS", 0);
+
+        assertEquals(3, networkDiagram.getTask("B").earliestStart());
+        assertEquals(5, networkDiagram.getTask("C").earliestStart());
+        assertEquals(6, networkDiagram.projectEnd());
+    }
 }
@@ -0,0 +1,111 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+/**
+ * Random networks, rebuilt copies and schedule comparisons shared by the
+ * scheduling tests.
+ */
+final class NetworkDiagrams {
+    static final String[] TYPES = { "FS", "SS", "FF", "SF" };
+
+    private NetworkDiagrams() {
+    }
+
+    /**
+     * Adds, in one batch, up to 42 tasks "T0", "T1", ... where each task depends
+     * on each earlier one with a probability of 1/5, with a random type and lag.
+     */
+    static void addRandomNetwork(Random random, NetworkDiagram nd)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        nd.beginBatch();
+        int size = 3 + random.nextInt(40);
+        for (int i = 0; i < size; i++) {
+            nd.addTask("T" + i, random.nextInt(8));
+        }
+        for (int i = 1; i < size; i++) {
+            for (int p = 0; p < i; p++) {
+                if (random.nextInt(5) == 0) {
+                    nd.addPredecessorToTask("T" + i, "T" + p, TYPES[random.nextInt(4)], random.nextInt(3));
+                }
+            }
+        }
+        nd.commitBatch();
+    }
+
+    /**
+     * @return a new diagram with the same tasks and dependencies, scheduled from
+     *         scratch in one batch
+     */
+    static NetworkDiagram rebuilt(NetworkDiagram nd) throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram rebuilt = new NetworkDiagram();
+        rebuilt.beginBatch();
+        for (Task task : nd.tasks()) {
+            rebuilt.addTask(task.idAsString(), (int) task.durationAsInt());
+        }
+        for (Task task : nd.tasks()) {
+            for (Dependency dependency : task.predecessors()) {
+                rebuilt.addPredecessorToTask(task.idAsString(), dependency.task().idAsString(),
+                        dependency.type().toString(), dependency.lag().value());
+            }
+        }
+        rebuilt.commitBatch();
+        return rebuilt;
+    }
+
+    static void assertSameSchedule(NetworkDiagram expected, NetworkDiagram actual) {
+        assertEquals(expected.projectEnd(), actual.projectEnd());
+        for (Task expectedTask : expected.tasks()) {
+            Task task = actual.getTask(expectedTask.idAsString());
+            String message = "task " + expectedTask;
+            assertEquals(message, expectedTask.earliestStart(), task.earliestStart());
+            assertEquals(message, expectedTask.earliestFinish(), task.earliestFinish());
+            assertEquals(message, expectedTask.latestStart(), task.latestStart());
+            assertEquals(message, expectedTask.latestFinish(), task.latestFinish());
+            assertEquals(message, expectedTask.slack(), task.slack());
+        }
+    }
+
+    /**
+     * The project end and the values of the tasks, by id, in a form that does
+     * not depend on the order of the tasks.
+     */
+    static String scheduleOf(NetworkDiagram nd) {
+        return nd.projectEnd() + " " + tasksOf(nd, false);
+    }
+
+    /**
+     * Like {@link #scheduleOf(NetworkDiagram)}, with the durations and the
+     * dependencies of the tasks.
+     */
+    static String scheduleAndDependenciesOf(NetworkDiagram nd) {
+        return nd.projectEnd() + " " + tasksOf(nd, true);
+    }
+
+    private static List<String> tasksOf(NetworkDiagram nd, boolean withDependencies) {
+        List<String> tasks = new ArrayList<>();
+        for (Task task : nd.tasks()) {
+            String values = task.idAsString() + " " + task.earliestStart() + " " + task.earliestFinish() + " "
+                    + task.latestStart() + " " + task.latestFinish() + " " + task.slack();
+            if (withDependencies) {
+                List<String> predecessors = new ArrayList<>();
+                for (Dependency dependency : task.predecessors()) {
+                    predecessors.add(dependency.task().idAsString() + " " + dependency.type() + " "
+                            + dependency.lag().value());
+                }
+                predecessors.sort(null);
+                values += " " + task.durationAsInt() + " " + predecessors;
+            }
+            tasks.add(values);
+        }
+        tasks.sort(null);
+        return tasks;
+    }
+}
@@ -0,0 +1,137 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.TYPES;
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.assertSameSchedule;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class ParallelSchedulingTest {
+
+    @Test
+    public void parallelScheduling_Should_GiveTheSameValuesAsSequential_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int seed = 0; seed < 5; seed++) {
+                NetworkDiagram sequential = wideNetwork(new Random(seed), 10, 1200);
+                NetworkDiagram parallel = wideNetwork(new Random(seed), 10, 1200);
+                parallel.useParallelScheduling(pool);
+                parallel.beginBatch();
+                parallel.commitBatch();
+
+                assertSameSchedule(sequential, parallel);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelScheduling_Should_KeepValuesConsistent_When_ChangesFollow()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            NetworkDiagram sequential = wideNetwork(new Random(3), 5, 600);
+            NetworkDiagram parallel = wideNetwork(new Random(3), 5, 600);
+            parallel.useParallelScheduling(pool);
+
+            for (NetworkDiagram nd : new NetworkDiagram[] { sequential, parallel }) {
+                nd.changeDurationOfTask("L0T0", 100);
+                nd.addTask("END", 1);
+                nd.addPredecessorToTask("END", "L4T7", "FS", 3);
+            }
+
+            assertSameSchedule(sequential, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void useParallelScheduling_Should_ThrowException_When_PoolIsNull() {
+        new NetworkDiagram().useParallelScheduling(null);
+    }
+
+    /**
+     * Opt-in benchmark, run with
+     * {@code mvn test -Dtest=ParallelSchedulingTest -Dnetdiagram.benchmark=true}
+     * and optionally {@code -Dnetdiagram.benchmark.threads=N}: prints, for wide
+     * random networks, the best time of a full processing on pools of 1 to N
+     * threads and its speedup over the sequential passes, after checking that
+     * the values are the sequential ones.
+     */
+    @Test
+    public void parallelScheduling_Should_SpeedUp_With_ThreadCount_For_WideNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        assumeTrue(Boolean.getBoolean("netdiagram.benchmark"));
+        int maxThreads = Integer.getInteger("netdiagram.benchmark.threads",
+                Runtime.getRuntime().availableProcessors());
+
+        for (int seed = 0; seed < 3; seed++) {
+            NetworkDiagram expected = wideNetwork(new Random(seed), 10, 20000);
+            NetworkDiagram nd = wideNetwork(new Random(seed), 10, 20000);
+            long sequential = nanosOfFullProcessing(nd);
+            System.out.printf("%d tasks, sequential: %d ms%n", nd.tasks().size(), sequential / 1_000_000);
+            for (int threads = 1; threads <= maxThreads; threads++) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    nd.useParallelScheduling(pool);
+                    long parallel = nanosOfFullProcessing(nd);
+                    assertSameSchedule(expected, nd);
+                    System.out.printf("  %d thread(s): %d ms, speedup %.2f%n", threads, parallel / 1_000_000,
+                            (double) sequential / parallel);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the best time of a few full processings, after warming up
+     */
+    private static long nanosOfFullProcessing(NetworkDiagram nd) {
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 8; run++) {
+            long start = System.nanoTime();
+            nd.beginBatch();
+            nd.commitBatch();
+            if (run >= 3) {
+                best = Math.min(best, System.nanoTime() - start);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A network of the given number of levels with many tasks per level; every
+     * task depends on up to three random tasks of the previous level.
+     */
+    private static NetworkDiagram wideNetwork(Random random, int levels, int width)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        for (int level = 0; level < levels; level++) {
+            for (int i = 0; i < width; i++) {
+                String id = "L" + level + "T" + i;
+                nd.addTask(id, random.nextInt(10));
+                if (level > 0) {
+                    int predecessors = 1 + random.nextInt(3);
+                    for (int p = 0; p < predecessors; p++) {
+                        String predId = "L" + (level - 1) + "T" + random.nextInt(width);
+                        nd.addPredecessorToTask(id, predId, TYPES[random.nextInt(4)], random.nextInt(3));
+                    }
+                }
+            }
+        }
+        nd.commitBatch();
+        return nd;
+    }
+}
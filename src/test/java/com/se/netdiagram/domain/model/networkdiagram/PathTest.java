@@ -0,0 +1,96 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.networkdiagram.date.Duration;
+
+public class PathTest {
+    private final Task a = new Task(new TaskId("A"), new Duration(1));
+    private final Task b = new Task(new TaskId("B"), new Duration(1));
+    private final Task c = new Task(new TaskId("C"), new Duration(1));
+
+    @Test
+    public void addTask_Should_NotChangeTheOriginalPath() {
+        Path ab = new Path().addTask(a).addTask(b);
+        Path abc = ab.addTask(c);
+
+        assertEquals(2, ab.size());
+        assertEquals(3, abc.size());
+        assertEquals(Arrays.asList(a, b, c), abc.tasks());
+        assertFalse(ab.containsTask(c));
+        assertTrue(abc.containsTask(c));
+        assertSame(c, abc.lastTask());
+        assertSame(b, abc.taskAt(1));
+    }
+
+    @Test
+    public void removeLastTask_Should_ShareThePrefix() {
+        Path ab = new Path().addTask(a).addTask(b);
+
+        assertSame(ab, ab.addTask(c).removeLastTask());
+        assertEquals(Arrays.asList(a), ab.removeLastTask().tasks());
+    }
+
+    @Test
+    public void aPathBuiltFromAList_Should_HaveTheSameTasks() {
+        Path path = new Path(Arrays.asList(a, b, c));
+
+        assertEquals(3, path.size());
+        assertEquals("[A, B, C]", path.toString());
+        assertEquals(Arrays.asList(a, b), path.removeLastTask().tasks());
+        assertTrue(path.containsTask(a));
+    }
+
+    @Test
+    public void containsTask_Should_TellTheTasksOfEachBranch_When_PathsShareALongPrefix() {
+        Task[] tasks = new Task[2000];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task(new TaskId("T" + i, i), new Duration(1));
+        }
+        Path prefix = new Path();
+        for (int i = 0; i < 1000; i++) {
+            prefix = prefix.addTask(tasks[i]);
+        }
+        Path left = prefix;
+        Path right = prefix;
+        for (int i = 1000; i < 2000; i++) {
+            if (i % 2 == 0) {
+                left = left.addTask(tasks[i]);
+            } else {
+                right = right.addTask(tasks[i]);
+            }
+        }
+
+        assertTrue(prefix.containsTask(tasks[999]));
+        for (int i = 0; i < tasks.length; i++) {
+            assertEquals(i < 1000 || i % 2 == 0, left.containsTask(tasks[i]));
+            assertEquals(i < 1000 || i % 2 == 1, right.containsTask(tasks[i]));
+            assertEquals(i < 1000, prefix.containsTask(tasks[i]));
+        }
+    }
+
+    @Test
+    public void containsTask_Should_TellApartTasksWithTheSameOrdinal() {
+        Task x = new Task(new TaskId("X", 5), new Duration(1));
+        Task y = new Task(new TaskId("Y", 5), new Duration(1));
+        Task z = new Task(new TaskId("Z", 5), new Duration(1));
+        Path path = new Path().addTask(x).addTask(y);
+
+        assertTrue(path.containsTask(x));
+        assertTrue(path.containsTask(y));
+        assertFalse(path.containsTask(z));
+        assertTrue(path.addTask(z).containsTask(z));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void lastTask_Should_Throw_When_ThePathIsEmpty() {
+        new Path().lastTask();
+    }
+}
@@ -0,0 +1,114 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.utilities.Query;
+
+public class ScheduleIndexTest {
+
+    @Test
+    public void queries_Should_FindTheTasksBySlackAndStart() throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 5);
+        nd.addTask("C", 2);
+        nd.addTask("D", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("D", "B", "FS", 0);
+        nd.addPredecessorToTask("D", "C", "FS", 0);
+
+        assertThat(ids(nd.tasksWithSlackAtMost(0)), containsInAnyOrder("A", "B", "D"));
+        assertThat(ids(nd.tasksWithLeastSlack(4)).get(3), is("C"));
+        assertThat(ids(nd.tasksStartingBetween(1, 7)), contains("B", "C", "D"));
+        assertThat(ids(nd.tasksWithLatestStartBetween(5, 5)), contains("C"));
+
+        nd.changeDurationOfTask("C", 6);
+
+        assertThat(ids(nd.tasksWithSlackAtMost(0)), containsInAnyOrder("A", "C", "D"));
+        assertThat(ids(nd.tasksWithLeastSlack(3)), containsInAnyOrder("A", "C", "D"));
+
+        nd.removeTask("C");
+
+        assertThat(ids(nd.tasksWithSlackAtMost(10)), containsInAnyOrder("A", "B", "D"));
+    }
+
+    @Test
+    public void queries_Should_BeTheSameAsFiltering_After_RandomChanges()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(5);
+        String[] types = { "FS", "SS", "FF", "SF" };
+        NetworkDiagram nd = new NetworkDiagram();
+        List<String> ids = new ArrayList<>();
+        for (int step = 0; step < 400; step++) {
+            int choice = random.nextInt(5);
+            if (ids.size() < 3 || choice == 0) {
+                String id = "T" + step;
+                nd.addTask(id, random.nextInt(10));
+                ids.add(id);
+            } else if (choice == 1) {
+                nd.removeTask(ids.remove(random.nextInt(ids.size())));
+            } else if (choice == 2) {
+                nd.changeDurationOfTask(ids.get(random.nextInt(ids.size())), random.nextInt(10));
+            } else {
+                String task = ids.get(random.nextInt(ids.size()));
+                String pred = ids.get(random.nextInt(ids.size()));
+                try {
+                    nd.addPredecessorToTask(task, pred, types[random.nextInt(4)], random.nextInt(3));
+                } catch (IllegalArgumentException circularDependency) {
+                    continue;
+                }
+            }
+            if (step % 7 == 0) {
+                nd.beginBatch();
+                nd.commitBatch();
+            }
+
+            long slack = random.nextInt(10);
+            assertEquals(new HashSet<>(Query.filter(nd.tasks(), task -> task.slack() <= slack)),
+                    new HashSet<>(nd.tasksWithSlackAtMost(slack)));
+            long from = random.nextInt(20);
+            long to = from + random.nextInt(10);
+            assertEquals(
+                    new HashSet<>(Query.filter(nd.tasks(),
+                            task -> task.earliestStart() >= from && task.earliestStart() <= to)),
+                    new HashSet<>(nd.tasksStartingBetween(from, to)));
+            assertEquals(
+                    new HashSet<>(Query.filter(nd.tasks(),
+                            task -> task.latestStart() >= from && task.latestStart() <= to)),
+                    new HashSet<>(nd.tasksWithLatestStartBetween(from, to)));
+            int count = random.nextInt(10);
+            List<Task> bySlack = new ArrayList<>(nd.tasks());
+            bySlack.sort(Comparator.comparingLong(Task::slack));
+            assertEquals(Query.map(bySlack.subList(0, Math.min(count, bySlack.size())), Task::slack),
+                    Query.map(nd.tasksWithLeastSlack(count), Task::slack));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void queries_Should_ThrowException_When_BatchIsOpen() throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        nd.addTask("A", 2);
+
+        nd.tasksWithSlackAtMost(0);
+    }
+
+    private static List<String> ids(List<Task> tasks) {
+        return Query.map(tasks, Task::idAsString);
+    }
+}
@@ -0,0 +1,76 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.addRandomNetwork;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class SensitivityAnalysisTest {
+
+    @Test
+    public void sensitivity_Should_ReduceTheDelayBySlack() throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 5);
+        nd.addTask("C", 2);
+        nd.addTask("D", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("D", "B", "FS", 0);
+        nd.addPredecessorToTask("D", "C", "FS", 0);
+
+        Map<TaskId, Long> impacts = nd.sensitivity(4);
+
+        assertEquals(Long.valueOf(4), impacts.get(new TaskId("A")));
+        assertEquals(Long.valueOf(4), impacts.get(new TaskId("B")));
+        assertEquals(Long.valueOf(1), impacts.get(new TaskId("C")));
+        assertEquals(Long.valueOf(4), impacts.get(new TaskId("D")));
+        assertEquals(8, nd.projectEnd());
+        assertEquals(3, nd.getTask("C").slack());
+    }
+
+    @Test
+    public void sensitivity_Should_BeTheSameAsRescheduling_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(23);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int n = 0; n < 30; n++) {
+                NetworkDiagram nd = new NetworkDiagram();
+                addRandomNetwork(random, nd);
+
+                long delay = 1 + random.nextInt(6);
+                Map<TaskId, Long> impacts = nd.sensitivity(delay);
+
+                assertEquals(impacts, nd.sensitivity(delay, pool));
+                long end = nd.projectEnd();
+                for (Task task : nd.tasks()) {
+                    int duration = (int) task.durationAsInt();
+                    nd.changeDurationOfTask(task.idAsString(), duration + (int) delay);
+                    long expected = nd.projectEnd() - end;
+                    nd.changeDurationOfTask(task.idAsString(), duration);
+
+                    assertEquals(task.toString(), Long.valueOf(expected), impacts.get(task.id()));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sensitivity_Should_ThrowException_When_BatchIsOpen() throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        nd.addTask("A", 2);
+
+        nd.sensitivity(1);
+    }
+}
@@ -0,0 +1,145 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class SummaryTaskTest {
+
+    @Test
+    public void summaryTask_Should_LastAsLongAsItsSubNetwork() throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram design = new NetworkDiagram();
+        design.addTask("Sketch", 2);
+        design.addTask("Review", 3);
+        design.addPredecessorToTask("Review", "Sketch", "FS", 0);
+
+        NetworkDiagram programme = new NetworkDiagram();
+        programme.addTask("Kickoff", 1);
+        programme.addSummaryTask("Design", design);
+        programme.addTask("Build", 4);
+        programme.addPredecessorToTask("Design", "Kickoff", "FS", 0);
+        programme.addPredecessorToTask("Build", "Design", "FS", 0);
+
+        assertTrue(programme.getTask("Design").isSummary());
+        assertEquals(5, programme.getTask("Design").durationAsInt());
+        assertEquals(10, programme.projectEnd());
+
+        design.changeDurationOfTask("Review", 6);
+
+        assertEquals(8, programme.getTask("Design").durationAsInt());
+        assertEquals(9, programme.getTask("Build").earliestStart());
+        assertEquals(13, programme.projectEnd());
+    }
+
+    @Test
+    public void changes_Should_PropagateThroughNestedSummaryTasks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram leaf = new NetworkDiagram();
+        leaf.addTask("A", 2);
+        NetworkDiagram middle = new NetworkDiagram();
+        middle.addSummaryTask("Leaf", leaf);
+        middle.addTask("B", 1);
+        middle.addPredecessorToTask("B", "Leaf", "FS", 0);
+        NetworkDiagram top = new NetworkDiagram();
+        top.addSummaryTask("Middle", middle);
+        top.addSummaryTask("OtherMiddle", middle);
+
+        assertEquals(3, top.projectEnd());
+
+        leaf.beginBatch();
+        leaf.addTask("C", 7);
+        leaf.commitBatch();
+
+        assertEquals(8, middle.projectEnd());
+        assertEquals(8, top.getTask("OtherMiddle").durationAsInt());
+        assertEquals(8, top.projectEnd());
+    }
+
+    @Test
+    public void summaryTasks_Should_ScheduleLikeTheFlatNetwork_For_RandomSubNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(13);
+        List<NetworkDiagram> children = new ArrayList<>();
+        NetworkDiagram parent = new NetworkDiagram();
+        for (int c = 0; c < 20; c++) {
+            NetworkDiagram child = new NetworkDiagram();
+            child.beginBatch();
+            for (int i = 0; i < 200; i++) {
+                child.addTask("T" + i, random.nextInt(5));
+                if (i > 0) {
+                    child.addPredecessorToTask("T" + i, "T" + random.nextInt(i), "FS", random.nextInt(2));
+                }
+            }
+            child.commitBatch();
+            children.add(child);
+            parent.addSummaryTask("S" + c, child);
+            if (c > 0) {
+                parent.addPredecessorToTask("S" + c, "S" + random.nextInt(c), "FS", 0);
+            }
+        }
+
+        for (int change = 0; change < 50; change++) {
+            int c = random.nextInt(children.size());
+            children.get(c).changeDurationOfTask("T" + random.nextInt(200), random.nextInt(10));
+
+            NetworkDiagram flat = new NetworkDiagram();
+            flat.beginBatch();
+            for (Task summary : parent.tasks()) {
+                flat.addTask(summary.idAsString(), (int) summary.subNetwork().projectEnd());
+            }
+            for (Task summary : parent.tasks()) {
+                for (Dependency dependency : summary.predecessors()) {
+                    flat.addPredecessorToTask(summary.idAsString(), dependency.task().idAsString(), "FS", 0);
+                }
+            }
+            flat.commitBatch();
+
+            assertEquals(flat.projectEnd(), parent.projectEnd());
+            for (Task task : flat.tasks()) {
+                assertEquals(task.slack(), parent.getTask(task.idAsString()).slack());
+            }
+        }
+    }
+
+    @Test
+    public void removingASummaryTask_Should_StopFollowingItsSubNetwork()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram child = new NetworkDiagram();
+        child.addTask("A", 2);
+        NetworkDiagram parent = new NetworkDiagram();
+        parent.addSummaryTask("Child", child);
+        parent.addTask("B", 1);
+
+        parent.removeTask("Child");
+        child.changeDurationOfTask("A", 5);
+
+        assertEquals(1, parent.projectEnd());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addSummaryTask_Should_ThrowException_When_TheSubNetworkContainsTheDiagram()
+            throws DuplicateTaskKeyException {
+        NetworkDiagram child = new NetworkDiagram();
+        NetworkDiagram parent = new NetworkDiagram();
+        parent.addSummaryTask("Child", child);
+
+        child.addSummaryTask("Parent", parent);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void changeDurationOfTask_Should_ThrowException_When_TheTaskIsASummary()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram parent = new NetworkDiagram();
+        parent.addSummaryTask("Child", new NetworkDiagram());
+
+        parent.changeDurationOfTask("Child", 3);
+    }
+}
@@ -0,0 +1,109 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.date.Duration;
+
+public class TaskTableTest {
+
+    @Test
+    public void table_Should_FindTheSameTasksAsAMap_After_RandomAdditionsAndRemovals() {
+        Random random = new Random(3);
+        TaskTable table = new TaskTable();
+        Map<String, Task> expected = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        int maxSize = 0;
+        for (int step = 0; step < 20000; step++) {
+            if (ids.isEmpty() || random.nextInt(3) > 0) {
+                String id = "T" + random.nextInt(5000);
+                if (expected.containsKey(id)) {
+                    continue;
+                }
+                Task task = new Task(table.intern(id), new Duration(1));
+                table.add(task);
+                expected.put(id, task);
+                ids.add(id);
+            } else {
+                String id = ids.remove(random.nextInt(ids.size()));
+                table.remove(expected.remove(id));
+            }
+            maxSize = Math.max(maxSize, ids.size());
+
+            assertEquals(expected.size(), table.size());
+            assertThat(table.ordinalBound(), lessThanOrEqualTo(maxSize));
+            String probe = "T" + random.nextInt(5000);
+            assertSame(expected.get(probe), table.get(probe));
+        }
+        for (Map.Entry<String, Task> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), table.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void addTask_Should_GiveDenseOrdinals_And_ReuseTheOrdinalsOfRemovedTasks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 1);
+        nd.addTask("B", 1);
+        nd.addTask("C", 1);
+
+        assertEquals(1, nd.getTask("B").id().ordinal());
+        assertEquals(new TaskId("B"), nd.getTask("B").id());
+
+        nd.removeTask("B");
+        nd.addTask("D", 1);
+
+        assertEquals(1, nd.getTask("D").id().ordinal());
+        assertNull(nd.getTask("B"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getTask_Should_ThrowException_When_TheIdIsNull() throws DuplicateTaskKeyException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 1);
+
+        nd.getTask(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void changeDurationOfTask_Should_ThrowException_When_TheIdIsNull()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 1);
+
+        nd.changeDurationOfTask(null, 2);
+    }
+
+    @Test(timeout = 30000)
+    public void linking_Should_Scale_To_AMillionDependencies() throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(1);
+        int size = 100000;
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        for (int i = 0; i < size; i++) {
+            nd.addTask("T" + i, 1 + random.nextInt(5));
+        }
+        for (int i = 20; i < size; i++) {
+            for (int p = i - 10; p < i; p++) {
+                nd.addPredecessorToTask("T" + i, "T" + (p - random.nextInt(10)), "FS", 0);
+            }
+        }
+        nd.commitBatch();
+
+        assertEquals(size, nd.tasks().size());
+    }
+}
@@ -1,11 +1,17 @@
 package com.se.netdiagram.domain.model.networkdiagram;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+
 import org.junit.Test;
 
 import com.se.netdiagram.domain.model.networkdiagram.date.Duration;
+import com.se.netdiagram.domain.model.networkdiagram.date.Lag;
 
 public class TaskTest {
 
@@ -35,4 +41,100 @@ public class TaskTest {
         task.addPredecessor(new Dependency(new Task(new TaskId("B"), new Duration(1)), DependencyType.FS));
         assertFalse(task.earliestLatest().earliestStart().isDateIsPresent());
     }
+
+    @Test
+    public void addPredecessor_Should_ShareTheDependencyWithThePredecessor() {
+        Task pred = new Task(new TaskId("A"), new Duration(1));
+        Task task = new Task(new TaskId("B"), new Duration(1));
+        task.addPredecessor(new Dependency(pred, DependencyType.SS, new Lag(2)));
+
+        assertSame(task.predecessors().get(0), pred.successorEdges().get(0));
+        assertSame(task, pred.successorEdges().get(0).successor());
+        assertSame(task, pred.successors().get(0).task());
+        assertEquals(2, pred.successors().get(0).lag().value());
+    }
+
+    @Test
+    public void addPredecessor_Should_KeepTheGreaterLag_When_TheDependencyIsRepeated() {
+        Task pred = new Task(new TaskId("A"), new Duration(1));
+        Task task = new Task(new TaskId("B"), new Duration(1));
+        task.addPredecessor(new Dependency(pred, DependencyType.FS, new Lag(1)));
+        task.addPredecessor(new Dependency(pred, DependencyType.FS, new Lag(3)));
+        task.addPredecessor(new Dependency(pred, DependencyType.FS, new Lag(2)));
+        task.addPredecessor(new Dependency(pred, DependencyType.SS, new Lag(0)));
+
+        assertEquals(2, task.predecessors().size());
+        assertEquals(2, pred.successorEdges().size());
+        assertEquals(3, task.predecessor(pred, DependencyType.FS).lag().value());
+        assertEquals(0, task.predecessor(pred, DependencyType.SS).lag().value());
+    }
+
+    @Test
+    public void predecessor_Should_FindTheDependency_When_ManyPredecessorsAreIndexed() {
+        Task task = new Task(new TaskId("T"), new Duration(1));
+        Task[] preds = new Task[20];
+        for (int i = 0; i < preds.length; i++) {
+            preds[i] = new Task(new TaskId("P" + i), new Duration(1));
+            task.addPredecessor(new Dependency(preds[i], DependencyType.FF, new Lag(i)));
+        }
+        task.changeLagOfPredecessor(preds[5], new Lag(50));
+        task.removePredecessor(preds[7]);
+        task.addPredecessor(new Dependency(preds[3], DependencyType.SS, new Lag(1)));
+        task.removePredecessor(preds[3], DependencyType.FF);
+        task.changeLagOfPredecessor(preds[3], DependencyType.SS, new Lag(2));
+
+        assertEquals(50, task.predecessor(preds[5], DependencyType.FF).lag().value());
+        assertSame(task.predecessor(preds[5], DependencyType.FF), preds[5].successorEdges().get(0));
+        assertNull(task.predecessor(preds[5], DependencyType.FS));
+        assertNull(task.predecessor(preds[7], DependencyType.FF));
+        assertTrue(preds[7].successorEdges().isEmpty());
+        assertNull(task.predecessor(preds[3], DependencyType.FF));
+        assertEquals(2, task.predecessor(preds[3], DependencyType.SS).lag().value());
+        assertEquals(19, task.predecessors().size());
+        assertEquals(19, task.predecessor(preds[19], DependencyType.FF).lag().value());
+    }
+
+    @Test
+    public void removePredecessor_Should_KeepBothEndsConsistent() {
+        Random random = new Random(3);
+        Task[] tasks = new Task[30];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Task(new TaskId("T" + i), new Duration(1));
+            tasks[i].setTopologicalPosition(i);
+        }
+        for (int change = 0; change < 2000; change++) {
+            Task pred = tasks[random.nextInt(tasks.length - 1)];
+            Task task = tasks[pred.topologicalPosition() + 1 + random.nextInt(tasks.length - 1
+                    - pred.topologicalPosition())];
+            switch (random.nextInt(4)) {
+            case 0:
+                task.removePredecessor(pred);
+                break;
+            case 1:
+                task.changeLagOfPredecessor(pred, new Lag(random.nextInt(5)));
+                break;
+            case 2:
+                task.removePredecessor(pred, DependencyType.values()[random.nextInt(4)]);
+                break;
+            default:
+                task.addPredecessor(new Dependency(pred, DependencyType.values()[random.nextInt(4)]));
+            }
+        }
+
+        int dependencies = 0;
+        for (Task task : tasks) {
+            for (int i = 0; i < task.predecessors().size(); i++) {
+                Dependency dependency = task.predecessors().get(i);
+                assertEquals(i, dependency.predecessorPosition());
+                assertSame(dependency, dependency.task().successorEdges().get(dependency.successorPosition()));
+                assertSame(dependency, task.predecessor(dependency.task(), dependency.type()));
+                dependencies++;
+            }
+            for (int i = 0; i < task.successorEdges().size(); i++) {
+                assertEquals(i, task.successorEdges().get(i).successorPosition());
+                dependencies--;
+            }
+        }
+        assertEquals(0, dependencies);
+    }
 }
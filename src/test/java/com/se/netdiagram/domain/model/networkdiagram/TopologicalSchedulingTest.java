@@ -0,0 +1,122 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.se.netdiagram.application.DiagramNetworkReaderService;
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.port.adapter.JSONFileTaskDataReader;
+
+public class TopologicalSchedulingTest {
+
+    @Test
+    public void topologicalPasses_Should_GiveTheSameValuesAsTheLevelScan_For_AllExamples() throws Exception {
+        List<String> jsonFiles = exampleFiles();
+        assertFalse(jsonFiles.isEmpty());
+
+        for (String jsonFile : jsonFiles) {
+            NetworkDiagram nd = DiagramNetworkReaderService
+                    .readNetworkDiagramWith(new JSONFileTaskDataReader(jsonFile));
+            assertSameAsLevelScan(jsonFile, nd);
+        }
+    }
+
+    @Test
+    public void topologicalPasses_Should_GiveTheSameValuesAsTheLevelScan_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(42);
+        String[] types = { "FS", "SS", "FF", "SF" };
+
+        for (int n = 0; n < 20; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            int size = 5 + random.nextInt(40);
+            for (int i = 0; i < size; i++) {
+                nd.addTask("T" + i, random.nextInt(10));
+            }
+            for (int i = 1; i < size; i++) {
+                for (int p = 0; p < i; p++) {
+                    if (random.nextInt(5) == 0) {
+                        nd.addPredecessorToTask("T" + i, "T" + p, types[random.nextInt(4)], random.nextInt(5));
+                    }
+                }
+            }
+            assertSameAsLevelScan("random network " + n, nd);
+        }
+    }
+
+    private static List<String> exampleFiles() throws IOException {
+        return Files.walk(Paths.get("examples"))
+                .filter(Files::isRegularFile)
+                .map(path -> path.toString())
+                .filter(name -> name.endsWith(".json"))
+                .collect(Collectors.toList());
+    }
+
+    private static void assertSameAsLevelScan(String name, NetworkDiagram nd) {
+        Map<Task, long[]> scheduled = new HashMap<>();
+        for (Task task : nd.tasks()) {
+            scheduled.put(task, values(task));
+        }
+        long scheduledEnd = nd.projectEnd();
+
+        assertEquals(name, levelScan(nd.tasks()), scheduledEnd);
+        for (Task task : nd.tasks()) {
+            long[] expected = values(task);
+            long[] actual = scheduled.get(task);
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(name + " task " + task, expected[i], actual[i]);
+            }
+        }
+    }
+
+    private static long[] values(Task task) {
+        return new long[] { task.earliestStart(), task.earliestFinish(), task.latestStart(), task.latestFinish(),
+                task.slack() };
+    }
+
+    /**
+     * The original forward and backward processing that repeatedly scans the
+     * tasks that have not been processed yet. Used as the reference result.
+     */
+    private static long levelScan(List<Task> allTasks) {
+        long projectEnd = 0;
+        List<Task> notProcessedTasks = new ArrayList<>(allTasks);
+        while (!notProcessedTasks.isEmpty()) {
+            List<Task> processedTasks = new ArrayList<>();
+            for (Task task : notProcessedTasks) {
+                if (!task.dependsOnAnyTaskFrom(notProcessedTasks)) {
+                    task.calculateEarliest();
+                    projectEnd = Math.max(projectEnd, task.earliestFinish());
+                    processedTasks.add(task);
+                }
+            }
+            notProcessedTasks.removeAll(processedTasks);
+        }
+
+        notProcessedTasks = new ArrayList<>(allTasks);
+        while (!notProcessedTasks.isEmpty()) {
+            List<Task> processedTasks = new ArrayList<>();
+            for (Task task : notProcessedTasks) {
+                if (!task.haveAnyTaskDependingOnMeFrom(notProcessedTasks)) {
+                    task.calculateLatestAndSlack(projectEnd);
+                    processedTasks.add(task);
+                }
+            }
+            notProcessedTasks.removeAll(processedTasks);
+        }
+        return projectEnd;
+    }
+}
@@ -0,0 +1,186 @@
+package com.se.netdiagram.domain.model.networkdiagram;
+
+import static com.se.netdiagram.domain.model.networkdiagram.NetworkDiagrams.scheduleOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+
+public class TransitiveReductionTest {
+
+    @Test
+    public void removeRedundantDependencies_Should_RemoveADependencyImpliedByAChain()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addTask("C", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "B", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+
+        Map<TaskId, List<TaskId>> removed = nd.removeRedundantDependencies();
+
+        assertEquals(Collections.singletonMap(new TaskId("C"), Arrays.asList(new TaskId("A"))), removed);
+        assertEquals("[B]", nd.getTask("C").predecessors().toString());
+        assertEquals("[B]", nd.getTask("A").successors().toString());
+        assertEquals(6, nd.projectEnd());
+    }
+
+    @Test
+    public void removeRedundantDependencies_Should_KeepDependencies_When_TheChainHasOtherTypesOrLags()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addTask("C", 1);
+        nd.addTask("D", 1);
+        nd.addPredecessorToTask("B", "A", "SS", 0);
+        nd.addPredecessorToTask("C", "B", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("D", "C", "FS", 0);
+        nd.addPredecessorToTask("D", "B", "FS", 1);
+
+        assertTrue(nd.removeRedundantDependencies().isEmpty());
+    }
+
+    @Test
+    public void removeRedundantDependencies_Should_KeepAllDependenciesOnAPredecessor_When_OneIsNotPlain()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addTask("C", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "B", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "SS", 1);
+
+        assertTrue(nd.removeRedundantDependencies().isEmpty());
+        assertEquals(3, nd.getTask("C").predecessors().size());
+    }
+
+    @Test
+    public void removeRedundantDependencies_Should_RemoveExactlyTheImpliedDependencies_WithAnyMemoryBudget()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(5);
+        String[] types = { "FS", "FS", "FS", "SS", "FF" };
+
+        for (int n = 0; n < 10; n++) {
+            int size = 150 + random.nextInt(100);
+            NetworkDiagram small = new NetworkDiagram();
+            NetworkDiagram large = new NetworkDiagram();
+            for (NetworkDiagram nd : Arrays.asList(small, large)) {
+                nd.beginBatch();
+                for (int i = 0; i < size; i++) {
+                    nd.addTask("T" + i, random.nextInt(5));
+                }
+            }
+            for (int i = 0; i < 4 * size; i++) {
+                int a = random.nextInt(size);
+                int b = random.nextInt(size);
+                String type = types[random.nextInt(types.length)];
+                int lag = random.nextInt(5) == 0 ? 1 : 0;
+                if (a < b && !dependsOn(small.getTask("T" + b), "T" + a)) {
+                    for (NetworkDiagram nd : Arrays.asList(small, large)) {
+                        nd.addPredecessorToTask("T" + b, "T" + a, type, lag);
+                    }
+                }
+            }
+            for (NetworkDiagram nd : Arrays.asList(small, large)) {
+                nd.commitBatch();
+            }
+            Set<String> expected = impliedDependencies(small);
+            String schedule = scheduleOf(small);
+
+            Map<TaskId, List<TaskId>> removedWithChunks = small.removeRedundantDependencies(1);
+            Map<TaskId, List<TaskId>> removedAtOnce = large.removeRedundantDependencies();
+
+            assertEquals(removedAtOnce, removedWithChunks);
+            Set<String> removed = new HashSet<>();
+            removedAtOnce.forEach((task, predTasks) -> predTasks
+                    .forEach(predTask -> removed.add(predTask + "-" + task)));
+            assertEquals(expected, removed);
+            assertEquals(schedule, scheduleOf(small));
+            assertTrue(impliedDependencies(small).isEmpty());
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void removeRedundantDependencies_Should_HandleLargeDiagramsWithinTheMemoryBudget()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        int size = 100_000;
+        Random random = new Random(3);
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.beginBatch();
+        nd.addTask("T0", 1);
+        for (int i = 1; i < size; i++) {
+            nd.addTask("T" + i, 1 + random.nextInt(3));
+            nd.addPredecessorToTask("T" + i, "T" + (i - 1), "FS", 0);
+            if (i > 1) {
+                nd.addPredecessorToTask("T" + i, "T" + random.nextInt(i - 1), "FS", 0);
+            }
+        }
+        nd.commitBatch();
+        long end = nd.projectEnd();
+
+        Map<TaskId, List<TaskId>> removed = nd.removeRedundantDependencies(8L << 20);
+
+        assertEquals(size - 2, removed.size());
+        assertEquals(end, nd.projectEnd());
+    }
+
+    private static boolean dependsOn(Task task, String predId) {
+        return task.predecessors().stream().anyMatch(dependency -> dependency.task().idAsString().equals(predId));
+    }
+
+    /**
+     * The plain finish-to-start dependencies, with no other dependency between
+     * the same tasks, that a path of at least two plain finish-to-start
+     * dependencies implies, found by searching from each predecessor.
+     */
+    private static Set<String> impliedDependencies(NetworkDiagram nd) {
+        Set<String> implied = new HashSet<>();
+        for (Task predTask : nd.tasks()) {
+            Set<Task> reachedInTwoOrMore = new HashSet<>();
+            List<Task> stack = new ArrayList<>();
+            for (Dependency dependency : predTask.successors()) {
+                if (isPlain(dependency)) {
+                    stack.add(dependency.task());
+                }
+            }
+            while (!stack.isEmpty()) {
+                Task task = stack.remove(stack.size() - 1);
+                for (Dependency dependency : task.successors()) {
+                    if (isPlain(dependency) && reachedInTwoOrMore.add(dependency.task())) {
+                        stack.add(dependency.task());
+                    }
+                }
+            }
+            for (Dependency dependency : predTask.successors()) {
+                boolean onlyPlain = predTask.successors().stream()
+                        .filter(other -> other.task() == dependency.task()).allMatch(TransitiveReductionTest::isPlain);
+                if (onlyPlain && reachedInTwoOrMore.contains(dependency.task())) {
+                    implied.add(predTask.idAsString() + "-" + dependency.task().idAsString());
+                }
+            }
+        }
+        return implied;
+    }
+
+    private static boolean isPlain(Dependency dependency) {
+        return dependency.type() == DependencyType.FS && dependency.lag().value() == 0;
+    }
+}
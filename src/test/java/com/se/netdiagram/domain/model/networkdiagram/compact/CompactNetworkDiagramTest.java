@@ -0,0 +1,178 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.se.netdiagram.application.DiagramNetworkReaderService;
+import com.se.netdiagram.application.PrinterService;
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.DependencyType;
+import com.se.netdiagram.domain.model.networkdiagram.NetworkDiagram;
+import com.se.netdiagram.domain.model.networkdiagram.Schedule;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
+import com.se.netdiagram.domain.model.networkdiagram.Task;
+import com.se.netdiagram.port.adapter.ConsoleNetworkDiagramPrinter;
+import com.se.netdiagram.port.adapter.JSONFileTaskDataReader;
+
+public class CompactNetworkDiagramTest {
+
+    @Test
+    public void compactDiagram_Should_GiveTheSameValuesAsNetworkDiagram_For_AllExamples() throws Exception {
+        List<String> jsonFiles = Files.walk(Paths.get("examples"))
+                .map(path -> path.toString())
+                .filter(name -> name.endsWith(".json"))
+                .collect(Collectors.toList());
+
+        for (String jsonFile : jsonFiles) {
+            NetworkDiagram nd = DiagramNetworkReaderService
+                    .readNetworkDiagramWith(new JSONFileTaskDataReader(jsonFile));
+            CompactNetworkDiagram compact = DiagramNetworkReaderService
+                    .readCompactNetworkDiagramWith(new JSONFileTaskDataReader(jsonFile));
+            assertSameSchedule(nd, compact);
+        }
+    }
+
+    @Test
+    public void compactDiagram_Should_GiveTheSameValuesAsNetworkDiagram_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(5);
+        String[] types = { "FS", "SS", "FF", "SF" };
+
+        for (int n = 0; n < 20; n++) {
+            NetworkDiagram nd = new NetworkDiagram();
+            nd.beginBatch();
+            int size = 5 + random.nextInt(60);
+            for (int i = 0; i < size; i++) {
+                nd.addTask("T" + i, random.nextInt(10));
+            }
+            for (int i = 1; i < size; i++) {
+                for (int p = 0; p < i; p++) {
+                    if (random.nextInt(6) == 0) {
+                        nd.addPredecessorToTask("T" + i, "T" + p, types[random.nextInt(4)], random.nextInt(5));
+                    }
+                }
+            }
+            nd.commitBatch();
+
+            assertSameSchedule(nd, CompactNetworkDiagram.from(nd));
+        }
+    }
+
+    @Test
+    public void predecessors_Should_BePrintedLikeDependencies() throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram compact = CompactNetworkDiagram.builder()
+                .addTask("A", 2)
+                .addTask("B", 3)
+                .addTask("C", 1)
+                .addDependency("C", "A", DependencyType.FS, 0)
+                .addDependency("C", "B", DependencyType.SS, 2)
+                .build();
+
+        assertEquals("[A, B-SS2]", compact.getTask("C").predecessors().toString());
+        assertNull(compact.getTask("D"));
+    }
+
+    @Test
+    public void criticalPaths_Should_FollowDrivingDependenciesBetweenTasksWithZeroSlack()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram compact = CompactNetworkDiagram.builder()
+                .addTask("A", 1)
+                .addTask("B", 2)
+                .addTask("C", 2)
+                .addTask("D", 1)
+                .addTask("E", 1)
+                .addDependency("B", "A", DependencyType.FS, 0)
+                .addDependency("C", "A", DependencyType.FS, 0)
+                .addDependency("D", "B", DependencyType.FS, 0)
+                .addDependency("D", "C", DependencyType.FS, 0)
+                .addDependency("E", "A", DependencyType.FS, 0)
+                .build();
+
+        List<List<String>> paths = compact.getCriticalPaths().stream()
+                .map(path -> path.tasks().stream().map(task -> task.id().toString()).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+
+        assertThat(paths, containsInAnyOrder(
+                Arrays.asList("A", "B", "D"),
+                Arrays.asList("A", "C", "D")));
+    }
+
+    @Test(expected = DuplicateTaskKeyException.class)
+    public void builder_Should_Throw_DuplicateTaskKeyException_When_DuplicateKeys() throws DuplicateTaskKeyException {
+        CompactNetworkDiagram.builder().addTask("A", 1).addTask("A", 2);
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void builder_Should_Throw_KeyNotFoundException_When_PredecessorDoesNotExist()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram.builder().addTask("A", 1).addDependency("A", "B", DependencyType.FS, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void build_Should_Throw_IllegalArgumentException_When_DependenciesAreCircular()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram.builder()
+                .addTask("A", 1)
+                .addTask("B", 1)
+                .addDependency("A", "B", DependencyType.FS, 0)
+                .addDependency("B", "A", DependencyType.FS, 0)
+                .build();
+    }
+
+    @Test
+    public void printerService_Should_PrintACompactDiagram_As_TheNetworkDiagram() throws Exception {
+        NetworkDiagram nd = DiagramNetworkReaderService
+                .readNetworkDiagramWith(new JSONFileTaskDataReader("examples/tasks_all.json"));
+        CompactNetworkDiagram compact = DiagramNetworkReaderService
+                .readCompactNetworkDiagramWith(new JSONFileTaskDataReader("examples/tasks_all.json"));
+
+        String printedCompact = printed(compact);
+
+        assertThat(printedCompact, containsString("PredID"));
+        assertEquals(printed(nd), printedCompact);
+    }
+
+    private static String printed(Schedule schedule) throws UnsupportedEncodingException {
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed, true, "UTF-8"));
+        try {
+            PrinterService.printTasksAndCriticalPaths(schedule, new ConsoleNetworkDiagramPrinter(1));
+        } finally {
+            System.setOut(out);
+        }
+        return printed.toString("UTF-8");
+    }
+
+    private static void assertSameSchedule(NetworkDiagram nd, CompactNetworkDiagram compact) {
+        assertEquals(nd.tasks().size(), compact.size());
+        assertEquals(nd.projectEnd(), compact.projectEnd());
+        for (Task task : nd.tasks()) {
+            ScheduledTask compactTask = compact.getTask(task.idAsString());
+            String message = "task " + task;
+            assertEquals(message, task.durationAsInt(), compactTask.durationAsInt());
+            assertEquals(message, task.earliestStart(), compactTask.earliestStart());
+            assertEquals(message, task.earliestFinish(), compactTask.earliestFinish());
+            assertEquals(message, task.latestStart(), compactTask.latestStart());
+            assertEquals(message, task.latestFinish(), compactTask.latestFinish());
+            assertEquals(message, task.slack(), compactTask.slack());
+            assertEquals(message, task.predecessors().toString(), compactTask.predecessors().toString());
+        }
+    }
+}
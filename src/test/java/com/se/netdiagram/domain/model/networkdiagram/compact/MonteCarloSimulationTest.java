@@ -0,0 +1,139 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.DependencyType;
+import com.se.netdiagram.domain.model.networkdiagram.ThreePointEstimate;
+import com.se.netdiagram.domain.model.networkdiagram.ThreePointEstimate.Distribution;
+
+public class MonteCarloSimulationTest {
+
+    @Test
+    public void run_Should_GiveTheDeterministicSchedule_When_ThereAreNoEstimates()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder()
+                .addTask("A", 2).addTask("B", 3).addTask("C", 1)
+                .addDependency("B", "A", DependencyType.FS, 0)
+                .addDependency("C", "A", DependencyType.FS, 0)
+                .build();
+
+        SimulationResult result = new MonteCarloSimulation(diagram).run(100, 7);
+
+        assertEquals(5, result.p50());
+        assertEquals(5, result.p95());
+        assertEquals(1.0, result.criticalityIndex("A"), 0);
+        assertEquals(1.0, result.criticalityIndex("B"), 0);
+        assertEquals(0.0, result.criticalityIndex("C"), 0);
+    }
+
+    @Test
+    public void run_Should_SplitCriticality_When_TwoBranchesCompete()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder()
+                .addTask("A", 1).addTask("B", 5).addTask("C", 5).addTask("D", 1)
+                .addDependency("B", "A", DependencyType.FS, 0)
+                .addDependency("C", "A", DependencyType.FS, 0)
+                .addDependency("D", "B", DependencyType.FS, 0)
+                .addDependency("D", "C", DependencyType.FS, 0)
+                .build();
+
+        SimulationResult result = new MonteCarloSimulation(diagram)
+                .withEstimate("B", new ThreePointEstimate(2, 5, 8))
+                .withEstimate("C", new ThreePointEstimate(2, 5, 8, Distribution.PERT))
+                .run(20000, 3);
+
+        assertThat(result.criticalityIndex("B"), is(0.3, 0.7));
+        assertThat(result.criticalityIndex("C"), is(0.3, 0.7));
+        assertEquals(1.0, result.criticalityIndex("A"), 0);
+        assertThat(result.p50(), both(greaterThanOrEqualTo(7L)).and(lessThanOrEqualTo(10L)));
+        assertThat(result.p80(), greaterThanOrEqualTo(result.p50()));
+        assertThat(result.p95(), both(greaterThanOrEqualTo(result.p80())).and(lessThanOrEqualTo(10L)));
+    }
+
+    @Test
+    public void run_Should_GiveTheSameResults_Regardless_Of_ThreadCount()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = randomDiagram(new Random(5), 300);
+        MonteCarloSimulation simulation = new MonteCarloSimulation(diagram);
+        for (int task = 0; task < diagram.size(); task += 2) {
+            long duration = diagram.durationAt(task);
+            simulation.withEstimate(diagram.idAt(task), new ThreePointEstimate(duration / 2, duration, duration * 2));
+        }
+
+        SimulationResult sequential = simulation.run(3500, 42);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            SimulationResult parallel = simulation.run(3500, 42, pool);
+
+            assertEquals(sequential.toString(), parallel.toString());
+            assertEquals(sequential.meanProjectEnd(), parallel.meanProjectEnd(), 0);
+            for (int task = 0; task < diagram.size(); task++) {
+                assertEquals(sequential.criticalityIndex(diagram.idAt(task)),
+                        parallel.criticalityIndex(diagram.idAt(task)), 0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void sample_Should_StayWithinTheEstimate() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (Distribution distribution : Distribution.values()) {
+            ThreePointEstimate estimate = new ThreePointEstimate(3, 4, 12, distribution);
+            double sum = 0;
+            for (int i = 0; i < 10000; i++) {
+                long sample = estimate.sample(random);
+                assertThat(sample, both(greaterThanOrEqualTo(3L)).and(lessThanOrEqualTo(12L)));
+                sum += sample;
+            }
+            assertThat(sum / 10000, is(4.5, 7.0));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void threePointEstimate_Should_ThrowException_When_MostLikelyIsOutOfRange() {
+        new ThreePointEstimate(3, 2, 5);
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void withEstimate_Should_ThrowException_When_TaskDoesNotExist()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder().addTask("A", 2).build();
+
+        new MonteCarloSimulation(diagram).withEstimate("B", ThreePointEstimate.fixed(1));
+    }
+
+    private static org.hamcrest.Matcher<Double> is(double low, double high) {
+        return both(greaterThan(low)).and(lessThan(high));
+    }
+
+    private static CompactNetworkDiagram randomDiagram(Random random, int size)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram.Builder builder = CompactNetworkDiagram.builder();
+        for (int i = 0; i < size; i++) {
+            builder.addTask("T" + i, 1 + random.nextInt(10));
+            for (int p = Math.max(0, i - 20); p < i; p++) {
+                if (random.nextInt(8) == 0) {
+                    builder.addDependency("T" + i, "T" + p, DependencyType.values()[random.nextInt(4)],
+                            random.nextInt(3));
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.DependencyType;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledDependency;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
+import com.se.netdiagram.domain.model.networkdiagram.compact.ResourceConstrainedScheduler.PriorityRule;
+
+public class ResourceConstrainedSchedulerTest {
+
+    @Test
+    public void schedule_Should_BeTheUnconstrainedOne_When_ThereAreNoDemands()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = randomDiagram(new Random(2), 60);
+
+        ResourceSchedule schedule = new ResourceConstrainedScheduler(diagram).schedule(PriorityRule.MIN_SLACK);
+
+        assertEquals(diagram.projectEnd(), schedule.projectEnd());
+        for (ScheduledTask task : diagram.tasks()) {
+            assertEquals(task.earliestStart(), schedule.start(task.id().toString()));
+        }
+    }
+
+    @Test
+    public void schedule_Should_DelayTheTaskWithMoreSlack_When_AResourceIsShared()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder()
+                .addTask("A", 2).addTask("B", 3).addTask("C", 2).addTask("D", 1)
+                .addDependency("B", "A", DependencyType.FS, 0)
+                .addDependency("C", "A", DependencyType.FS, 0)
+                .addDependency("D", "B", DependencyType.FS, 0)
+                .addDependency("D", "C", DependencyType.FS, 0)
+                .build();
+
+        ResourceSchedule schedule = new ResourceConstrainedScheduler(diagram)
+                .withCapacity("crew", 2).withCapacity("crane", 1)
+                .withDemand("A", "crew", 1)
+                .withDemand("B", "crew", 1).withDemand("B", "crane", 1)
+                .withDemand("C", "crane", 1)
+                .withDemand("D", "crew", 2)
+                .schedule(PriorityRule.MIN_SLACK);
+
+        assertEquals(2, schedule.start("B"));
+        assertEquals(5, schedule.start("C"));
+        assertEquals(3, schedule.delay("C"));
+        assertEquals(7, schedule.start("D"));
+        assertEquals(8, schedule.projectEnd());
+    }
+
+    @Test
+    public void schedule_Should_RespectDependenciesAndCapacities_For_RandomNetworks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(31);
+        for (int n = 0; n < 20; n++) {
+            CompactNetworkDiagram diagram = randomDiagram(random, 10 + random.nextInt(60));
+            int resources = 1 + random.nextInt(4);
+            int[] capacities = new int[resources];
+            int[][] demands = new int[diagram.size()][resources];
+            ResourceConstrainedScheduler scheduler = new ResourceConstrainedScheduler(diagram);
+            for (int r = 0; r < resources; r++) {
+                capacities[r] = 1 + random.nextInt(3);
+                scheduler.withCapacity("R" + r, capacities[r]);
+            }
+            for (int task = 0; task < diagram.size(); task++) {
+                for (int r = 0; r < resources; r++) {
+                    if (random.nextInt(3) == 0) {
+                        demands[task][r] = 1 + random.nextInt(capacities[r]);
+                        scheduler.withDemand("T" + task, "R" + r, demands[task][r]);
+                    }
+                }
+            }
+
+            for (PriorityRule rule : PriorityRule.values()) {
+                ResourceSchedule schedule = scheduler.schedule(rule);
+
+                assertThat(schedule.projectEnd(), greaterThanOrEqualTo(diagram.projectEnd()));
+                assertDependenciesHold(diagram, schedule);
+                assertCapacitiesHold(diagram, schedule, capacities, demands);
+            }
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void schedule_Should_Scale_To_ManyTasksAndResources()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(8);
+        CompactNetworkDiagram.Builder builder = CompactNetworkDiagram.builder();
+        int size = 50000;
+        for (int i = 0; i < size; i++) {
+            builder.addTask("T" + i, 1 + random.nextInt(5));
+            if (i > 100) {
+                builder.addDependency("T" + i, "T" + (i - 1 - random.nextInt(100)), DependencyType.FS, 0);
+            }
+        }
+        CompactNetworkDiagram diagram = builder.build();
+        ResourceConstrainedScheduler scheduler = new ResourceConstrainedScheduler(diagram);
+        for (int r = 0; r < 200; r++) {
+            scheduler.withCapacity("R" + r, 4);
+        }
+        for (int i = 0; i < size; i++) {
+            scheduler.withDemand("T" + i, "R" + random.nextInt(200), 1 + random.nextInt(4));
+        }
+
+        ResourceSchedule schedule = scheduler.schedule(PriorityRule.LATEST_START);
+
+        assertThat(schedule.projectEnd(), greaterThanOrEqualTo(diagram.projectEnd()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withDemand_Should_ThrowException_When_DemandExceedsCapacity()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder().addTask("A", 2).build();
+
+        new ResourceConstrainedScheduler(diagram).withCapacity("crew", 1).withDemand("A", "crew", 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withCapacity_Should_ThrowException_When_ResourceAlreadyHasACapacity()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder().addTask("A", 2).build();
+
+        new ResourceConstrainedScheduler(diagram).withCapacity("crew", 1).withCapacity("crew", 2);
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void withDemand_Should_ThrowException_When_ResourceDoesNotExist()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder().addTask("A", 2).build();
+
+        new ResourceConstrainedScheduler(diagram).withDemand("A", "crew", 1);
+    }
+
+    private static void assertDependenciesHold(CompactNetworkDiagram diagram, ResourceSchedule schedule)
+            throws KeyNotFoundException {
+        for (ScheduledTask task : diagram.tasks()) {
+            String id = task.id().toString();
+            assertThat(schedule.start(id), greaterThanOrEqualTo(0L));
+            for (ScheduledDependency dependency : task.predecessors()) {
+                String predId = dependency.task().id().toString();
+                long earliest = dependency.type().earliestStartOfSuccessor(schedule.start(predId),
+                        schedule.finish(predId), task.durationAsInt(), dependency.lag().value());
+                assertThat(id, schedule.start(id), greaterThanOrEqualTo(earliest));
+            }
+        }
+    }
+
+    private static void assertCapacitiesHold(CompactNetworkDiagram diagram, ResourceSchedule schedule,
+            int[] capacities, int[][] demands) throws KeyNotFoundException {
+        int[][] used = new int[capacities.length][(int) schedule.projectEnd()];
+        for (int task = 0; task < diagram.size(); task++) {
+            for (long t = schedule.start("T" + task); t < schedule.finish("T" + task); t++) {
+                for (int r = 0; r < capacities.length; r++) {
+                    used[r][(int) t] += demands[task][r];
+                    assertThat(used[r][(int) t], lessThanOrEqualTo(capacities[r]));
+                }
+            }
+        }
+    }
+
+    private static CompactNetworkDiagram randomDiagram(Random random, int size)
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram.Builder builder = CompactNetworkDiagram.builder();
+        for (int i = 0; i < size; i++) {
+            builder.addTask("T" + i, random.nextInt(6));
+            for (int p = Math.max(0, i - 10); p < i; p++) {
+                if (random.nextInt(6) == 0) {
+                    builder.addDependency("T" + i, "T" + p, DependencyType.values()[random.nextInt(4)],
+                            random.nextInt(3));
+                }
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,181 @@
+package com.se.netdiagram.domain.model.networkdiagram.compact;
+
+import static com.se.netdiagram.domain.model.networkdiagram.compact.ScenarioOverrides.scenario;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.se.netdiagram.domain.model.exceptions.DuplicateTaskKeyException;
+import com.se.netdiagram.domain.model.exceptions.KeyNotFoundException;
+import com.se.netdiagram.domain.model.networkdiagram.DependencyType;
+import com.se.netdiagram.domain.model.networkdiagram.NetworkDiagram;
+import com.se.netdiagram.domain.model.networkdiagram.ScheduledTask;
+
+public class ScenarioTest {
+
+    @Test
+    public void scenario_Should_BeScheduledAsARebuiltDiagram_After_RandomChanges()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        Random random = new Random(17);
+        for (int n = 0; n < 40; n++) {
+            RandomNetwork network = new RandomNetwork(random, 5 + random.nextInt(40));
+            CompactNetworkDiagram base = network.build();
+            Scenario scenario = base.fork();
+
+            for (int change = 0; change < 10; change++) {
+                if (random.nextBoolean() || network.dependencies.isEmpty()) {
+                    int task = random.nextInt(network.durations.length);
+                    network.durations[task] = random.nextInt(10);
+                    scenario.changeDuration("T" + task, network.durations[task]);
+                } else {
+                    long[] dependency = network.dependencies.get(random.nextInt(network.dependencies.size()));
+                    dependency[3] = random.nextInt(5) - 1;
+                    for (long[] other : network.dependencies) {
+                        if (other[0] == dependency[0] && other[1] == dependency[1]) {
+                            other[3] = dependency[3];
+                        }
+                    }
+                    scenario.changeLag("T" + dependency[0], "T" + dependency[1], dependency[3]);
+                }
+
+                assertSameSchedule(network.build(), scenario);
+            }
+        }
+    }
+
+    @Test
+    public void fork_Should_NotChangeTheDiagram_Nor_OtherForks()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder()
+                .addTask("A", 2).addTask("B", 3).addTask("C", 1)
+                .addDependency("B", "A", DependencyType.FS, 0)
+                .addDependency("C", "A", DependencyType.FS, 0)
+                .build();
+
+        Scenario slip = diagram.fork().changeDuration("C", 6);
+        Scenario lag = diagram.fork().changeLag("B", "A", 2);
+
+        assertEquals(8, slip.projectEnd());
+        assertThat(slip.criticalTasks(), contains("A", "C"));
+        assertEquals(7, lag.projectEnd());
+        assertThat(lag.criticalTasks(), contains("A", "B"));
+        assertEquals(5, diagram.projectEnd());
+        assertEquals(2, diagram.getTask("C").slack());
+    }
+
+    @Test
+    public void fork_Should_CopyOnlyThePagesThatChange_When_TheChangeIsLocal()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram.Builder builder = CompactNetworkDiagram.builder();
+        builder.addTask("LONG", 1000);
+        for (int i = 0; i < 100000; i++) {
+            builder.addTask("T" + i, 1);
+            if (i > 0 && i % 10 != 0) {
+                builder.addDependency("T" + i, "T" + (i - 1), DependencyType.FS, 0);
+            }
+        }
+        CompactNetworkDiagram diagram = builder.build();
+
+        Scenario scenario = diagram.fork().changeDuration("T50005", 20);
+
+        assertEquals(1000, scenario.projectEnd());
+        assertEquals(25, scenario.earliestFinish("T50005"));
+        assertEquals(29, scenario.earliestFinish("T50009"));
+        assertEquals(971, scenario.slack("T50001"));
+        assertThat(scenario.copiedPages(), lessThanOrEqualTo(6));
+    }
+
+    @Test
+    public void evaluate_Should_ReturnAResultPerScenario_InOrder()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        NetworkDiagram nd = new NetworkDiagram();
+        nd.addTask("A", 2);
+        nd.addTask("B", 3);
+        nd.addTask("C", 1);
+        nd.addPredecessorToTask("B", "A", "FS", 0);
+        nd.addPredecessorToTask("C", "A", "FS", 0);
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<ScenarioResult> results = nd.snapshot().evaluate(Arrays.asList(
+                    scenario("baseline"),
+                    scenario("C slips").withDuration("C", 6),
+                    scenario("B waits").withLag("B", "A", 1).withDuration("A", 1)), pool);
+
+            assertEquals("baseline", results.get(0).name());
+            assertEquals(5, results.get(0).projectEnd());
+            assertThat(results.get(0).criticalTasks(), contains("A", "B"));
+            assertEquals(8, results.get(1).projectEnd());
+            assertThat(results.get(1).criticalTasks(), contains("A", "C"));
+            assertEquals(5, results.get(2).projectEnd());
+            assertEquals(5, nd.projectEnd());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = KeyNotFoundException.class)
+    public void evaluate_Should_ThrowKeyNotFoundException_When_DependencyDoesNotExist()
+            throws DuplicateTaskKeyException, KeyNotFoundException {
+        CompactNetworkDiagram diagram = CompactNetworkDiagram.builder()
+                .addTask("A", 2).addTask("B", 3)
+                .build();
+
+        diagram.evaluate(Arrays.asList(scenario("no such dependency").withLag("B", "A", 1)),
+                ForkJoinPool.commonPool());
+    }
+
+    private static void assertSameSchedule(CompactNetworkDiagram expected, Scenario actual)
+            throws KeyNotFoundException {
+        assertEquals(expected.projectEnd(), actual.projectEnd());
+        for (ScheduledTask task : expected.tasks()) {
+            String id = task.id().toString();
+            assertEquals(id, task.earliestStart(), actual.earliestStart(id));
+            assertEquals(id, task.earliestFinish(), actual.earliestFinish(id));
+            assertEquals(id, task.latestStart(), actual.latestStart(id));
+            assertEquals(id, task.latestFinish(), actual.latestFinish(id));
+            assertEquals(id, task.slack(), actual.slack(id));
+        }
+    }
+
+    private static class RandomNetwork {
+        private final long[] durations;
+        /**
+         * task, predecessor, type, lag
+         */
+        private final List<long[]> dependencies = new ArrayList<>();
+
+        RandomNetwork(Random random, int size) {
+            durations = new long[size];
+            for (int i = 0; i < size; i++) {
+                durations[i] = random.nextInt(10);
+                for (int p = 0; p < i; p++) {
+                    if (random.nextInt(5) == 0) {
+                        dependencies.add(new long[] { i, p, random.nextInt(4), random.nextInt(3) });
+                    }
+                }
+            }
+        }
+
+        CompactNetworkDiagram build() throws DuplicateTaskKeyException, KeyNotFoundException {
+            CompactNetworkDiagram.Builder builder = CompactNetworkDiagram.builder();
+            for (int i = 0; i < durations.length; i++) {
+                builder.addTask("T" + i, durations[i]);
+            }
+            for (long[] dependency : dependencies) {
+                builder.addDependency("T" + dependency[0], "T" + dependency[1],
+                        DependencyType.values()[(int) dependency[2]], dependency[3]);
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.se.netdiagram.domain.model.networkdiagram.date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+public class WorkingCalendarTest {
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 1);
+
+    @Test
+    public void workingTimeBefore_Should_SkipWeekendsAndHolidays() {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY).holiday(LocalDate.of(2024, 1, 3)).build();
+
+        assertEquals(0, calendar.workingTimeBefore(0));
+        assertEquals(2, calendar.workingTimeBefore(3));
+        assertEquals(4, calendar.workingTimeBefore(7));
+        assertEquals(5, calendar.workingTimeBefore(8));
+        assertFalse(calendar.isWorkingDay(2));
+        assertFalse(calendar.isWorkingDay(5));
+        assertTrue(calendar.isWorkingDay(7));
+    }
+
+    @Test
+    public void startAndFinishOfWorkingTime_Should_BeTheDaysOfTheWorkingDays() {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY).build();
+
+        assertEquals(4, calendar.startOfWorkingTime(4));
+        assertEquals(7, calendar.startOfWorkingTime(5));
+        assertEquals(5, calendar.finishOfWorkingTime(5));
+        assertEquals(8, calendar.finishOfWorkingTime(6));
+        assertEquals(LocalDate.of(2024, 1, 5), calendar.finishDateOf(calendar.finishOfWorkingTime(5)));
+    }
+
+    @Test
+    public void conversions_Should_BeTheSameAsCountingDayByDay_Within_And_BeyondTheHorizon() {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY)
+                .weekend(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)
+                .holiday(LocalDate.of(2024, 1, 10)).holiday(LocalDate.of(2024, 2, 1))
+                .holiday(LocalDate.of(2024, 6, 1))
+                .horizonInDays(60)
+                .build();
+
+        long working = 0;
+        for (long day = 0; day < 400; day++) {
+            assertEquals("day " + day, working, calendar.workingTimeBefore(day));
+            LocalDate date = MONDAY.plusDays(day);
+            boolean isWorking = date.getDayOfWeek() != DayOfWeek.FRIDAY
+                    && date.getDayOfWeek() != DayOfWeek.SATURDAY
+                    && (day >= 60 || !date.equals(LocalDate.of(2024, 1, 10)) && !date.equals(LocalDate.of(2024, 2, 1)));
+            assertEquals("day " + day, isWorking, calendar.isWorkingDay(day));
+            if (isWorking) {
+                assertEquals(day, calendar.startOfWorkingTime(working));
+                assertEquals(day + 1, calendar.finishOfWorkingTime(working + 1));
+                working++;
+            }
+        }
+    }
+
+    @Test
+    public void conversions_Should_BeTheIdentity_When_ThereAreNoNonWorkingDays() {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY).weekend().horizonInDays(10).build();
+
+        for (long t = -5; t < 30; t++) {
+            assertEquals(t, calendar.workingTimeBefore(t));
+            assertEquals(t, calendar.startOfWorkingTime(t));
+            assertEquals(t, calendar.finishOfWorkingTime(t));
+        }
+    }
+
+    @Test
+    public void workingDaysBetween_Should_CountTheWorkingDaysInTheRange() {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY).build();
+
+        assertEquals(5, calendar.workingDaysBetween(MONDAY, MONDAY.plusDays(7)));
+        assertEquals(5, Duration.workingDaysBetween(MONDAY.plusDays(3), MONDAY.plusDays(10), calendar).value());
+        assertEquals(MONDAY.plusDays(9), Date.ofLocalDate(MONDAY.plusDays(9), calendar).toLocalDate(calendar));
+    }
+
+    @Test
+    public void calendar_Should_OnlyUseTheWeekend_When_TheHorizonIsZero() {
+        WorkingCalendar calendar = WorkingCalendar.builder(MONDAY).holiday(LocalDate.of(2024, 1, 3)).horizonInDays(0)
+                .build();
+
+        assertTrue(calendar.isWorkingDay(2));
+        assertFalse(calendar.isWorkingDay(5));
+        assertEquals(5, calendar.workingTimeBefore(7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void horizonInDays_Should_ThrowException_When_TheHorizonIsNegative() {
+        WorkingCalendar.builder(MONDAY).horizonInDays(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void build_Should_ThrowException_When_EveryDayIsInTheWeekend() {
+        WorkingCalendar.builder(MONDAY).weekend(DayOfWeek.values()).build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.se.netdiagram.domain.model.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class LazyQueryTest {
+
+    @Test
+    public void query_Should_RunOnlyWhenATerminalOperationIsCalled() {
+        List<Integer> source = new ArrayList<>(Arrays.asList(1, 2, 3, 4, 5, 6));
+        AtomicInteger tested = new AtomicInteger();
+
+        LazyQuery<String> query = LazyQuery.from(source)
+                .filter(i -> {
+                    tested.incrementAndGet();
+                    return i % 2 == 0;
+                })
+                .map(i -> "#" + i);
+
+        assertEquals(0, tested.get());
+        assertThat(query.toList(), contains("#2", "#4", "#6"));
+        assertEquals(6, tested.get());
+
+        source.add(8);
+        assertEquals(4, query.count());
+    }
+
+    @Test
+    public void any_Should_StopAtTheFirstMatch() {
+        AtomicInteger tested = new AtomicInteger();
+
+        boolean found = LazyQuery.from(Arrays.asList(1, 2, 3, 4, 5, 6))
+                .map(i -> {
+                    tested.incrementAndGet();
+                    return i * 10;
+                })
+                .any(i -> i == 20);
+
+        assertTrue(found);
+        assertEquals(2, tested.get());
+    }
+
+    @Test
+    public void parallel_Should_KeepTheOrderOfTheSource() {
+        List<Integer> source = IntStream.range(0, 100000).boxed().collect(Collectors.toList());
+
+        List<Integer> result = LazyQuery.from(source).parallel().filter(i -> i % 3 == 0).map(i -> i / 3).toList();
+
+        assertEquals(IntStream.range(0, 33334).boxed().collect(Collectors.toList()), result);
+    }
+}